@@ -0,0 +1,54 @@
+-- 分页排序字段的索引（mysql.sql 建表语句中已包含，已有库按此脚本补建）
+-- 白名单中的每个排序字段都有 (isDeleted, 字段) 或单列索引，ORDER BY 字段, id LIMIT 走索引而不出现 Using filesort
+-- 执行：mysql -u <user> -p springBootTest < migrations/V1__paged_sort_indexes.sql
+
+ALTER TABLE `About`
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `Admins`
+  ADD KEY `idx_isDeleted_userName` (`isDeleted`,`userName`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `BrandAuthorizationCertificates`
+  ADD KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `Brands`
+  ADD KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `Businesses`
+  ADD KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `Carousels`
+  ADD KEY `idx_isDeleted_order` (`isDeleted`,`order`),
+  ADD KEY `idx_isDeleted_title` (`isDeleted`,`title`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `ProductCategories`
+  ADD KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
+
+ALTER TABLE `User`
+  ADD KEY `idx_userName` (`userName`);
+
+ALTER TABLE `Orders`
+  ADD KEY `idx_totalPrice` (`totalPrice`),
+  ADD KEY `idx_status` (`status`),
+  ADD KEY `idx_createTime` (`createTime`),
+  ADD KEY `idx_updateTime` (`updateTime`);
+
+ALTER TABLE `Products`
+  ADD KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  ADD KEY `idx_isDeleted_salePrice` (`isDeleted`,`salePrice`),
+  ADD KEY `idx_isDeleted_stockQuantity` (`isDeleted`,`stockQuantity`),
+  ADD KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  ADD KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`);
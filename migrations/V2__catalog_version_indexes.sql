@@ -0,0 +1,13 @@
+-- 目录表的 updateTime 单列索引（mysql.sql 建表语句中已包含，已有库按此脚本补建）
+-- 数据版本由 COUNT(*) 和 MAX(updateTime) 计算，MAX(updateTime) 走这个索引只读一行；增量同步 /v1/changes 也按 updateTime 范围查询
+-- 执行：mysql -u <user> -p springBootTest < migrations/V2__catalog_version_indexes.sql
+
+ALTER TABLE `Products` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `ProductCategories` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `ProductsCarousels` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `Carousels` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `Brands` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `About` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `BasicInformation` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `BrandAuthorizationCertificates` ADD KEY `idx_updateTime` (`updateTime`);
+ALTER TABLE `Businesses` ADD KEY `idx_updateTime` (`updateTime`);
@@ -0,0 +1,5 @@
+-- User表的乐观锁版本号（mysql.sql 建表语句中已包含，已有库按此脚本补列）
+-- 更新用户时按 WHERE id = ? AND version = ? 比较并更新，每次修改 version 加1；已有的行从0开始
+-- 执行：mysql -u <user> -p springBootTest < migrations/V3__user_version.sql
+
+ALTER TABLE `User` ADD COLUMN `version` int(11) NOT NULL DEFAULT '0' COMMENT '版本号（乐观锁）';
@@ -0,0 +1,36 @@
+-- 合并 wechat_openid 重复的用户（添加唯一索引 V5__user_wechat_openid_unique.sql 之前执行）
+-- 每个openid保留一个用户：优先保留未删除的用户中ID最小的，全部已删除时保留ID最小的；
+-- 其余重复用户的订单和地址改挂到保留的用户上，然后清空其openid并逻辑删除（不物理删除，便于核对）
+-- 执行前可以先运行下面注释中的查询预览受影响的用户；执行后重启应用节点，清掉本地缓存中 openid -> 用户ID 的映射
+-- 执行：mysql -u <user> -p springBootTest < migrations/V4__user_wechat_openid_dedup.sql
+--
+-- SELECT wechat_openid, COUNT(*), GROUP_CONCAT(id ORDER BY id) FROM User
+-- WHERE wechat_openid IS NOT NULL GROUP BY wechat_openid HAVING COUNT(*) > 1;
+
+START TRANSACTION;
+
+CREATE TEMPORARY TABLE `user_openid_merge` AS
+SELECT u.`id` AS `duplicate_id`, k.`keep_id`
+FROM `User` u
+JOIN (
+    SELECT `wechat_openid`, COALESCE(MIN(CASE WHEN `isDeleted` = 0 THEN `id` END), MIN(`id`)) AS `keep_id`
+    FROM `User`
+    WHERE `wechat_openid` IS NOT NULL
+    GROUP BY `wechat_openid`
+    HAVING COUNT(*) > 1
+) k ON u.`wechat_openid` = k.`wechat_openid` AND u.`id` <> k.`keep_id`;
+
+UPDATE `Orders` o JOIN `user_openid_merge` m ON o.`userId` = m.`duplicate_id`
+SET o.`userId` = m.`keep_id`;
+
+UPDATE `user_location` l JOIN `user_openid_merge` m ON l.`user_id` = m.`duplicate_id`
+SET l.`user_id` = m.`keep_id`;
+
+UPDATE `User` u JOIN `user_openid_merge` m ON u.`id` = m.`duplicate_id`
+SET u.`wechat_openid` = NULL, u.`isDeleted` = 1, u.`version` = u.`version` + 1;
+
+SELECT COUNT(*) AS `merged_users` FROM `user_openid_merge`;
+
+DROP TEMPORARY TABLE `user_openid_merge`;
+
+COMMIT;
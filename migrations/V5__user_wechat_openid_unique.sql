@@ -0,0 +1,6 @@
+-- User.wechat_openid 唯一索引（mysql.sql 建表语句中已包含，已有库按此脚本补建）
+-- 微信登录按 INSERT ... ON DUPLICATE KEY UPDATE 在这个索引上插入，同一openid的并发登录只会创建一个用户
+-- 已有重复openid时先执行 V4__user_wechat_openid_dedup.sql，否则添加索引会失败
+-- 执行：mysql -u <user> -p springBootTest < migrations/V5__user_wechat_openid_unique.sql
+
+ALTER TABLE `User` ADD UNIQUE KEY `uk_wechat_openid` (`wechat_openid`);
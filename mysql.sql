@@ -7,7 +7,10 @@ CREATE TABLE `About` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `isDeleted` tinyint(1) DEFAULT '0',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 
@@ -23,7 +26,10 @@ CREATE TABLE `Admins` (
   `remarks` text,
   `isDeleted` tinyint(1) DEFAULT '0',
   `isEnable` tinyint(1) DEFAULT '1',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_userName` (`isDeleted`,`userName`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=14 DEFAULT CHARSET=utf8;
 
 
@@ -45,7 +51,8 @@ CREATE TABLE `BasicInformation` (
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `homeTitle` varchar(20) DEFAULT NULL,
   `homeDescription` varchar(100) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=2 DEFAULT CHARSET=utf8;
 
 
@@ -59,7 +66,11 @@ CREATE TABLE `BrandAuthorizationCertificates` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `isDeleted` tinyint(1) DEFAULT '0' COMMENT '是否删除',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=2 DEFAULT CHARSET=utf8mb4;
 
 
@@ -73,7 +84,11 @@ CREATE TABLE `Brands` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `isDeleted` tinyint(1) DEFAULT '0',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=2 DEFAULT CHARSET=utf8;
 
 
@@ -87,7 +102,11 @@ CREATE TABLE `Businesses` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `isDeleted` tinyint(1) DEFAULT '0',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 
@@ -103,7 +122,12 @@ CREATE TABLE `Carousels` (
   `isDeleted` tinyint(1) DEFAULT '0',
   `title` varchar(20) DEFAULT NULL,
   `order` int(11) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_order` (`isDeleted`,`order`),
+  KEY `idx_isDeleted_title` (`isDeleted`,`title`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=10 DEFAULT CHARSET=utf8;
 
 
@@ -117,7 +141,11 @@ CREATE TABLE `ProductCategories` (
   `isDeleted` tinyint(1) DEFAULT '0' COMMENT '是否删除',
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB AUTO_INCREMENT=2 DEFAULT CHARSET=utf8 COMMENT='商品分类表';
 
 
@@ -129,7 +157,8 @@ CREATE TABLE `ProductsCarousels` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updateTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `isDeleted` tinyint(1) DEFAULT '0',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_updateTime` (`updateTime`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 
@@ -143,7 +172,10 @@ CREATE TABLE `User` (
   `isEnable` tinyint(1) DEFAULT '1',
   `isDeleted` tinyint(1) DEFAULT '0',
   `wechat_openid` varchar(255) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  `version` int(11) NOT NULL DEFAULT '0' COMMENT '版本号（乐观锁）',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_wechat_openid` (`wechat_openid`),
+  KEY `idx_userName` (`userName`)
 ) ENGINE=InnoDB AUTO_INCREMENT=473 DEFAULT CHARSET=utf8;
 
 
@@ -158,6 +190,10 @@ CREATE TABLE `Orders` (
   `updateTime` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
   KEY `userId` (`userId`),
+  KEY `idx_totalPrice` (`totalPrice`),
+  KEY `idx_status` (`status`),
+  KEY `idx_createTime` (`createTime`),
+  KEY `idx_updateTime` (`updateTime`),
   CONSTRAINT `Orders_ibfk_1` FOREIGN KEY (`userId`) REFERENCES `User` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
@@ -181,6 +217,12 @@ CREATE TABLE `Products` (
   `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
   KEY `categoryId` (`categoryId`),
+  KEY `idx_isDeleted_name` (`isDeleted`,`name`),
+  KEY `idx_isDeleted_salePrice` (`isDeleted`,`salePrice`),
+  KEY `idx_isDeleted_stockQuantity` (`isDeleted`,`stockQuantity`),
+  KEY `idx_isDeleted_createTime` (`isDeleted`,`createTime`),
+  KEY `idx_isDeleted_updateTime` (`isDeleted`,`updateTime`),
+  KEY `idx_updateTime` (`updateTime`),
   CONSTRAINT `Products_ibfk_1` FOREIGN KEY (`categoryId`) REFERENCES `ProductCategories` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=3 DEFAULT CHARSET=utf8 COMMENT='商品信息表';
 
@@ -198,4 +240,13 @@ CREATE TABLE `user_location` (
   PRIMARY KEY (`id`),
   KEY `user_id` (`user_id`),
   CONSTRAINT `user_location_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `User` (`id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8;
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- springBootTest.UploadFileNames definition
+
+CREATE TABLE `UploadFileNames` (
+  `storageName` varchar(191) NOT NULL COMMENT '存储文件名',
+  `displayName` varchar(255) NOT NULL COMMENT '原始展示名',
+  `createTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`storageName`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='上传文件名映射表（upload.name-index.type=db时使用）';
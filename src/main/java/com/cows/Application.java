@@ -5,9 +5,11 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Slf4j
 @EnableCaching
+@EnableScheduling
 @MapperScan("com.cows.mapper")
 @SpringBootApplication(scanBasePackages = {"com.cows", "com.other"})
 public class Application {
@@ -0,0 +1,90 @@
+package com.cows.cache;
+
+import com.cows.catalog.CatalogSnapshotHolder;
+import com.cows.datasource.ReplicaRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.util.Map;
+
+/**
+ * 缓存失效消息监听器
+ * 收到其他节点广播的失效消息后，只清理本节点的一级本地缓存（Redis中的条目已由发送方删除）；
+ * 开启读写分离时同时按本节点刚写入处理，清理后重新加载的查询在primary-after-write-ms内走主库，不会从延迟的从库读回旧数据；
+ * 目录数据的缓存失效时，还要让目录快照强制重新加载对应的表
+ */
+@Slf4j
+public class CacheInvalidationListener implements MessageListener {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 失效后需要重建目录快照的缓存及对应的表
+     */
+    private static final Map<String, CatalogTable> SNAPSHOT_TABLES = Map.of(
+            CacheNames.PRODUCTS, CatalogTable.PRODUCTS,
+            CacheNames.PRODUCT, CatalogTable.PRODUCTS,
+            CacheNames.PRODUCT_CATEGORIES, CatalogTable.PRODUCT_CATEGORIES,
+            CacheNames.PRODUCT_CATEGORY, CatalogTable.PRODUCT_CATEGORIES,
+            CacheNames.CAROUSELS, CatalogTable.CAROUSELS,
+            CacheNames.CAROUSEL, CatalogTable.CAROUSELS,
+            CacheNames.PRODUCTS_CAROUSELS_HYDRATED, CatalogTable.PRODUCTS_CAROUSELS);
+
+    private final CacheManager cacheManager;
+    private final String nodeId;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+    private final ObjectProvider<CatalogSnapshotHolder> catalogSnapshotHolder;
+
+    public CacheInvalidationListener(CacheManager cacheManager, String nodeId, ObjectProvider<ReplicaRouter> replicaRouter,
+                                     ObjectProvider<CatalogSnapshotHolder> catalogSnapshotHolder) {
+        this.cacheManager = cacheManager;
+        this.nodeId = nodeId;
+        this.replicaRouter = replicaRouter;
+        this.catalogSnapshotHolder = catalogSnapshotHolder;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = OBJECT_MAPPER.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (Exception e) {
+            log.warn("无法解析缓存失效消息: {}", new String(message.getBody()), e);
+            return;
+        }
+        if (nodeId.equals(invalidation.getNodeId())) {
+            return;
+        }
+        // 先切到主库再清理缓存，避免清理后的第一次加载读到从库上还没复制过来的旧数据
+        replicaRouter.ifAvailable(ReplicaRouter::markWrite);
+        CatalogTable table = SNAPSHOT_TABLES.get(invalidation.getCacheName());
+        if (table != null) {
+            catalogSnapshotHolder.ifAvailable(holder -> holder.changedRemotely(table));
+        }
+        org.springframework.cache.Cache cache = cacheManager.getCache(invalidation.getCacheName());
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            // 同时清理热点缓存
+            twoLevelCache.evictLocal(invalidation.getKey());
+        } else if (cache != null && cache.getNativeCache() instanceof Cache<?, ?>) {
+            Cache<Object, Object> localCache = (Cache<Object, Object>) cache.getNativeCache();
+            if (invalidation.getKey() == null) {
+                localCache.invalidateAll();
+            } else {
+                localCache.invalidate(invalidation.getKey());
+            }
+        } else {
+            return;
+        }
+        log.debug("收到节点{}的缓存失效消息: {}:{}", invalidation.getNodeId(), invalidation.getCacheName(), invalidation.getKey());
+    }
+}
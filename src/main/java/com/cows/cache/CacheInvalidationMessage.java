@@ -0,0 +1,21 @@
+package com.cows.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存失效消息，通过Redis频道在节点间广播
+ * key为null时表示清空整个缓存
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheInvalidationMessage {
+    /**
+     * 发出消息的节点ID，节点收到自己发出的消息时直接忽略
+     */
+    private String nodeId;
+    private String cacheName;
+    private String key;
+}
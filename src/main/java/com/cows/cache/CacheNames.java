@@ -0,0 +1,71 @@
+package com.cows.cache;
+
+import java.util.List;
+
+/**
+ * 缓存名称常量
+ * 列表类缓存统一使用 ALL_KEY 作为键，按ID查询的缓存使用实体ID作为键
+ * @author liyinchi
+ */
+public final class CacheNames {
+    /**
+     * 列表缓存的键（SpEL字面量）
+     */
+    public static final String ALL_KEY = "'all'";
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_CATEGORIES = "productCategories";
+    public static final String PRODUCT_CATEGORY = "productCategory";
+    public static final String CAROUSELS = "carousels";
+    public static final String CAROUSEL = "carousel";
+    public static final String BASIC_INFORMATION_LIST = "basicInformationList";
+    public static final String BASIC_INFORMATION = "basicInformation";
+    /**
+     * 已回填商品详情的横向轮播图配置，商品或配置变更时整体失效
+     */
+    public static final String PRODUCTS_CAROUSELS_HYDRATED = "productsCarouselsHydrated";
+    /**
+     * 键集分页附带的总数，键为实体列表名，只做短时缓存，不随写操作失效
+     */
+    public static final String PAGE_TOTALS = "pageTotals";
+    /**
+     * 目录数据表的版本（ETag用），键为CatalogTable名，只做秒级缓存，不随写操作失效
+     */
+    public static final String CATALOG_VERSIONS = "catalogVersions";
+    /**
+     * 已编码的接口响应体（JSON及gzip），键为 接口方法:ETag，目录数据写操作时整体失效
+     */
+    public static final String RESPONSE_BODIES = "responseBodies";
+    /**
+     * 官网首页聚合数据，键为首页涉及的全部表的ETag，数据修改后换键，不随写操作失效
+     */
+    public static final String HOME_PAGE = "homePage";
+    /**
+     * 布隆过滤器误判放行后确认不存在的ID，键为 表:ID，只做秒级缓存，新增实体时失效
+     */
+    public static final String MISSING_IDS = "missingIds";
+    /**
+     * 微信openid对应的用户ID，键为openid；openid和用户ID一一对应且不会改变，不随写操作失效
+     */
+    public static final String WECHAT_USER_IDS = "wechatUserIds";
+
+    /**
+     * 启动时预先注册的全部缓存
+     */
+    public static final List<String> ALL = List.of(
+            PRODUCTS, PRODUCT,
+            PRODUCT_CATEGORIES, PRODUCT_CATEGORY,
+            CAROUSELS, CAROUSEL,
+            BASIC_INFORMATION_LIST, BASIC_INFORMATION,
+            PRODUCTS_CAROUSELS_HYDRATED,
+            PAGE_TOTALS,
+            CATALOG_VERSIONS,
+            RESPONSE_BODIES,
+            HOME_PAGE,
+            MISSING_IDS,
+            WECHAT_USER_IDS);
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,17 @@
+package com.cows.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 缓存接口已编码好的JSON响应体，命中时直接写出字节，不执行接口方法也不经过Jackson
+ * 必须和 @ConditionalGet 一起使用，缓存键中带数据版本；只能用于没有请求参数、响应只取决于数据内容的接口
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponseBody {
+}
@@ -0,0 +1,27 @@
+package com.cows.cache;
+
+/**
+ * 可以计算版本号的目录类数据表
+ * 表名会直接拼进SQL，只能从这里取
+ */
+public enum CatalogTable {
+    PRODUCTS("Products"),
+    PRODUCT_CATEGORIES("ProductCategories"),
+    PRODUCTS_CAROUSELS("ProductsCarousels"),
+    CAROUSELS("Carousels"),
+    BASIC_INFORMATION("BasicInformation"),
+    BUSINESSES("Businesses"),
+    BRANDS("Brands"),
+    BRAND_AUTHORIZATION_CERTIFICATES("BrandAuthorizationCertificates"),
+    ABOUT("About");
+
+    private final String tableName;
+
+    CatalogTable(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
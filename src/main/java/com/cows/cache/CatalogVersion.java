@@ -0,0 +1,20 @@
+package com.cows.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 一组目录数据的版本
+ */
+@Data
+@AllArgsConstructor
+public class CatalogVersion {
+    /**
+     * 由行数和最近修改时间混合出的版本值，各节点计算结果一致
+     */
+    private long checksum;
+    /**
+     * 最近一次修改时间（毫秒），没有数据时为0
+     */
+    private long lastModified;
+}
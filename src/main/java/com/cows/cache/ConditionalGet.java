@@ -0,0 +1,21 @@
+package com.cows.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在只读取目录数据的GET接口上，响应带 ETag 和 Last-Modified，
+ * 客户端带 If-None-Match / If-Modified-Since 且数据未变化时由 ConditionalGetInterceptor 直接返回304，不执行接口方法
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    /**
+     * 接口返回的数据来自哪些表
+     */
+    CatalogTable[] value();
+}
@@ -0,0 +1,21 @@
+package com.cows.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 已编码的响应体
+ */
+@Data
+@AllArgsConstructor
+public class EncodedResponse {
+    private String contentType;
+    /**
+     * UTF-8 JSON
+     */
+    private byte[] identity;
+    /**
+     * gzip压缩后的内容，内容太小不值得压缩时为null
+     */
+    private byte[] gzip;
+}
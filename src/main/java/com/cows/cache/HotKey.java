@@ -0,0 +1,16 @@
+package com.cows.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热点键及其在当前衰减窗口内的估计访问次数
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotKey {
+    private String key;
+    private int count;
+}
@@ -0,0 +1,149 @@
+package com.cows.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 热点键探测
+ * 用Count-Min Sketch估计每个键的访问次数（只会高估不会低估），每累计decayInterval次访问所有计数减半；
+ * 估计次数不低于minCount的键进入容量为topK的候选表，表满时替换掉次数最少的键
+ * 记录访问不加锁，只有新键进入候选表时才加锁
+ */
+public class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L};
+
+    private final int topK;
+    private final int minCount;
+    private final int decayInterval;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+    private final AtomicInteger sinceDecay = new AtomicInteger();
+    private final AtomicBoolean decaying = new AtomicBoolean();
+    /**
+     * 当前的热点键及估计次数，最多topK个
+     */
+    private final Map<String, Integer> top = new ConcurrentHashMap<>();
+
+    public HotKeyDetector(int topK, int minCount, int width, int decayInterval) {
+        if (topK <= 0 || minCount <= 0 || width <= 0 || decayInterval <= 0) {
+            throw new IllegalArgumentException("topK、minCount、width和decayInterval必须为正数");
+        }
+        this.topK = topK;
+        this.minCount = minCount;
+        this.decayInterval = decayInterval;
+        int size = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * size);
+    }
+
+    /**
+     * 记录一次访问
+     * @return 这个键当前是否是热点键
+     */
+    public boolean record(String key) {
+        int estimate = increment(key);
+        if (sinceDecay.incrementAndGet() >= decayInterval) {
+            decay();
+        }
+        if (estimate < minCount) {
+            return false;
+        }
+        if (top.computeIfPresent(key, (k, count) -> estimate) != null) {
+            return true;
+        }
+        return offer(key, estimate);
+    }
+
+    public boolean isHot(String key) {
+        return top.containsKey(key);
+    }
+
+    /**
+     * @return 按估计次数从高到低排列的热点键
+     */
+    public List<HotKey> topKeys() {
+        List<HotKey> keys = new ArrayList<>();
+        top.forEach((key, count) -> keys.add(new HotKey(key, count)));
+        keys.sort(Comparator.comparingInt(HotKey::getCount).reversed());
+        return keys;
+    }
+
+    /**
+     * 返回各行计数器中的最小值，即这个键的估计次数
+     */
+    private int increment(String key) {
+        int hash = key.hashCode();
+        int row = 0;
+        int min = Integer.MAX_VALUE;
+        for (long seed : SEEDS) {
+            int index = row * (mask + 1) + (indexOf(hash, seed) & mask);
+            int value = counters.incrementAndGet(index);
+            if (value < 0) {
+                // 溢出时保持在最大值
+                counters.set(index, Integer.MAX_VALUE);
+                value = Integer.MAX_VALUE;
+            }
+            min = Math.min(min, value);
+            row++;
+        }
+        return min;
+    }
+
+    private synchronized boolean offer(String key, int estimate) {
+        if (top.containsKey(key)) {
+            top.put(key, estimate);
+            return true;
+        }
+        if (top.size() < topK) {
+            top.put(key, estimate);
+            return true;
+        }
+        Map.Entry<String, Integer> coldest = null;
+        for (Map.Entry<String, Integer> entry : top.entrySet()) {
+            if (coldest == null || entry.getValue() < coldest.getValue()) {
+                coldest = entry;
+            }
+        }
+        if (coldest.getValue() >= estimate) {
+            return false;
+        }
+        top.remove(coldest.getKey());
+        top.put(key, estimate);
+        return true;
+    }
+
+    /**
+     * 所有计数减半，低于minCount的热点键移出候选表；同一时间只有一个线程执行
+     */
+    private void decay() {
+        if (!decaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sinceDecay.set(0);
+            for (int i = 0; i < counters.length(); i++) {
+                counters.getAndUpdate(i, value -> value >>> 1);
+            }
+            synchronized (this) {
+                top.replaceAll((key, count) -> count >>> 1);
+                top.values().removeIf(count -> count < minCount);
+            }
+        } finally {
+            decaying.set(false);
+        }
+    }
+
+    private static int indexOf(int hash, long seed) {
+        long z = (hash + seed) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+}
@@ -0,0 +1,39 @@
+package com.cows.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 两级缓存的热点键探测配置
+ * 每个两级缓存用衰减的Count-Min Sketch统计键的访问频率，频率最高的topK个键（且不低于minCount）视为热点，
+ * 热点键额外放进一个小容量的热点缓存，不受普通本地缓存的容量淘汰影响
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.hot-key")
+public class HotKeyProperties {
+    private boolean enabled = true;
+    /**
+     * 每个缓存最多保留的热点键数，也是热点缓存的容量
+     */
+    private int topK = 32;
+    /**
+     * 成为热点键需要的最少估计访问次数
+     */
+    private int minCount = 50;
+    /**
+     * Sketch每行的计数器个数，会向上取整为2的幂
+     */
+    private int width = 1024;
+    /**
+     * 每累计这么多次访问，所有计数减半，让热点随时间变化
+     */
+    private int decayInterval = 10240;
+    /**
+     * 热点缓存条目的过期时间
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
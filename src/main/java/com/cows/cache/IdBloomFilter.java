@@ -0,0 +1,113 @@
+package com.cows.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 整数ID的布隆过滤器
+ * mightContain返回false时ID一定不存在；返回true时可能存在（有误判率）。
+ * 位数和哈希函数个数只由期望元素数和误判率决定，哈希不依赖JVM实例，所以各节点对同一ID算出的位置相同，
+ * 可以把位图按Redis的位序（每字节高位在前）镜像到Redis中共享
+ */
+public class IdBloomFilter {
+
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+
+    /**
+     * @param expectedInsertions 期望元素数
+     * @param fpp                期望误判率，0到1之间
+     */
+    public IdBloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions必须为正数，fpp必须在0到1之间");
+        }
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        // 按64位取整，位图能整字节导出
+        int words = Math.toIntExact((m + 63) / 64);
+        this.bitSize = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(words);
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public void put(int id) {
+        for (long offset : offsets(id)) {
+            int word = (int) (offset >>> 6);
+            long mask = 1L << (offset & 63);
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(int id) {
+        for (long offset : offsets(id)) {
+            if ((bits.get((int) (offset >>> 6)) & (1L << (offset & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把另一个过滤器中的ID并入当前过滤器，两者的位数和哈希函数个数必须相同
+     */
+    public void merge(IdBloomFilter other) {
+        if (other.bitSize != bitSize || other.hashCount != hashCount) {
+            throw new IllegalArgumentException("布隆过滤器参数不同，不能合并");
+        }
+        for (int word = 0; word < bits.length(); word++) {
+            long value = other.bits.get(word);
+            if (value != 0) {
+                bits.getAndAccumulate(word, value, (a, b) -> a | b);
+            }
+        }
+    }
+
+    /**
+     * ID对应的各个位的下标，两个独立哈希线性组合（Kirsch-Mitzenmacher）得到k个位置
+     */
+    public long[] offsets(int id) {
+        long h1 = mix(id);
+        long h2 = mix(h1) | 1;
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, bitSize);
+        }
+        return offsets;
+    }
+
+    /**
+     * 按Redis位图的位序导出：第n位在第n/8个字节的第(7 - n%8)位
+     */
+    public byte[] toRedisBitmap() {
+        byte[] bytes = new byte[(int) (bitSize / 8)];
+        for (int word = 0; word < bits.length(); word++) {
+            long value = bits.get(word);
+            for (int b = 0; b < 8; b++) {
+                // 本地第b个字节内的第j位（低位在前）对应Redis字节内的第7-j位，即整字节按位反转
+                bytes[word * 8 + b] = (byte) (Integer.reverse((int) (value >>> (b * 8)) & 0xff) >>> 24);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * SplitMix64的混合函数
+     */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cows.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ID布隆过滤器配置
+ * 多节点部署时需要开启redis-mirror，否则其他节点新增的ID在下次重建前会被本节点误判为不存在
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.id-filter")
+public class IdFilterProperties {
+    /**
+     * 关闭时所有ID都按可能存在处理
+     */
+    private boolean enabled = true;
+    /**
+     * 每张表的期望ID数，超过后误判率上升（只会多查数据库，不会漏查）
+     */
+    private long expectedInsertions = 1_000_000;
+    /**
+     * 期望误判率
+     */
+    private double fpp = 0.01;
+    /**
+     * 是否把位图镜像到Redis：本地判断不存在时再查Redis中各节点合并后的位图
+     */
+    private boolean redisMirror = false;
+    /**
+     * Redis键前缀，完整键为 keyPrefix + 表名 + ":" + 位数 + ":" + 哈希函数个数
+     */
+    private String keyPrefix = "bloom:";
+}
@@ -0,0 +1,23 @@
+package com.cows.cache;
+
+/**
+ * 按ID查询前用布隆过滤器拦截的数据表
+ * 表名会直接拼进SQL，只能从这里取
+ */
+public enum IdFilterTable {
+    PRODUCTS("Products"),
+    PRODUCT_CATEGORIES("ProductCategories"),
+    CAROUSELS("Carousels"),
+    ORDERS("Orders"),
+    USERS("User");
+
+    private final String tableName;
+
+    IdFilterTable(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
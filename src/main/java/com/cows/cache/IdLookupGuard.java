@@ -0,0 +1,242 @@
+package com.cows.cache;
+
+import com.cows.mapper.EntityIdMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * 按ID查询的穿透保护
+ * 每张表一个布隆过滤器，启动完成后从数据库全量构建，之后由新增操作维护，并定时重建，补上其他节点或直接写库新增的ID；
+ * 过滤器判断一定不存在的ID直接返回null，不查数据库；误判放行后查不到的ID在空值缓存中短时记录
+ * 开启Redis镜像时，本地判断不存在的ID再查Redis中各节点合并后的位图，保证其他节点刚新增的ID不被拦截
+ */
+@Slf4j
+@Component
+public class IdLookupGuard {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private IdFilterProperties properties;
+
+    @Autowired
+    private EntityIdMapper entityIdMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 各表当前的过滤器，启动时创建空过滤器，新增的ID从一开始就写入
+     */
+    private final Map<IdFilterTable, IdBloomFilter> filters = new ConcurrentHashMap<>();
+    /**
+     * 已从数据库完成首次构建的表，没有构建完成的表所有ID都放行
+     */
+    private final Set<IdFilterTable> ready = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        if (properties.isEnabled()) {
+            for (IdFilterTable table : IdFilterTable.values()) {
+                filters.put(table, newFilter());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${cache.id-filter.rebuild-interval-ms:3600000}", fixedDelayString = "${cache.id-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (IdFilterTable table : IdFilterTable.values()) {
+            long start = System.currentTimeMillis();
+            try {
+                int count = rebuild(table);
+                log.info("{}的ID布隆过滤器重建完成: ID数={}, 耗时={}ms", table.getTableName(), count, System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.error("{}的ID布隆过滤器重建失败，继续使用旧过滤器", table.getTableName(), e);
+            }
+        }
+    }
+
+    /**
+     * 按ID查询，过滤器或空值缓存判断不存在时不调用loader
+     * @param loader 查询数据库，不存在时返回null
+     */
+    public <T> T find(IdFilterTable table, int id, IntFunction<T> loader) {
+        if (!mightContain(table, id)) {
+            log.debug("ID不存在，已拦截: {}:{}", table.getTableName(), id);
+            return null;
+        }
+        Cache missing = cacheManager.getCache(CacheNames.MISSING_IDS);
+        String key = missingKey(table, id);
+        if (missing.get(key) != null) {
+            return null;
+        }
+        T value = loader.apply(id);
+        if (value == null) {
+            missing.put(key, Boolean.TRUE);
+        }
+        return value;
+    }
+
+    /**
+     * 新增实体后调用，必须在事务提交前调用，保证数据可见时过滤器中已经有这个ID
+     */
+    public void add(IdFilterTable table, int id) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        IdBloomFilter filter;
+        synchronized (filters) {
+            filter = filters.get(table);
+            filter.put(id);
+        }
+        if (properties.isRedisMirror()) {
+            try {
+                long[] offsets = filter.offsets(id);
+                byte[] key = redisKey(table);
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (long offset : offsets) {
+                        connection.stringCommands().setBit(key, offset, true);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("写入Redis布隆过滤器失败: {}:{}, {}", table.getTableName(), id, e.getMessage());
+            }
+        }
+        // 缓存管理器是事务感知的，空值缓存在事务提交后才失效
+        cacheManager.getCache(CacheNames.MISSING_IDS).evict(missingKey(table, id));
+    }
+
+    public boolean mightContain(IdFilterTable table, int id) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        IdBloomFilter filter = filters.get(table);
+        if (!ready.contains(table) || filter.mightContain(id)) {
+            return true;
+        }
+        return properties.isRedisMirror() && mightContainRemote(table, filter.offsets(id));
+    }
+
+    /**
+     * 从数据库构建新过滤器后并入当前过滤器再替换：ID集合只增不减，合并可以保留扫描期间新增（扫描时尚未提交）的ID
+     */
+    private int rebuild(IdFilterTable table) {
+        IdBloomFilter filter = newFilter();
+        int count = 0;
+        int afterId = 0;
+        List<Integer> ids;
+        do {
+            ids = entityIdMapper.findIdsAfter(table.getTableName(), afterId, BATCH_SIZE);
+            for (int id : ids) {
+                filter.put(id);
+            }
+            count += ids.size();
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == BATCH_SIZE);
+        if (count > properties.getExpectedInsertions()) {
+            log.warn("{}的ID数{}超过布隆过滤器的期望元素数{}，误判率会升高", table.getTableName(), count, properties.getExpectedInsertions());
+        }
+        synchronized (filters) {
+            filter.merge(filters.get(table));
+            filters.put(table, filter);
+        }
+        if (properties.isRedisMirror()) {
+            mergeRemote(table, filter);
+        }
+        ready.add(table);
+        return count;
+    }
+
+    /**
+     * 把本地位图按位或合并到Redis，不会清掉其他节点写入的位
+     */
+    private void mergeRemote(IdFilterTable table, IdBloomFilter filter) {
+        try {
+            byte[] key = redisKey(table);
+            byte[] tempKey = (new String(key, StandardCharsets.UTF_8) + ":tmp:" + UUID.randomUUID())
+                    .getBytes(StandardCharsets.UTF_8);
+            byte[] bitmap = filter.toRedisBitmap();
+            stringRedisTemplate.execute((RedisCallback<Object>) (RedisConnection connection) -> {
+                connection.stringCommands().set(tempKey, bitmap);
+                try {
+                    connection.stringCommands().bitOp(RedisStringCommands.BitOperation.OR, key, key, tempKey);
+                } finally {
+                    connection.keyCommands().del(tempKey);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("合并Redis布隆过滤器失败: {}, {}", table.getTableName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Redis不可用时按可能存在处理，退化为直接查数据库
+     */
+    private boolean mightContainRemote(IdFilterTable table, long[] offsets) {
+        try {
+            byte[] key = redisKey(table);
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long offset : offsets) {
+                    connection.stringCommands().getBit(key, offset);
+                }
+                return null;
+            });
+            for (Object result : results) {
+                if (!Boolean.TRUE.equals(result)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("读取Redis布隆过滤器失败: {}, {}", table.getTableName(), e.getMessage());
+            return true;
+        }
+    }
+
+    private IdBloomFilter newFilter() {
+        return new IdBloomFilter(properties.getExpectedInsertions(), properties.getFpp());
+    }
+
+    /**
+     * 键中带位数和哈希函数个数，配置不同的节点不会混用同一个位图
+     */
+    private byte[] redisKey(IdFilterTable table) {
+        IdBloomFilter filter = filters.get(table);
+        return (properties.getKeyPrefix() + table.getTableName() + ":" + filter.getBitSize() + ":" + filter.getHashCount())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String missingKey(IdFilterTable table, int id) {
+        return table.name() + ":" + id;
+    }
+}
@@ -0,0 +1,31 @@
+package com.cows.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存配置
+ * 规格使用Caffeine的spec语法，例如 maximumSize=500,expireAfterWrite=10m
+ * 命中率统计由CacheConfig统一开启，不需要在spec中配置recordStats
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.local")
+public class LocalCacheProperties {
+    /**
+     * 未单独配置的缓存使用的默认规格
+     */
+    private String defaultSpec = "maximumSize=500,expireAfterWrite=10m";
+    /**
+     * 按缓存名称单独配置的规格
+     */
+    private Map<String, String> specs = new HashMap<>();
+
+    public String specOf(String cacheName) {
+        return specs.getOrDefault(cacheName, defaultSpec);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cows.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis二级缓存配置
+ * 列在cacheNames中的缓存使用"本地Caffeine + Redis"两级结构，写操作通过Redis频道广播失效消息，各节点收到后清理本地缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.remote")
+public class RemoteCacheProperties {
+    /**
+     * 是否启用Redis二级缓存，关闭时所有缓存都只使用本地缓存
+     */
+    private boolean enabled = false;
+    /**
+     * 使用两级缓存的缓存名称
+     * 为ETag接口提供数据的缓存都要在其中：否则其他节点修改数据后，本节点的ETag已经更新而本地缓存还是旧数据，
+     * 旧的响应体会按新的ETag缓存下来
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of(
+            CacheNames.PRODUCTS, CacheNames.PRODUCT, CacheNames.CAROUSELS, CacheNames.CAROUSEL,
+            CacheNames.PRODUCTS_CAROUSELS_HYDRATED,
+            CacheNames.PRODUCT_CATEGORIES, CacheNames.PRODUCT_CATEGORY,
+            CacheNames.BASIC_INFORMATION_LIST, CacheNames.BASIC_INFORMATION));
+    /**
+     * Redis中缓存条目的过期时间
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+    /**
+     * Redis键前缀，完整键为 keyPrefix + cacheName + ":" + key
+     */
+    private String keyPrefix = "cache:";
+    /**
+     * 失效消息的发布/订阅频道
+     */
+    private String channel = "cache:invalidation";
+
+    public boolean isTwoLevel(String cacheName) {
+        return enabled && cacheNames.contains(cacheName);
+    }
+}
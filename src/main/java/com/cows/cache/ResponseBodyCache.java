@@ -0,0 +1,99 @@
+package com.cows.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 热点接口的已编码响应体缓存
+ * 每个数据版本只序列化、压缩一次（压缩用最高级别，成本只付一次），之后的请求直接把字节写到输出流
+ */
+@Component
+public class ResponseBodyCache {
+
+    /**
+     * 小于这个长度的响应不压缩
+     */
+    private static final int MIN_COMPRESS_LENGTH = 1024;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public static String keyOf(Method method, String etag) {
+        return method.getDeclaringClass().getName() + "#" + method.getName() + ":" + etag;
+    }
+
+    public EncodedResponse get(String key) {
+        return cache().get(key, EncodedResponse.class);
+    }
+
+    public EncodedResponse put(String key, String contentType, byte[] json) throws IOException {
+        EncodedResponse encoded = new EncodedResponse(contentType, json, json.length < MIN_COMPRESS_LENGTH ? null : gzip(json));
+        cache().put(key, encoded);
+        return encoded;
+    }
+
+    /**
+     * 按 Accept-Encoding 选择压缩或不压缩的内容写出
+     */
+    public void write(EncodedResponse encoded, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = encoded.getIdentity();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.getGzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = encoded.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType(encoded.getContentType());
+        response.setContentLength(body.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheNames.RESPONSE_BODIES);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.matches("q=0\\.0{0,3}")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,225 @@
+package com.cows.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同读请求的合并（single-flight）
+ * 缓存过期后同一个键的并发请求只有第一个真正查询数据库，其余请求等待同一个CompletableFuture的结果；
+ * loadOrStale在已有查询进行中且有上次结果时直接返回上次结果，不等待（stale-while-revalidate）；
+ * 在@Cacheable方法中使用时要加上 unless = "@singleFlight.servedStale()"，不把旧结果写回缓存；
+ * 返回旧结果时同时在当前请求上记标记（servedStaleInRequest），不随servedStale清除，
+ * 响应体缓存等按数据版本缓存整个结果的地方据此跳过缓存；在线程池中加载时用track把标记带回调用方。
+ * 调用方处于事务中时不等待其他线程的查询（等待期间会一直占用事务的数据库连接），直接自己查询
+ * 每个分组统计实际执行、被合并和返回旧值的次数，有MeterRegistry时同时注册为指标
+ */
+@Component
+public class SingleFlight {
+
+    private static final String EXECUTED = "executed";
+    private static final String COLLAPSED = "collapsed";
+    private static final String STALE = "stale";
+
+    /**
+     * 当前线程最近一次loadOrStale是否返回了旧结果
+     */
+    private static final ThreadLocal<Boolean> SERVED_STALE = new ThreadLocal<>();
+
+    /**
+     * track期间返回旧结果时要设置的标记
+     */
+    private static final ThreadLocal<AtomicBoolean> STALE_TRACKER = new ThreadLocal<>();
+
+    /**
+     * 本次请求中有loadOrStale返回了旧结果时，这个请求属性为Boolean.TRUE
+     */
+    public static final String SERVED_STALE_ATTRIBUTE = SingleFlight.class.getName() + ".servedStale";
+
+    @Value("${cache.single-flight.stale-while-revalidate:true}")
+    private boolean staleWhileRevalidate;
+
+    @Value("${cache.single-flight.stale-ttl:60s}")
+    private Duration staleTtl;
+
+    @Value("${cache.single-flight.stale-max-size:10000}")
+    private long staleMaxSize;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>> stats = new ConcurrentHashMap<>();
+    /**
+     * loadOrStale最近一次成功加载的结果
+     */
+    private Cache<String, Object> lastLoaded;
+
+    @PostConstruct
+    public void init() {
+        lastLoaded = Caffeine.newBuilder().maximumSize(staleMaxSize).expireAfterWrite(staleTtl).build();
+    }
+
+    /**
+     * 同一个键同时只执行一次loader，并发的调用方共享结果（包括异常）
+     * @param group 统计分组，如 product
+     */
+    public <T> T load(String group, Object key, Supplier<T> loader) {
+        return load(group, group + ":" + key, loader, false);
+    }
+
+    /**
+     * 与load相同，但已有查询进行中时优先返回上次的结果；只用于允许短时间读到旧数据的场景
+     */
+    public <T> T loadOrStale(String group, Object key, Supplier<T> loader) {
+        SERVED_STALE.remove();
+        return load(group, group + ":" + key, loader, staleWhileRevalidate);
+    }
+
+    /**
+     * 当前线程最近一次loadOrStale是否返回了旧结果，读取后清除标记
+     */
+    public boolean servedStale() {
+        boolean stale = Boolean.TRUE.equals(SERVED_STALE.get());
+        SERVED_STALE.remove();
+        return stale;
+    }
+
+    /**
+     * 当前请求中是否有loadOrStale返回了旧结果，不清除标记；不在请求中时返回false
+     */
+    public boolean servedStaleInRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && Boolean.TRUE.equals(attributes.getAttribute(SERVED_STALE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /**
+     * 在当前线程执行loader，期间任何loadOrStale返回了旧结果都会设置servedStale；用于在线程池中加载的场景
+     */
+    public <T> T track(AtomicBoolean servedStale, Supplier<T> loader) {
+        AtomicBoolean previous = STALE_TRACKER.get();
+        STALE_TRACKER.set(servedStale);
+        try {
+            return loader.get();
+        } finally {
+            if (previous == null) {
+                STALE_TRACKER.remove();
+            } else {
+                STALE_TRACKER.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return 分组 -> (executed/collapsed/stale -> 次数)
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        stats.forEach((group, counters) -> {
+            Map<String, Long> item = new LinkedHashMap<>();
+            counters.forEach((name, adder) -> item.put(name, adder.sum()));
+            result.put(group, item);
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(String group, String flightKey, Supplier<T> loader, boolean allowStale) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, created);
+        if (existing != null) {
+            if (allowStale) {
+                Object stale = lastLoaded.getIfPresent(flightKey);
+                if (stale != null) {
+                    markServedStale();
+                    counter(group, STALE).increment();
+                    return (T) stale;
+                }
+            }
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // 事务已经占用了连接，等待会让连接池在慢查询期间被等待者耗尽，直接查询且不影响进行中的查询
+                counter(group, EXECUTED).increment();
+                return loader.get();
+            }
+            counter(group, COLLAPSED).increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+        counter(group, EXECUTED).increment();
+        try {
+            T value = loader.get();
+            if (allowStale && value != null) {
+                lastLoaded.put(flightKey, value);
+            }
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, created);
+        }
+    }
+
+    private static void markServedStale() {
+        SERVED_STALE.set(Boolean.TRUE);
+        AtomicBoolean tracker = STALE_TRACKER.get();
+        if (tracker != null) {
+            tracker.set(true);
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SERVED_STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private LongAdder counter(String group, String result) {
+        return stats.computeIfAbsent(group, this::register).get(result);
+    }
+
+    /**
+     * 首次用到分组时创建三个计数器，有MeterRegistry时注册为 cache.single_flight.calls{group, result}
+     */
+    private Map<String, LongAdder> register(String group) {
+        Map<String, LongAdder> counters = new LinkedHashMap<>();
+        for (String result : new String[]{EXECUTED, COLLAPSED, STALE}) {
+            LongAdder adder = new LongAdder();
+            counters.put(result, adder);
+            meterRegistry.ifAvailable(registry -> FunctionCounter.builder("cache.single_flight.calls", adder, LongAdder::sum)
+                    .tag("group", group)
+                    .tag("result", result)
+                    .description("按结果统计的合并读请求次数，collapsed和stale是少查的数据库次数")
+                    .register(registry));
+        }
+        return counters;
+    }
+}
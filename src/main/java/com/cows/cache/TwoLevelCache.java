@@ -0,0 +1,237 @@
+package com.cows.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 两级缓存：一级为节点内的Caffeine缓存，二级为各节点共享的Redis
+ * 读：本地 -> Redis -> 数据库（回填Redis和本地）
+ * 失效：清理本地和Redis后，向失效频道广播消息，其他节点由CacheInvalidationListener清理本地缓存
+ * Redis不可用时只记录日志并退化为本地缓存，不影响正常读写
+ * 本地和Redis统一使用字符串形式的键，保证失效消息中的键与本地缓存中的键一致
+ * 开启热点键探测时，每次读取都会计数，探测到的热点键额外放进小容量的热点缓存，读取时最先查它
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final GenericJackson2JsonRedisSerializer SERIALIZER = new GenericJackson2JsonRedisSerializer();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final Cache<Object, Object> localCache;
+    private final StringRedisTemplate redisTemplate;
+    private final RemoteCacheProperties properties;
+    private final String nodeId;
+    /**
+     * 热点键探测器和热点缓存，未开启热点键探测时为null
+     */
+    private final HotKeyDetector hotKeyDetector;
+    private final Cache<Object, Object> hotCache;
+
+    public TwoLevelCache(String name, Cache<Object, Object> localCache, StringRedisTemplate redisTemplate,
+                         RemoteCacheProperties properties, String nodeId) {
+        this(name, localCache, redisTemplate, properties, nodeId, null);
+    }
+
+    public TwoLevelCache(String name, Cache<Object, Object> localCache, StringRedisTemplate redisTemplate,
+                         RemoteCacheProperties properties, String nodeId, HotKeyProperties hotKeyProperties) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.nodeId = nodeId;
+        if (hotKeyProperties != null && hotKeyProperties.isEnabled()) {
+            this.hotKeyDetector = new HotKeyDetector(hotKeyProperties.getTopK(), hotKeyProperties.getMinCount(),
+                    hotKeyProperties.getWidth(), hotKeyProperties.getDecayInterval());
+            this.hotCache = Caffeine.newBuilder()
+                    .maximumSize(hotKeyProperties.getTopK())
+                    .expireAfterWrite(hotKeyProperties.getTtl())
+                    .build();
+        } else {
+            this.hotKeyDetector = null;
+            this.hotCache = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 返回一级本地缓存，缓存统计和失效监听都基于它
+     */
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return localCache;
+    }
+
+    /**
+     * @return 当前的热点键，未开启热点键探测时返回空列表
+     */
+    public List<HotKey> hotKeys() {
+        return hotKeyDetector == null ? List.of() : hotKeyDetector.topKeys();
+    }
+
+    /**
+     * 只清理本节点的本地缓存和热点缓存，key为null时全部清理；收到其他节点的失效消息时调用
+     */
+    public void evictLocal(String cacheKey) {
+        if (cacheKey == null) {
+            localCache.invalidateAll();
+            if (hotCache != null) {
+                hotCache.invalidateAll();
+            }
+        } else {
+            localCache.invalidate(cacheKey);
+            if (hotCache != null) {
+                hotCache.invalidate(cacheKey);
+            }
+        }
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = String.valueOf(key);
+        boolean hot = hotKeyDetector != null && hotKeyDetector.record(cacheKey);
+        if (hot) {
+            Object value = hotCache.getIfPresent(cacheKey);
+            if (value != null) {
+                return value;
+            }
+        }
+        Object value = localCache.getIfPresent(cacheKey);
+        if (value == null) {
+            value = readRemote(cacheKey);
+            if (value != null) {
+                localCache.put(cacheKey, value);
+            }
+        }
+        if (value != null && hot) {
+            hotCache.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = String.valueOf(key);
+        return (T) localCache.get(cacheKey, k -> {
+            Object value = readRemote(cacheKey);
+            if (value != null) {
+                return value;
+            }
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (value != null) {
+                writeRemote(cacheKey, value);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        String cacheKey = String.valueOf(key);
+        localCache.put(cacheKey, value);
+        if (hotCache != null) {
+            hotCache.invalidate(cacheKey);
+        }
+        writeRemote(cacheKey, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = String.valueOf(key);
+        evictLocal(cacheKey);
+        try {
+            redisTemplate.delete(redisKey(cacheKey));
+        } catch (Exception e) {
+            log.warn("删除Redis缓存失败: {}:{}, {}", name, cacheKey, e.getMessage());
+        }
+        publish(cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        evictLocal(null);
+        try {
+            List<String> keys = scanRemoteKeys();
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        } catch (Exception e) {
+            log.warn("清空Redis缓存失败: {}, {}", name, e.getMessage());
+        }
+        publish(null);
+    }
+
+    private Object readRemote(String cacheKey) {
+        try {
+            String json = redisTemplate.opsForValue().get(redisKey(cacheKey));
+            return json == null ? null : SERIALIZER.deserialize(json.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("读取Redis缓存失败: {}:{}, {}", name, cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(String cacheKey, Object value) {
+        try {
+            String json = new String(SERIALIZER.serialize(value), StandardCharsets.UTF_8);
+            redisTemplate.opsForValue().set(redisKey(cacheKey), json, properties.getTtl());
+        } catch (Exception e) {
+            log.warn("写入Redis缓存失败: {}:{}, {}", name, cacheKey, e.getMessage());
+        }
+    }
+
+    private void publish(String cacheKey) {
+        try {
+            String message = OBJECT_MAPPER.writeValueAsString(new CacheInvalidationMessage(nodeId, name, cacheKey));
+            redisTemplate.convertAndSend(properties.getChannel(), message);
+        } catch (JsonProcessingException e) {
+            log.error("序列化缓存失效消息失败: {}:{}", name, cacheKey, e);
+        } catch (Exception e) {
+            log.warn("发布缓存失效消息失败: {}:{}, {}", name, cacheKey, e.getMessage());
+        }
+    }
+
+    private List<String> scanRemoteKeys() {
+        ScanOptions options = ScanOptions.scanOptions().match(properties.getKeyPrefix() + name + ":*").count(100).build();
+        return redisTemplate.execute((RedisCallback<List<String>>) (RedisConnection connection) -> {
+            List<String> keys = new ArrayList<>();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                cursor.forEachRemaining(key -> keys.add(new String(key, StandardCharsets.UTF_8)));
+            }
+            return keys;
+        });
+    }
+
+    private String redisKey(String cacheKey) {
+        return properties.getKeyPrefix() + name + ":" + cacheKey;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cows.catalog;
+
+import com.cows.cache.CatalogTable;
+import com.cows.dto.ProductsCarouselsDTO;
+import com.cows.entity.Brand;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 官网目录数据的只读快照：商品、商品分类、品牌、轮播图和已回填商品的横向轮播图配置
+ * 构建完成后不再修改，通过一个volatile引用整体发布；快照中的实体与缓存中的实体一样由所有请求共享，调用方不能修改
+ * checksums记录构建时各表的版本（与ETag使用的CatalogVersion相同），用来判断快照是否过期
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final long builtAt;
+    private final Map<CatalogTable, Long> checksums;
+    private final EntityIndex<Product> products;
+    private final Map<Integer, List<Product>> productsByCategory;
+    private final Map<String, List<Product>> productsByBrand;
+    private final EntityIndex<ProductCategory> productCategories;
+    private final EntityIndex<Brand> brands;
+    private final EntityIndex<Carousel> carousels;
+    private final EntityIndex<ProductsCarouselsDTO> productsCarousels;
+
+    CatalogSnapshot(long version, Map<CatalogTable, Long> checksums, EntityIndex<Product> products,
+                    Map<Integer, List<Product>> productsByCategory, Map<String, List<Product>> productsByBrand,
+                    EntityIndex<ProductCategory> productCategories, EntityIndex<Brand> brands,
+                    EntityIndex<Carousel> carousels, EntityIndex<ProductsCarouselsDTO> productsCarousels) {
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+        this.checksums = Collections.unmodifiableMap(new EnumMap<>(checksums));
+        this.products = products;
+        this.productsByCategory = productsByCategory;
+        this.productsByBrand = productsByBrand;
+        this.productCategories = productCategories;
+        this.brands = brands;
+        this.carousels = carousels;
+        this.productsCarousels = productsCarousels;
+    }
+
+    /**
+     * 本节点内单调递增的快照版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return 构建时这张表的版本值，表不在快照中时返回null
+     */
+    public Long checksumOf(CatalogTable table) {
+        return checksums.get(table);
+    }
+
+    public EntityIndex<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return 分类下未删除的商品，没有时返回空列表
+     */
+    public List<Product> productsOfCategory(int categoryId) {
+        return productsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * @return 品牌下未删除的商品，按品牌名完全匹配，没有时返回空列表
+     */
+    public List<Product> productsOfBrand(String brand) {
+        return productsByBrand.getOrDefault(brand, List.of());
+    }
+
+    public EntityIndex<ProductCategory> getProductCategories() {
+        return productCategories;
+    }
+
+    public EntityIndex<Brand> getBrands() {
+        return brands;
+    }
+
+    public EntityIndex<Carousel> getCarousels() {
+        return carousels;
+    }
+
+    public EntityIndex<ProductsCarouselsDTO> getProductsCarousels() {
+        return productsCarousels;
+    }
+
+    Map<Integer, List<Product>> getProductsByCategory() {
+        return productsByCategory;
+    }
+
+    Map<String, List<Product>> getProductsByBrand() {
+        return productsByBrand;
+    }
+}
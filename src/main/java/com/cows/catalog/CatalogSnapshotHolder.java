@@ -0,0 +1,258 @@
+package com.cows.catalog;
+
+import com.cows.cache.CatalogTable;
+import com.cows.dto.ProductsCarouselsDTO;
+import com.cows.entity.Brand;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import com.cows.entity.ProductsCarousels;
+import com.cows.mapper.BrandMapper;
+import com.cows.mapper.CarouselMapper;
+import com.cows.mapper.ProductCategoryMapper;
+import com.cows.mapper.ProductMapper;
+import com.cows.mapper.ProductsCarouselsMapper;
+import com.cows.service.CatalogVersionService;
+import com.cows.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录数据快照的构建和发布
+ * 快照在后台线程构建，只重新加载版本发生变化的表，其余部分直接复用上一个快照，构建完成后替换volatile引用；
+ * 读取时只和本节点缓存的表版本比较，不在请求线程上查询版本：ETag接口在拦截器中刚计算过版本，缓存中一定有值，
+ * 版本不一致说明其他请求或节点修改过数据，此时返回null让调用方走原来的查询，同时触发重建。
+ * 这样快照永远不会比ETag声明的版本旧，按ETag缓存的响应体也不会缓存到旧数据；
+ * 缓存中没有版本时直接使用快照，由后台重建线程刷新版本。
+ * 本节点的写操作提交后、或收到其他节点目录缓存的失效消息后，被修改的表在重建完成前不使用快照，
+ * 重建时不论版本是否变化都重新加载（同一秒内的修改版本可能不变）
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotHolder {
+
+    private static final CatalogTable[] TABLES = {CatalogTable.PRODUCTS, CatalogTable.PRODUCT_CATEGORIES,
+            CatalogTable.BRANDS, CatalogTable.CAROUSELS, CatalogTable.PRODUCTS_CAROUSELS};
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductCategoryMapper productCategoryMapper;
+
+    @Autowired
+    private BrandMapper brandMapper;
+
+    @Autowired
+    private CarouselMapper carouselMapper;
+
+    @Autowired
+    private ProductsCarouselsMapper productsCarouselsMapper;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    private volatile CatalogSnapshot snapshot;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    /**
+     * 本节点或其他节点修改过、等待重建的表
+     */
+    private final Set<CatalogTable> forced = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-snapshot-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 是否已经构建过快照；用于@Cacheable的condition，快照可用时不再经过方法级缓存
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * @param tables 调用方要读取的表
+     * @return 这些表在快照中的数据与本节点缓存的版本一致时返回快照，否则返回null并请求后台重建
+     */
+    public CatalogSnapshot current(CatalogTable... tables) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        boolean refresh = false;
+        for (CatalogTable table : tables) {
+            if (forced.contains(table)) {
+                return null;
+            }
+            Long checksum = catalogVersionService.cachedChecksumOf(table);
+            if (checksum == null) {
+                refresh = true;
+            } else if (!Objects.equals(current.checksumOf(table), checksum)) {
+                scheduleRebuild();
+                return null;
+            }
+        }
+        if (refresh) {
+            // 版本缓存已过期，由重建线程重新读取版本，版本变化时顺带重建
+            scheduleRebuild();
+        }
+        return current;
+    }
+
+    /**
+     * @return 最近一次构建的快照，不校验版本（可能稍旧）；还没有构建过时返回null
+     * 版本不一致时同样请求后台重建，用于允许短时间读到旧数据、又不想退回全表查询的场景
+     */
+    public CatalogSnapshot currentOrLatest(CatalogTable... tables) {
+        CatalogSnapshot current = current(tables);
+        return current != null ? current : snapshot;
+    }
+
+    /**
+     * 目录数据写操作后调用：事务提交后增加表的写入代数、丢弃本节点缓存的表版本，并请求重建；
+     * 重建完成前本节点不再用快照中这些表的数据，重建时这些表不论版本是否变化都重新加载
+     */
+    public void changed(CatalogTable... tables) {
+        TransactionUtil.afterCommit(() -> {
+            forced.addAll(List.of(tables));
+            catalogVersionService.changed(tables);
+            scheduleRebuild();
+        });
+    }
+
+    /**
+     * 收到其他节点目录数据的缓存失效消息时调用：对方的事务已经提交，处理方式与本节点修改相同，但不再增加写入代数
+     * 同一秒内的第二次修改版本可能和快照相同，只比较版本会一直使用旧快照，所以同样强制重新加载这些表
+     */
+    public void changedRemotely(CatalogTable... tables) {
+        forced.addAll(List.of(tables));
+        catalogVersionService.invalidate(tables);
+        scheduleRebuild();
+    }
+
+    /**
+     * 启动完成后构建第一个快照，之后定时检查一次，补上没有触发重建的修改（如直接改库）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${catalog.snapshot.check-interval-ms:60000}", fixedDelayString = "${catalog.snapshot.check-interval-ms:60000}")
+    public void requestRebuild() {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 重建尚未开始时的多次请求合并为一次
+     */
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long start = System.currentTimeMillis();
+        // 先取走强制重建的表，再读版本，最后读数据：数据只会比记录的版本新，不会更旧；
+        // 之后再有修改会重新加入forced并再次触发重建
+        List<CatalogTable> drained = new ArrayList<>();
+        for (CatalogTable table : TABLES) {
+            if (forced.remove(table)) {
+                drained.add(table);
+            }
+        }
+        try {
+            CatalogSnapshot previous = snapshot;
+            Map<CatalogTable, Long> checksums = new EnumMap<>(CatalogTable.class);
+            List<CatalogTable> changed = new ArrayList<>(drained);
+            for (CatalogTable table : TABLES) {
+                long checksum = catalogVersionService.checksumOf(table);
+                checksums.put(table, checksum);
+                if (!changed.contains(table) && (previous == null || !Objects.equals(previous.checksumOf(table), checksum))) {
+                    changed.add(table);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            CatalogSnapshot built = build(previous, checksums, changed);
+            snapshot = built;
+            log.info("目录快照已更新: 版本={}, 变化的表={}, 商品数={}, 耗时={}ms", built.getVersion(), changed,
+                    built.getProducts().size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 放回强制重建的表，重建成功前这些表不使用旧快照
+            forced.addAll(drained);
+            log.error("目录快照构建失败，继续使用旧快照", e);
+        }
+    }
+
+    private CatalogSnapshot build(CatalogSnapshot previous, Map<CatalogTable, Long> checksums, List<CatalogTable> changed) {
+        EntityIndex<Product> products;
+        Map<Integer, List<Product>> productsByCategory;
+        Map<String, List<Product>> productsByBrand;
+        if (changed.contains(CatalogTable.PRODUCTS)) {
+            List<Product> loaded = productMapper.findAllProducts();
+            for (Product product : loaded) {
+                if (product.getDetailImages() == null) {
+                    product.setDetailImages(new String[0]);
+                }
+            }
+            products = EntityIndex.of(loaded, Product::getId);
+            productsByCategory = products.groupBy(Product::getCategoryId);
+            productsByBrand = products.groupBy(Product::getBrand);
+        } else {
+            products = previous.getProducts();
+            productsByCategory = previous.getProductsByCategory();
+            productsByBrand = previous.getProductsByBrand();
+        }
+        EntityIndex<ProductCategory> productCategories = changed.contains(CatalogTable.PRODUCT_CATEGORIES)
+                ? EntityIndex.of(productCategoryMapper.findAllProductCategories(), ProductCategory::getId)
+                : previous.getProductCategories();
+        EntityIndex<Brand> brands = changed.contains(CatalogTable.BRANDS)
+                ? EntityIndex.of(brandMapper.findAllBrands(), Brand::getId)
+                : previous.getBrands();
+        EntityIndex<Carousel> carousels = changed.contains(CatalogTable.CAROUSELS)
+                ? EntityIndex.of(carouselMapper.findAllCarousels(), Carousel::getId)
+                : previous.getCarousels();
+        // 回填依赖商品，商品或配置任一变化都要重新回填
+        EntityIndex<ProductsCarouselsDTO> productsCarousels;
+        if (changed.contains(CatalogTable.PRODUCTS_CAROUSELS) || changed.contains(CatalogTable.PRODUCTS)) {
+            Map<Integer, Product> productsById = new HashMap<>();
+            for (Product product : products.all()) {
+                productsById.put(product.getId(), product);
+            }
+            List<ProductsCarouselsDTO> hydrated = new ArrayList<>();
+            for (ProductsCarousels config : productsCarouselsMapper.findAllProductsCarousels()) {
+                hydrated.add(ProductsCarouselsDTO.of(config, productsById));
+            }
+            productsCarousels = EntityIndex.of(hydrated, ProductsCarouselsDTO::getId);
+        } else {
+            productsCarousels = previous.getProductsCarousels();
+        }
+        return new CatalogSnapshot(versions.incrementAndGet(), checksums, products, productsByCategory, productsByBrand,
+                productCategories, brands, carousels, productsCarousels);
+    }
+}
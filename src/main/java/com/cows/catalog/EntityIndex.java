@@ -0,0 +1,63 @@
+package com.cows.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 不可变的实体列表及按ID的索引
+ * 列表保持查询时的顺序，构建后不再修改，可以无锁并发读取
+ */
+public final class EntityIndex<T> {
+
+    private final List<T> all;
+    private final Map<Integer, T> byId;
+
+    private EntityIndex(List<T> all, Map<Integer, T> byId) {
+        this.all = all;
+        this.byId = byId;
+    }
+
+    public static <T> EntityIndex<T> of(List<T> items, ToIntFunction<T> idOf) {
+        Map<Integer, T> byId = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            byId.put(idOf.applyAsInt(item), item);
+        }
+        return new EntityIndex<>(List.copyOf(items), Collections.unmodifiableMap(byId));
+    }
+
+    public List<T> all() {
+        return all;
+    }
+
+    /**
+     * @return 不存在时返回null
+     */
+    public T get(int id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * 按分组键分组，分组内保持列表顺序，分组键为null的元素不参与分组
+     */
+    public <K> Map<K, List<T>> groupBy(Function<T, K> keyOf) {
+        Map<K, List<T>> groups = new LinkedHashMap<>();
+        for (T item : all) {
+            K key = keyOf.apply(item);
+            if (key != null) {
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+            }
+        }
+        groups.replaceAll((key, items) -> List.copyOf(items));
+        return Collections.unmodifiableMap(groups);
+    }
+}
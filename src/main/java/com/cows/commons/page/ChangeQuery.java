@@ -0,0 +1,32 @@
+package com.cows.commons.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 增量同步查询参数，传给各Mapper的 find*ChangedAfter 方法
+ * 查询条件为 (updateTime, id) > (lastTime, lastId) 且 updateTime < until，按 updateTime, id 升序排列，包括已逻辑删除的行
+ * lastTime为null表示从头开始
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeQuery {
+    /**
+     * 上次同步到的更新时间
+     */
+    private String lastTime;
+    /**
+     * 上次同步到的ID，与lastTime一起使用
+     */
+    private Long lastId;
+    /**
+     * 本次同步的截止时间（不含）
+     */
+    private String until;
+    /**
+     * 查询条数，比每次返回的上限多取一条用于判断是否还有更多变更
+     */
+    private int limit;
+}
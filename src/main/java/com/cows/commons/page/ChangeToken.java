@@ -0,0 +1,64 @@
+package com.cows.commons.page;
+
+import com.cows.cache.CatalogTable;
+import com.cows.exception.InvalidCursorException;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 增量同步令牌，记录每张表已同步到的 (updateTime, ID)
+ * 对外以URL安全的Base64编码，客户端只需原样回传，不应解析其内容；令牌中没有的表从头同步
+ */
+@Data
+@NoArgsConstructor
+public class ChangeToken {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @JsonProperty("p")
+    private Map<CatalogTable, Position> positions = new EnumMap<>(CatalogTable.class);
+
+    /**
+     * 单张表的同步位置
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Position {
+        @JsonProperty("t")
+        private String lastTime;
+        @JsonProperty("i")
+        private long lastId;
+    }
+
+    public Position positionOf(CatalogTable table) {
+        return positions.get(table);
+    }
+
+    public void moveTo(CatalogTable table, String lastTime, long lastId) {
+        positions.put(table, new Position(lastTime, lastId));
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (Exception e) {
+            throw new IllegalStateException("同步令牌编码失败", e);
+        }
+    }
+
+    public static ChangeToken decode(String token) {
+        try {
+            return OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), ChangeToken.class);
+        } catch (Exception e) {
+            throw new InvalidCursorException("无效的同步令牌");
+        }
+    }
+}
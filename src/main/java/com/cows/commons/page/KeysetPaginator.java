@@ -0,0 +1,76 @@
+package com.cows.commons.page;
+
+import com.cows.exception.InvalidCursorException;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 键集（seek）分页
+ * 与 LIMIT/OFFSET 不同，每一页都从上一页最后一行的 (排序值, ID) 之后开始扫描索引，翻到多深的页耗时都不变
+ * 排序字段由调用方给出的 SortSpec 校验，对外的排序字段同实体属性名
+ */
+public final class KeysetPaginator {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String ID = "id";
+    private static final DateTimeFormatter SQL_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private KeysetPaginator() {
+    }
+
+    public static <T> CursorPage<T> page(String cursor, int size, String sortField, SortSpec sortSpec,
+                                         Function<KeysetQuery, List<T>> query, ToLongFunction<T> idOf) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidCursorException("每页大小必须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+        sortField = sortSpec.resolveKey(sortField);
+        String sortColumn = sortSpec.column(sortField);
+
+        KeysetQuery keysetQuery = new KeysetQuery(sortColumn, null, null, size + 1);
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            if (!sortField.equals(pageCursor.getSortField())) {
+                throw new InvalidCursorException("分页游标与排序字段不匹配");
+            }
+            keysetQuery.setLastValue(pageCursor.getLastValue());
+            keysetQuery.setLastId(pageCursor.getLastId());
+        }
+
+        List<T> rows = query.apply(keysetQuery);
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(sortField, sortValueOf(last, sortField), idOf.applyAsLong(last)).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasMore, null);
+    }
+
+    /**
+     * 取出行的排序值并转成MySQL可直接比较的字符串
+     */
+    private static String sortValueOf(Object row, String sortField) {
+        if (ID.equals(sortField)) {
+            return null;
+        }
+        Object value = PropertyAccessorFactory.forBeanPropertyAccess(row).getPropertyValue(sortField);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(SQL_DATETIME);
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return String.valueOf(value);
+    }
+}
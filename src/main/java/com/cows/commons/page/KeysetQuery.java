@@ -0,0 +1,32 @@
+package com.cows.commons.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 键集分页查询参数，传给各Mapper的 find*After 方法
+ * 查询条件为 (sortColumn, id) > (lastValue, lastId)，按 sortColumn, id 升序排列
+ * lastId为null表示第一页；sortColumn只能来自服务层的白名单，不能直接使用请求参数
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetQuery {
+    /**
+     * 排序列（SQL表达式）
+     */
+    private String sortColumn;
+    /**
+     * 上一页最后一行的排序列取值，可能为null
+     */
+    private String lastValue;
+    /**
+     * 上一页最后一行的ID
+     */
+    private Long lastId;
+    /**
+     * 查询条数，比每页大小多取一条用于判断是否还有下一页
+     */
+    private int limit;
+}
@@ -0,0 +1,45 @@
+package com.cows.commons.page;
+
+import com.cows.exception.InvalidCursorException;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Base64;
+
+/**
+ * 分页游标，记录上一页最后一行的 (排序字段, 排序值, ID)
+ * 对外以URL安全的Base64编码，客户端只需原样回传，不应解析其内容
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @JsonProperty("s")
+    private String sortField;
+    @JsonProperty("v")
+    private String lastValue;
+    @JsonProperty("i")
+    private long lastId;
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (Exception e) {
+            throw new IllegalStateException("分页游标编码失败", e);
+        }
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            return OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), PageCursor.class);
+        } catch (Exception e) {
+            throw new InvalidCursorException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.cows.commons.page;
+
+import com.cows.exception.InvalidCursorException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 排序白名单：把对外的排序字段映射到有索引支撑的SQL列
+ * 分页查询的 ${sortField} 只能使用这里解析出的列，未登记的字段一律拒绝，避免客户端按无索引的列排序触发filesort
+ * 所有分页SQL都以 "ORDER BY 列, id" 排序，对应的索引见 mysql.sql 和 migrations/V1__paged_sort_indexes.sql
+ */
+public final class SortSpec {
+
+    private final String defaultKey;
+    private final Map<String, String> columns;
+
+    private SortSpec(String defaultKey, Map<String, String> columns) {
+        this.defaultKey = defaultKey;
+        this.columns = columns;
+    }
+
+    /**
+     * @param defaultKey 未指定排序字段时使用的字段，必须随后通过allow登记
+     */
+    public static SortSpec defaultTo(String defaultKey) {
+        return new SortSpec(defaultKey, Collections.emptyMap());
+    }
+
+    /**
+     * 登记列名与字段名相同的排序字段
+     */
+    public SortSpec allow(String... keys) {
+        SortSpec spec = this;
+        for (String key : keys) {
+            spec = spec.allow(key, key);
+        }
+        return spec;
+    }
+
+    /**
+     * 登记排序字段及其对应的SQL列，例如保留字需要加反引号
+     */
+    public SortSpec allow(String key, String column) {
+        Map<String, String> copy = new LinkedHashMap<>(columns);
+        copy.put(key, column);
+        return new SortSpec(defaultKey, Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * 校验排序字段，为空时返回默认字段
+     * @throws InvalidCursorException 排序字段不在白名单中
+     */
+    public String resolveKey(String key) {
+        if (key == null || key.isEmpty()) {
+            key = defaultKey;
+        }
+        if (!columns.containsKey(key)) {
+            throw new InvalidCursorException("不支持的排序字段: " + key);
+        }
+        return key;
+    }
+
+    /**
+     * 校验排序字段并返回对应的SQL列，为空时使用默认字段
+     * @throws InvalidCursorException 排序字段不在白名单中
+     */
+    public String column(String key) {
+        return columns.get(resolveKey(key));
+    }
+
+    public Set<String> keys() {
+        return columns.keySet();
+    }
+}
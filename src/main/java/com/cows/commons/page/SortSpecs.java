@@ -0,0 +1,46 @@
+package com.cows.commons.page;
+
+/**
+ * 各实体允许的排序字段
+ * 新增排序字段时必须同时在 mysql.sql 中为该列建立索引（带isDeleted过滤的表使用 (isDeleted, 列) 联合索引），
+ * 为已有库在 migrations 下增加对应的ALTER脚本，并确认 SortSpecSqlTest 和 SortSpecExplainTest 通过
+ */
+public final class SortSpecs {
+
+    public static final SortSpec PRODUCT = SortSpec.defaultTo("id")
+            .allow("id", "name", "salePrice", "stockQuantity", "createTime", "updateTime");
+
+    public static final SortSpec PRODUCT_CATEGORY = SortSpec.defaultTo("id")
+            .allow("id", "name", "createTime", "updateTime");
+
+    public static final SortSpec CAROUSEL = SortSpec.defaultTo("order")
+            .allow("id", "title", "createTime", "updateTime")
+            .allow("order", "`order`");
+
+    public static final SortSpec BASIC_INFORMATION = SortSpec.defaultTo("id")
+            .allow("id");
+
+    public static final SortSpec ORDER = SortSpec.defaultTo("id")
+            .allow("id", "userId", "totalPrice", "status", "createTime", "updateTime");
+
+    public static final SortSpec USER = SortSpec.defaultTo("id")
+            .allow("id", "userName");
+
+    public static final SortSpec ADMIN = SortSpec.defaultTo("id")
+            .allow("id", "userName", "createTime", "updateTime");
+
+    public static final SortSpec BUSINESS = SortSpec.defaultTo("id")
+            .allow("id", "name", "createTime", "updateTime");
+
+    public static final SortSpec ABOUT = SortSpec.defaultTo("id")
+            .allow("id", "createTime", "updateTime");
+
+    public static final SortSpec BRAND = SortSpec.defaultTo("id")
+            .allow("id", "name", "createTime", "updateTime");
+
+    public static final SortSpec BRAND_AUTHORIZATION_CERTIFICATE = SortSpec.defaultTo("id")
+            .allow("id", "name", "createTime", "updateTime");
+
+    private SortSpecs() {
+    }
+}
@@ -6,7 +6,6 @@ import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.cows.mapper.UserMapper;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * AppConfig 类定义了一个 UserService 类型的 Bean。
@@ -52,11 +51,5 @@ public class AppConfig {
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
-    /**
-     * 用于RestTemplate
-     * */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
+    // RestTemplate由RestTemplateConfig提供（带连接池和超时），这里不再定义，避免覆盖
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.cows.config;
+
+import com.cows.cache.CacheInvalidationListener;
+import com.cows.cache.CacheNames;
+import com.cows.cache.HotKeyProperties;
+import com.cows.cache.LocalCacheProperties;
+import com.cows.cache.RemoteCacheProperties;
+import com.cows.cache.TwoLevelCache;
+import com.cows.catalog.CatalogSnapshotHolder;
+import com.cows.datasource.ReplicaRouter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 缓存配置
+ * 公共目录类接口（商品、分类、轮播图、基本信息）的读操作走缓存，写操作在serviceImpl中通过@CacheEvict失效
+ * cache.remote.enabled开启后，cache.remote.cache-names中的缓存使用"本地+Redis"两级缓存，并通过Redis频道广播失效消息
+ * 两级缓存按cache.hot-key探测热点键，热点键额外保存在节点内的热点缓存中
+ * 使用TransactionAwareCacheManagerProxy包装，保证失效操作在事务提交后才执行，避免其他请求读到未提交前的旧值后再次写入缓存
+ * @author liyinchi
+ */
+@Slf4j
+@Configuration
+public class CacheConfig {
+
+    /**
+     * 当前节点ID，用于忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Bean
+    public CacheManager cacheManager(LocalCacheProperties localProperties, RemoteCacheProperties remoteProperties,
+                                     HotKeyProperties hotKeyProperties, StringRedisTemplate stringRedisTemplate) {
+        List<Cache> caches = new ArrayList<>();
+        for (String cacheName : CacheNames.ALL) {
+            String spec = localProperties.specOf(cacheName);
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache = Caffeine.from(spec).recordStats().build();
+            if (remoteProperties.isTwoLevel(cacheName)) {
+                log.info("注册两级缓存: {} -> {}, redis ttl {}", cacheName, spec, remoteProperties.getTtl());
+                caches.add(new TwoLevelCache(cacheName, localCache, stringRedisTemplate, remoteProperties, nodeId, hotKeyProperties));
+            } else {
+                log.info("注册本地缓存: {} -> {}", cacheName, spec);
+                caches.add(new CaffeineCache(cacheName, localCache, false));
+            }
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * 订阅缓存失效频道
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "cache.remote", name = "enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager,
+                                                                            RemoteCacheProperties remoteProperties,
+                                                                            ObjectProvider<ReplicaRouter> replicaRouter,
+                                                                            ObjectProvider<CatalogSnapshotHolder> catalogSnapshotHolder) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(new CacheInvalidationListener(cacheManager, nodeId, replicaRouter, catalogSnapshotHolder),
+                new ChannelTopic(remoteProperties.getChannel()));
+        return container;
+    }
+}
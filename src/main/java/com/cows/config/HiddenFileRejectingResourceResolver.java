@@ -0,0 +1,23 @@
+package com.cows.config;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+
+/**
+ * 上传目录的静态资源解析：路径中任何一段以"."开头的都当作不存在
+ * 上传过程中的临时文件（.upload-*.tmp）和其他隐藏文件不会通过 /files/** 被访问
+ */
+public class HiddenFileRejectingResourceResolver extends PathResourceResolver {
+
+    @Override
+    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+        for (String segment : resourcePath.split("/")) {
+            if (segment.startsWith(".")) {
+                return null;
+            }
+        }
+        return super.getResource(resourcePath, location);
+    }
+}
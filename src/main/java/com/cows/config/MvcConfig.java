@@ -1,9 +1,13 @@
 package com.cows.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.TimeUnit;
+
 
 /**
  *
@@ -15,10 +19,18 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * */
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
+    @Value("${upload.dir:./upload}")
+    private String uploadDir;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // 上传文件按内容命名，同一URL的内容不会变化，允许永久缓存
         registry.addResourceHandler("/files/**")
-                .addResourceLocations("file:./upload/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                // 不提供上传中的临时文件等隐藏文件
+                .resourceChain(false)
+                .addResolver(new HiddenFileRejectingResourceResolver());
         registry.addResourceHandler("/mp3/**")
                 .addResourceLocations("classpath:/media/");
     }
@@ -1,11 +1,18 @@
 package com.cows.config;
 
+import com.cows.controller.Interceptor.ConditionalGetInterceptor;
 import com.cows.controller.Interceptor.MyInterceptor;
+import com.cows.controller.Interceptor.ResponseBodyCacheInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * 配置拦截器
@@ -15,6 +22,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupp
 @Configuration
 public class MyInterceptorConfig extends WebMvcConfigurationSupport {
 
+    @Value("${upload.dir:./upload}")
+    private String uploadDir;
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Autowired
+    private ResponseBodyCacheInterceptor responseBodyCacheInterceptor;
+
     /**
      * 用来指定静态资源不被拦截，否则继承WebMvcConfigurationSupport这种方式会导致静态资源无法直接访问
      * @param registry
@@ -22,12 +38,20 @@ public class MyInterceptorConfig extends WebMvcConfigurationSupport {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(new MyInterceptor()).addPathPatterns("/**");
+        registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/v1/**");
+        // 依赖conditionalGetInterceptor计算出的ETag，必须在它之后注册
+        registry.addInterceptor(responseBodyCacheInterceptor).addPathPatterns("/v1/**");
     }
 
     @Override
     protected void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // 上传文件按内容命名，同一URL的内容不会变化，允许永久缓存
         registry.addResourceHandler("/files/**")
-                .addResourceLocations("file:./upload/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                // 不提供上传中的临时文件等隐藏文件
+                .resourceChain(false)
+                .addResolver(new HiddenFileRejectingResourceResolver());
         registry.addResourceHandler("/mp3/**")
                 .addResourceLocations("classpath:/media/");
         registry.addResourceHandler("/**")
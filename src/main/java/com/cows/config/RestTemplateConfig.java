@@ -1,8 +1,22 @@
 package com.cows.config;
 
+import com.cows.http.OutboundHttpMetrics;
+import com.cows.http.OutboundHttpProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -13,28 +27,59 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * 出站HTTP调用共用的RestTemplate
+ * 底层是带连接池的HttpClient：按目标主机复用keep-alive连接，连接、读取和等待连接都有超时，
+ * 空闲和到期的连接在后台关闭；JSON转换使用应用的ObjectMapper，每次调用按主机记录耗时
+ */
 @Configuration
 public class RestTemplateConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-    RestTemplate restTemplate = new RestTemplate();
-
-    // 获取默认的转换器列表
-    List<HttpMessageConverter<?>> messageConverters = new ArrayList<>(restTemplate.getMessageConverters());
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(OutboundHttpProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(properties.getTimeToLive().toMillis()))
+                        // 空闲一段时间的连接复用前先检查，避免拿到对方已经关闭的连接
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeout().toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeout().toMillis()))
+                .build();
+    }
 
-    // 添加自定义的StringHttpMessageConverter，处理text/plain类型的响应
-    HttpMessageConverter<?> stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
-    messageConverters.add(stringConverter);
-
-    // 添加一个转换器来处理text/plain为JSON
-    MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
-    jsonConverter.setSupportedMediaTypes(Arrays.asList(MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON));
-    messageConverters.add(jsonConverter);
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient outboundHttpClient, ObjectMapper objectMapper,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
 
-    // 设置自定义的转换器列表
-    restTemplate.setMessageConverters(messageConverters);
+        List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+        // 默认的StringHttpMessageConverter按ISO-8859-1解码没有声明字符集的text/plain，换成UTF-8
+        messageConverters.add(new StringHttpMessageConverter(StandardCharsets.UTF_8));
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (!(converter instanceof StringHttpMessageConverter) && !(converter instanceof MappingJackson2HttpMessageConverter)) {
+                messageConverters.add(converter);
+            }
+        }
+        // 复用应用的ObjectMapper，同时把text/plain按JSON处理（微信接口的响应类型是text/plain）
+        MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        jsonConverter.setSupportedMediaTypes(Arrays.asList(MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON,
+                new MediaType("application", "*+json")));
+        messageConverters.add(jsonConverter);
+        restTemplate.setMessageConverters(messageConverters);
 
-    return restTemplate;
+        restTemplate.getInterceptors().add(new OutboundHttpMetrics(meterRegistry));
+        return restTemplate;
+    }
 }
-}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.cows.config;
+
+import com.cows.datasource.ReadWriteRoutingInterceptor;
+import com.cows.datasource.ReplicaNode;
+import com.cows.datasource.ReplicaRouter;
+import com.cows.datasource.RoutingDataSource;
+import com.cows.datasource.RoutingDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源配置，datasource.routing.enabled=true时生效，否则使用Spring Boot默认的单数据源
+ * 主库沿用 spring.datasource.* 和 spring.datasource.hikari.*；从库在 datasource.routing.replicas 中配置
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRouter replicaRouter(RoutingDataSourceProperties properties) {
+        List<ReplicaNode> replicas = new ArrayList<>();
+        for (RoutingDataSourceProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(replica.getDriverClassName())
+                    .build();
+            dataSource.setPoolName(replica.getName());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(new ReplicaNode(replica.getName(), dataSource));
+        }
+        return new ReplicaRouter(replicas, properties);
+    }
+
+    /**
+     * 事务管理器、MyBatis和JdbcTemplate使用的数据源
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource(primaryDataSource, replicaRouter));
+    }
+
+    @Bean
+    public ReadWriteRoutingInterceptor readWriteRoutingInterceptor(ReplicaRouter replicaRouter) {
+        return new ReadWriteRoutingInterceptor(replicaRouter);
+    }
+}
@@ -40,14 +40,18 @@ public class SecurityConfig {
             .and()
             .addFilterBefore(new JwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
             .authorizeRequests(authorize -> authorize
-                .requestMatchers("/", "/home", "/login", "/login/wechat", "/login/wechat/callback", 
+                .requestMatchers("/", "/home", "/login", "/login/wechat", "/login/wechat/callback", "/login/wechat/userinfo", 
                                  "/login/perform_login", "/v1/users/addUser", "/wechatLogin.html", 
                                  "/login/wechat/verify", "/location", "/test.png", 
                                  "/files/**",
                                  "/v1/osss/**",  // OSS API路径放行 - 修改为新的统一命名风格
                                  "/v1/getLatestImage",
+                                 "/v1/images/**",
+                                 "/v1/home",
+                                 "/v1/changes",
                                  "/v1/productCategories/getAllProductCategories", 
                                  "/v1/productsCarousels/getAllProductsCarousels", 
+                                 "/v1/productsCarousels/getAllProductsCarouselsHydrated",
                                  "/v1/products/getAllProducts", 
                                  "/v1/products/getAllProductsCarousels", 
                                  "/MP_verify_tSDyEHEKTxbBXHMd.txt", "/v1/admins/login", 
@@ -55,6 +59,8 @@ public class SecurityConfig {
                                  "/v1/carousels/getAllCarousels",
                                  "/v1/products/getAllProducts", 
                                  "/v1/products/getProductById/*",
+                                 "/v1/products/getProductsByCategory/*",
+                                 "/v1/products/getProductsByBrand",
                                  "/v1/businesses/getBusinessById/1",
                                  "/v1/businesses/getAllBusinesses", 
                                  "/v1/certificates/getAllCertificates", 
@@ -0,0 +1,50 @@
+package com.cows.controller.Interceptor;
+
+import com.cows.cache.CatalogVersion;
+import com.cows.cache.ConditionalGet;
+import com.cows.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 目录类接口的条件请求
+ * 在接口方法执行前按 @ConditionalGet 声明的表计算版本，If-None-Match / If-Modified-Since 命中时直接返回304，
+ * 不查询业务数据也不序列化响应体；未命中时在响应中带上 ETag 和 Last-Modified
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * 计算出的ETag放在这个请求属性中，供响应体缓存使用
+     */
+    public static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".etag";
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+        CatalogVersion version = catalogVersionService.versionOf(conditionalGet.value());
+        String etag = catalogVersionService.etagOf(version);
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        // 允许客户端缓存，但每次使用前都要重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        // 非GET/HEAD请求时checkNotModified不会返回true
+        long lastModified = version.getLastModified() > 0 ? version.getLastModified() : -1;
+        return !webRequest.checkNotModified(etag, lastModified);
+    }
+}
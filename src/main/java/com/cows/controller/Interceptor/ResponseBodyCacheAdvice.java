@@ -0,0 +1,96 @@
+package com.cows.controller.Interceptor;
+
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.ConditionalGet;
+import com.cows.cache.EncodedResponse;
+import com.cows.cache.ResponseBodyCache;
+import com.cows.cache.SingleFlight;
+import com.cows.service.CatalogVersionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+
+/**
+ * @CachedResponseBody 接口缓存未命中时，把返回值编码为JSON字节放入缓存，并直接写出这份字节（返回null让消息转换器跳过），
+ * 每个数据版本只序列化一次；
+ * 请求处理期间数据版本发生变化或读到了single-flight返回的旧结果时不缓存，避免把旧数据按新的ETag缓存下来
+ */
+@Slf4j
+@ControllerAdvice
+public class ResponseBodyCacheAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * MVC消息转换器使用的ObjectMapper（含spring.jackson.*配置），保证缓存的内容与正常输出一致
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(CachedResponseBody.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        String etag = (String) httpRequest.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+        if (etag == null || singleFlight.servedStaleInRequest() || !etag.equals(currentEtag(returnType))) {
+            return body;
+        }
+        EncodedResponse encoded;
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            encoded = responseBodyCache.put(ResponseBodyCache.keyOf(returnType.getMethod(), etag),
+                    MediaType.APPLICATION_JSON_VALUE, json);
+        } catch (IOException e) {
+            log.warn("响应体缓存写入失败，按普通方式输出: {}", returnType.getMethod(), e);
+            return body;
+        }
+        try {
+            responseBodyCache.write(encoded, httpRequest, servletResponse.getServletResponse());
+        } catch (IOException e) {
+            // 响应可能已经输出了一部分，不能再交给消息转换器
+            log.debug("客户端已断开: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 重新读取接口声明的表的版本，本节点的写操作提交后版本缓存已失效，这里会读到新版本
+     */
+    private String currentEtag(MethodParameter returnType) {
+        ConditionalGet conditionalGet = returnType.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return null;
+        }
+        return catalogVersionService.etagOf(catalogVersionService.versionOf(conditionalGet.value()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.cows.controller.Interceptor;
+
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.EncodedResponse;
+import com.cows.cache.ResponseBodyCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 在 ConditionalGetInterceptor 之后执行：标注了 @CachedResponseBody 的接口命中当前数据版本的缓存时直接写出已编码的响应体
+ * 未命中时放行，由 ResponseBodyCacheAdvice 在序列化时写入缓存
+ */
+@Component
+public class ResponseBodyCacheInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !handlerMethod.hasMethodAnnotation(CachedResponseBody.class)) {
+            return true;
+        }
+        String etag = (String) request.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+        if (etag == null) {
+            return true;
+        }
+        EncodedResponse encoded = responseBodyCache.get(ResponseBodyCache.keyOf(handlerMethod.getMethod(), etag));
+        if (encoded == null) {
+            return true;
+        }
+        responseBodyCache.write(encoded, request, response);
+        return false;
+    }
+}
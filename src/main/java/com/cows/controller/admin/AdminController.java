@@ -1,6 +1,7 @@
 package com.cows.controller.admin;
 
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Admin;
 import com.cows.service.AdminService;
 import com.cows.util.JwtUtil;
@@ -116,4 +117,14 @@ public class AdminController {
         log.info("分页查询管理员: {}", admins);
         return BaseResponse.success(admins);
     }
+
+    @Operation(summary = "游标分页查询管理员", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getAdminsByCursor")
+    public BaseResponse<CursorPage<Admin>> getAdminsByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<Admin> page = adminService.getAdminsByCursor(cursor, size, sortField);
+        log.info("游标分页查询管理员: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
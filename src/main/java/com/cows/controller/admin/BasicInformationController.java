@@ -1,6 +1,10 @@
 package com.cows.controller.admin;
 
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.BasicInformation;
 import com.cows.service.BasicInformationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +27,8 @@ public class BasicInformationController {
     private BasicInformationService basicInformationService;
 
     @Operation(summary = "获取所有基本信息", description = "返回所有基本信息的列表")
+    @ConditionalGet(CatalogTable.BASIC_INFORMATION)
+    @CachedResponseBody
     @GetMapping("/getAllBasicInformation")
     public BaseResponse<List<BasicInformation>> getAllBasicInformation() {
         List<BasicInformation> basicInformationList = basicInformationService.getAllBasicInformation();
@@ -79,4 +85,14 @@ public class BasicInformationController {
         log.info("分页查询基本信息: {}", basicInformationList);
         return BaseResponse.success(basicInformationList);
     }
+
+    @Operation(summary = "游标分页查询基本信息", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getBasicInformationByCursor")
+    public BaseResponse<CursorPage<BasicInformation>> getBasicInformationByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<BasicInformation> page = basicInformationService.getBasicInformationByCursor(cursor, size, sortField);
+        log.info("游标分页查询基本信息: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
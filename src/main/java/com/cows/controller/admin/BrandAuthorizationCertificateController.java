@@ -1,5 +1,7 @@
 package com.cows.controller.admin;
 
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
 import com.cows.entity.BrandAuthorizationCertificate;
 import com.cows.service.BrandAuthorizationCertificateService;
@@ -20,6 +22,7 @@ public class BrandAuthorizationCertificateController {
     private BrandAuthorizationCertificateService certificateService;
 
     @Operation(summary = "获取所有证书信息", description = "返回所有证书的列表")
+    @ConditionalGet(CatalogTable.BRAND_AUTHORIZATION_CERTIFICATES)
     @GetMapping("/getAllCertificates")
     public BaseResponse<List<BrandAuthorizationCertificate>> getAllCertificates() {
         List<BrandAuthorizationCertificate> certificates = certificateService.getAllCertificates();
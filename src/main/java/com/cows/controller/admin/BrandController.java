@@ -1,5 +1,7 @@
 package com.cows.controller.admin;
 
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
 import com.cows.entity.Brand;
 import com.cows.service.BrandService;
@@ -20,6 +22,7 @@ public class BrandController {
     private BrandService brandService;
 
     @Operation(summary = "获取所有品牌信息", description = "返回所有品牌的列表")
+    @ConditionalGet(CatalogTable.BRANDS)
     @GetMapping("/getAllBrands")
     public BaseResponse<List<Brand>> getAllBrands() {
         List<Brand> brands = brandService.getAllBrands();
@@ -0,0 +1,89 @@
+package com.cows.controller.admin;
+
+import com.cows.cache.HotKey;
+import com.cows.cache.SingleFlight;
+import com.cows.cache.TwoLevelCache;
+import com.cows.commons.api.BaseResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存管理的接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/caches")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Operation(summary = "获取缓存统计信息", description = "返回各本地缓存的条目数、命中数、未命中数、命中率和淘汰数")
+    @GetMapping("/getCacheStats")
+    public BaseResponse<Map<String, Map<String, Object>>> getCacheStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null || !(cache.getNativeCache() instanceof Cache<?, ?> nativeCache)) {
+                continue;
+            }
+            CacheStats stats = nativeCache.stats();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("size", nativeCache.estimatedSize());
+            item.put("hitCount", stats.hitCount());
+            item.put("missCount", stats.missCount());
+            item.put("hitRate", stats.hitRate());
+            item.put("evictionCount", stats.evictionCount());
+            result.put(cacheName, item);
+        }
+        return BaseResponse.success(result);
+    }
+
+    @Operation(summary = "获取热点键", description = "返回各两级缓存当前探测到的热点键及估计访问次数，按次数从高到低排列")
+    @GetMapping("/getHotKeys")
+    public BaseResponse<Map<String, List<HotKey>>> getHotKeys() {
+        Map<String, List<HotKey>> result = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                result.put(cacheName, twoLevelCache.hotKeys());
+            }
+        }
+        return BaseResponse.success(result);
+    }
+
+    @Operation(summary = "获取读请求合并统计", description = "按分组返回实际查询(executed)、被合并(collapsed)和返回旧值(stale)的次数")
+    @GetMapping("/getSingleFlightStats")
+    public BaseResponse<Map<String, Map<String, Long>>> getSingleFlightStats() {
+        return BaseResponse.success(singleFlight.stats());
+    }
+
+    @Operation(summary = "清空缓存", description = "清空指定名称的本地缓存")
+    @DeleteMapping("/clearCache/{cacheName}")
+    public BaseResponse<String> clearCache(@Parameter(description = "缓存名称", required = true) @PathVariable String cacheName) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return (BaseResponse<String>) BaseResponse.error(0, "缓存不存在");
+        }
+        cache.clear();
+        log.info("清空缓存: {}", cacheName);
+        return BaseResponse.success("缓存清空成功");
+    }
+}
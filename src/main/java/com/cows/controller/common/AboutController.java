@@ -1,6 +1,9 @@
 package com.cows.controller.common;
 
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.About;
 import com.cows.service.AboutService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +24,7 @@ public class AboutController {
     private AboutService aboutService;
 
     @Operation(summary = "获取所有关于我们页面图片", description = "返回所有关于我们页面图片的列表")
+    @ConditionalGet(CatalogTable.ABOUT)
     @GetMapping("/getAllAbouts")
     public BaseResponse<List<About>> getAllAbouts() {
         List<About> abouts = aboutService.getAllAbouts();
@@ -77,4 +81,15 @@ public class AboutController {
         log.info("分页查询关于我们页面图片: {}", result);
         return BaseResponse.success(result);
     }
+
+    @Operation(summary = "游标分页查询关于我们页面图片", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor；withTotal=true时附带总数（允许短时近似）")
+    @GetMapping("/getAboutsByCursor")
+    public BaseResponse<CursorPage<About>> getAboutsByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<About> page = aboutService.getAboutsByCursor(cursor, size, sortField, withTotal);
+        log.info("游标分页查询关于我们页面图片: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.cows.controller.common;
 
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Business;
+import com.cows.search.SearchResult;
 import com.cows.service.BusinessService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,6 +25,7 @@ public class BusinessController {
     private BusinessService businessService;
 
     @Operation(summary = "获取所有招商加盟信息", description = "返回所有招商加盟的列表")
+    @ConditionalGet(CatalogTable.BUSINESSES)
     @GetMapping("/getAllBusinesses")
     public BaseResponse<List<Business>> getAllBusinesses() {
         List<Business> businesses = businessService.getAllBusinesses();
@@ -85,4 +90,29 @@ public class BusinessController {
         log.info("搜索招商加盟名称: {}", name);
         return BaseResponse.success(businesses);
     }
+
+    @Operation(summary = "全文搜索招商加盟", description = "按名称关键词搜索招商加盟，中文按相邻两字匹配，最后一个英文/数字词按前缀匹配，结果按相关度排序分页")
+    @GetMapping("/searchBusinesses")
+    public BaseResponse<SearchResult<Business>> searchBusinesses(@RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            SearchResult<Business> result = businessService.searchBusinesses(keyword, page, size);
+            log.info("全文搜索招商加盟: {}, 命中{}条", keyword, result.getTotal());
+            return BaseResponse.success(result);
+        } catch (IllegalArgumentException e) {
+            return (BaseResponse<SearchResult<Business>>) BaseResponse.error(400, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "游标分页查询招商加盟", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor；withTotal=true时附带总数（允许短时近似）")
+    @GetMapping("/getBusinessesByCursor")
+    public BaseResponse<CursorPage<Business>> getBusinessesByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<Business> page = businessService.getBusinessesByCursor(cursor, size, sortField, withTotal);
+        log.info("游标分页查询招商加盟: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
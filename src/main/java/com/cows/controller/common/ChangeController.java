@@ -0,0 +1,30 @@
+package com.cows.controller.common;
+
+import com.cows.commons.api.BaseResponse;
+import com.cows.dto.ChangesDTO;
+import com.cows.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+public class ChangeController {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Operation(summary = "增量同步目录数据", description = "返回同步令牌之后新增、修改和删除的商品、商品分类、品牌、轮播图和横向轮播商品；不传since时从头同步，hasMore为true时用返回的token继续请求")
+    @GetMapping("/v1/changes")
+    public BaseResponse<ChangesDTO> getChanges(
+            @Parameter(description = "上次返回的同步令牌") @RequestParam(required = false) String since,
+            @Parameter(description = "每张表最多返回的行数") @RequestParam(defaultValue = "200") int limit) {
+        ChangesDTO changes = changeFeedService.getChanges(since, limit);
+        log.info("增量同步: hasMore={}", changes.isHasMore());
+        return BaseResponse.success(changes);
+    }
+}
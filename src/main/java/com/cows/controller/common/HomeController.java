@@ -0,0 +1,37 @@
+package com.cows.controller.common;
+
+import com.cows.commons.api.BaseResponse;
+import com.cows.dto.HomePageDTO;
+import com.cows.service.HomeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 官网首页聚合接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1")
+@Schema(name="官网首页", description="官网首页")
+@Tag(name = "官网首页")
+public class HomeController {
+
+    @Autowired
+    private HomeService homeService;
+
+    @Operation(summary = "获取官网首页数据", description = "一次返回轮播图、横向轮播商品、商品分类、商品、基本信息、关于我们、品牌授权证书和品牌")
+    @GetMapping("/home")
+    public BaseResponse<HomePageDTO> getHomePage() {
+        HomePageDTO home = homeService.getHomePage();
+        if (!home.getDegradedSections().isEmpty()) {
+            log.warn("官网首页部分栏目降级: {}", home.getDegradedSections());
+        }
+        return BaseResponse.success(home);
+    }
+}
@@ -5,6 +5,8 @@ import com.cows.entity.User;
 import com.cows.commons.api.JsonResult;
 import com.cows.exception.BusinessErrorException;
 import com.cows.exception.BusinessMsgEnum;
+import com.cows.service.ImageDerivativeService;
+import com.cows.upload.ServedImage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,8 +15,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.platform.commons.logging.Logger;
 import org.junit.platform.commons.logging.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -23,13 +26,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 一个简单的json返回
@@ -208,7 +209,7 @@ public class JsonController {
     /**
      * 上传图片
      * 上传的文件存放位置，位于./upload
-     * 
+     * 可以通过 w（宽度）、q（质量1-100）、format（jpg/png/webp）获取缩小压缩后的派生图，手机端应总是带上宽度
     */
     @Slf4j
     @RestController
@@ -216,16 +217,44 @@ public class JsonController {
     @Schema(name="获取图片文件", description="获取图片文件")
     @Tag(name = "获取图片文件")
     public static class ImageController {
+        @Autowired
+        private ImageDerivativeService imageDerivativeService;
+
         @GetMapping("/getLatestImage")
-        public ResponseEntity<byte[]> getLatestImage(@RequestParam String fileName) throws IOException {
-            Path path = Paths.get("./upload/" + fileName);
-            if (!Files.exists(path)) {
+        public ResponseEntity<Resource> getLatestImage(@RequestParam String fileName,
+                                                       @RequestParam(value = "w", required = false) Integer width,
+                                                       @RequestParam(value = "q", required = false) Integer quality,
+                                                       @RequestParam(value = "format", required = false) String format) throws IOException {
+            return serve(fileName, width, quality, format);
+        }
+
+        @GetMapping("/images/{fileName:.+}")
+        public ResponseEntity<Resource> getImage(@PathVariable String fileName,
+                                                 @RequestParam(value = "w", required = false) Integer width,
+                                                 @RequestParam(value = "q", required = false) Integer quality,
+                                                 @RequestParam(value = "format", required = false) String format) throws IOException {
+            return serve(fileName, width, quality, format);
+        }
+
+        private ResponseEntity<Resource> serve(String fileName, Integer width, Integer quality, String format) throws IOException {
+            ServedImage image;
+            try {
+                image = imageDerivativeService.get(fileName, width, quality, format);
+            } catch (IllegalArgumentException e) {
+                // 不支持的尺寸、质量或格式
+                return ResponseEntity.badRequest().build();
+            }
+            if (image == null) {
                 return ResponseEntity.notFound().build();
             }
-            byte[] fileContent = Files.readAllBytes(path);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_JPEG);
-            return new ResponseEntity<>(fileContent, headers, HttpStatus.OK);
+            // 文件名由内容决定，派生图同样不会变化；繁忙时退回的原图只短暂缓存，之后重新请求派生图
+            CacheControl cacheControl = image.isExact()
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                    : CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+            return ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .contentType(MediaType.parseMediaType(image.getContentType()))
+                    .body(new FileSystemResource(image.getFile()));
         }
     }
 
@@ -5,6 +5,8 @@ import com.cows.entity.User;
 import com.cows.entity.WechatUser;
 import com.cows.service.UserService;
 import com.cows.util.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import com.cows.service.WechatService;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.http.HttpStatus;
@@ -35,6 +37,11 @@ import java.util.Map;
 @Controller
 @RequestMapping("/login")
 public class LoginController {
+    /**
+     * 微信登录后会话中保存的openid
+     */
+    static final String WECHAT_OPENID_SESSION_ATTRIBUTE = LoginController.class.getName() + ".wechatOpenid";
+
     @Autowired
     private AuthenticationManager authenticationManager;
     @Autowired
@@ -122,7 +129,8 @@ public class LoginController {
     // H5微信回调
     @GetMapping("/wechat/callback")
     // 方法返回类型可以是String、json、ResponseEntity
-    public ResponseEntity<?> wechatCallback(@RequestParam String code, @RequestParam String state) {
+    public ResponseEntity<?> wechatCallback(@RequestParam String code, @RequestParam String state,
+                                            HttpServletRequest request) {
         // 调用服务获取access_token
         // WechatService.AccessTokenResponse tokenResponse = wechatService.getAccessToken(code, "authorization_code");
         
@@ -151,7 +159,12 @@ public class LoginController {
         // }
         
         // 首先确保 accessToken 是有效的
-        WechatService.AccessTokenResponse tokenResponse = wechatService.ensureValidAccessToken(code);
+        WechatService.AccessTokenResponse tokenResponse;
+        try {
+            tokenResponse = wechatService.ensureValidAccessToken(code);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Failed to retrieve access token");
+        }
 
         // 使用有效的 accessToken 和 openid 获取用户信息
         WechatUser wechatUser = wechatService.getUserInfo(tokenResponse.getAccessToken(), tokenResponse.getOpenid());
@@ -164,6 +177,10 @@ public class LoginController {
         // 根据业务逻辑处理用户信息，例如创建用户、生成JWT等
         wechatUser.setOpenId(tokenResponse.getOpenid()); // 确保设置了openid
         User user = userService.loginOrCreateWechatUser(wechatUser);// 检查或创建用户
+        // 只在会话中记录openid，供 /login/wechat/userinfo 使用；更换会话ID，避免会话固定
+        request.getSession(true);
+        request.changeSessionId();
+        request.getSession().setAttribute(WECHAT_OPENID_SESSION_ATTRIBUTE, tokenResponse.getOpenid());
 
         // 当方法返回类型是String时，可以直接返回
         // return "userProfile"; // 或者重定向到其他页面
@@ -177,6 +194,24 @@ public class LoginController {
         return ResponseEntity.ok(response);
     }
 
+    // 当前微信用户的最新资料，使用登录时保存的access_token，过期前自动刷新，不需要重新授权
+    // openid只从微信登录时写入的会话中读取；会话不是Spring Security的登录状态，不能访问其他需要登录的接口
+    @GetMapping("/wechat/userinfo")
+    public ResponseEntity<?> wechatUserInfo(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        String openid = session == null ? null : (String) session.getAttribute(WECHAT_OPENID_SESSION_ATTRIBUTE);
+        if (openid == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Wechat login required");
+        }
+        WechatUser wechatUser = wechatService.getUserInfoByOpenid(openid);
+        if (wechatUser == null) {
+            // 没有保存的令牌或refreshToken已失效，需要重新走 /login/wechat 授权
+            session.removeAttribute(WECHAT_OPENID_SESSION_ATTRIBUTE);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Wechat authorization required");
+        }
+        return ResponseEntity.ok(wechatUser);
+    }
+
     // 验证微信回调
     @GetMapping("/wechat/verify")
     @ResponseBody  // 添加这个注解
@@ -217,11 +252,12 @@ public class LoginController {
     // APP登录
     @GetMapping("/app")
     public ResponseEntity<?> appLogin(@RequestParam String code) {
-        // 使用 "authorization_code" 替换 "client_credential"
-        String accessToken = wechatService.getAccessToken(code, "authorization_code").getAccessToken();
-        // 由于 "client_credential" 不返回 openid，这里假设你已经有了正确的 code 来获取 openid
-        String openid = wechatService.getAccessToken(code, "authorization_code").getOpenid();
-        WechatUser user = wechatService.getUserInfo(accessToken, openid);
+        // 授权码只能换取一次，access_token和openid取自同一次响应
+        WechatService.AccessTokenResponse tokenResponse = wechatService.getAccessToken(code, "authorization_code");
+        if (tokenResponse == null || tokenResponse.getAccessToken() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Failed to retrieve access token");
+        }
+        WechatUser user = wechatService.getUserInfo(tokenResponse.getAccessToken(), tokenResponse.getOpenid());
         // 处理用户信息，生成JWT等
         return ResponseEntity.ok().body(user);
     }
@@ -1,13 +1,11 @@
 package com.cows.controller.common;
 
+import com.cows.media.MediaStreamer;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,27 +18,20 @@ import java.io.IOException;
  * @author liyinchi
  * @date 2024/06/29
  */
-@Slf4j
 @RestController
 @RequestMapping("/v1")
 @Schema(name="获取音频文件", description="获取音频文件")
 @Tag(name = "获取音频文件")
 public class MediaDownloadController {
 
-    @GetMapping("/mediaDownload/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-
-        Resource file = new ClassPathResource("media/" + filename);
-        try {
-            file.getInputStream(); // check if file exists
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("audio/mpeg"));
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFilename() + "\"");
+    @Autowired
+    private MediaStreamer mediaStreamer;
 
-            return ResponseEntity.ok().headers(headers).body(file);
-        } catch (IOException e) {
-            log.error("File not found: {}", filename, e);
-            return ResponseEntity.notFound().build();
-        }
+    /**
+     * 支持Range请求，播放器拖动进度条时只传输需要的部分
+     */
+    @GetMapping("/mediaDownload/{filename:.+}")
+    public void serveFile(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        mediaStreamer.stream(filename, true, request, response);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.cows.controller.common;
 
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Order;
 import com.cows.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -92,4 +93,13 @@ public class OrderController {
         return BaseResponse.success(orders);
     }
 
+    @Operation(summary = "游标分页查询订单", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getOrdersByCursor")
+    public BaseResponse<CursorPage<Order>> getOrdersByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<Order> page = orderService.getOrdersByCursor(cursor, size, sortField);
+        log.info("游标分页查询订单: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.cows.controller.common;
 
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.ProductCategory;
 import com.cows.service.ProductCategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +24,8 @@ public class ProductCategoryController {
     private ProductCategoryService productCategoryService;
 
     @Operation(summary = "获取所有商品分类信息", description = "返回所有商品分类的列表")
+    @ConditionalGet(CatalogTable.PRODUCT_CATEGORIES)
+    @CachedResponseBody
     @GetMapping("/getAllProductCategories")
     public BaseResponse<List<ProductCategory>> getAllProductCategories() {
         List<ProductCategory> productCategories = productCategoryService.getAllProductCategories();
@@ -76,4 +82,14 @@ public class ProductCategoryController {
         log.info("分页查询商品分类: {}", productCategories);
         return BaseResponse.success(productCategories);
     }
+
+    @Operation(summary = "游标分页查询商品分类", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getProductCategoriesByCursor")
+    public BaseResponse<CursorPage<ProductCategory>> getProductCategoriesByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<ProductCategory> page = productCategoryService.getProductCategoriesByCursor(cursor, size, sortField);
+        log.info("游标分页查询商品分类: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.cows.controller.common;
 
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Product;
+import com.cows.search.ProductSuggester;
+import com.cows.search.SearchResult;
+import com.cows.search.Suggestion;
 import com.cows.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,7 +27,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSuggester productSuggester;
+
     @Operation(summary = "获取所有商品信息", description = "返回所有商品的列表")
+    @ConditionalGet(CatalogTable.PRODUCTS)
+    @CachedResponseBody
     @GetMapping("/getAllProducts")
     public BaseResponse<List<Product>> getAllProducts() {
         List<Product> products = productService.getAllProducts();
@@ -32,10 +44,29 @@ public class ProductController {
         @GetMapping("/getProductById/{id}")
     public BaseResponse<Product> getProductById(@Parameter(description = "商品ID", required = true) @PathVariable int id) {
         Product product = productService.getProductById(id);
+        if (product != null) {
+            productSuggester.recordView(id);
+        }
         log.info("通过ID获取商品信息: {}", product);
         return BaseResponse.success(product);
     }
 
+    @Operation(summary = "按分类获取商品", description = "返回指定分类下的所有商品")
+    @GetMapping("/getProductsByCategory/{categoryId}")
+    public BaseResponse<List<Product>> getProductsByCategory(@Parameter(description = "商品分类ID", required = true) @PathVariable int categoryId) {
+        List<Product> products = productService.getProductsByCategory(categoryId);
+        log.info("按分类获取商品: categoryId={}, 数量={}", categoryId, products.size());
+        return BaseResponse.success(products);
+    }
+
+    @Operation(summary = "按品牌获取商品", description = "返回指定品牌的所有商品，品牌名完全匹配")
+    @GetMapping("/getProductsByBrand")
+    public BaseResponse<List<Product>> getProductsByBrand(@Parameter(description = "品牌名", required = true) @RequestParam String brand) {
+        List<Product> products = productService.getProductsByBrand(brand);
+        log.info("按品牌获取商品: brand={}, 数量={}", brand, products.size());
+        return BaseResponse.success(products);
+    }
+
     @Operation(summary = "新增商品", description = "通过JSON数据新增商品")
     @PostMapping("/addProduct")
     public BaseResponse<String> addProduct(@Parameter(description = "商品数据", required = true) @RequestBody Product product) {
@@ -85,4 +116,40 @@ public class ProductController {
         log.info("搜索商品名称: {}", name);
         return BaseResponse.success(products);
     }
+
+    @Operation(summary = "全文搜索商品", description = "按名称关键词搜索商品，中文按相邻两字匹配，最后一个英文/数字词按前缀匹配，结果按相关度排序分页")
+    @GetMapping("/searchProducts")
+    public BaseResponse<SearchResult<Product>> searchProducts(@RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            SearchResult<Product> result = productService.searchProducts(keyword, page, size);
+            log.info("全文搜索商品: {}, 命中{}条", keyword, result.getTotal());
+            return BaseResponse.success(result);
+        } catch (IllegalArgumentException e) {
+            return (BaseResponse<SearchResult<Product>>) BaseResponse.error(400, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "搜索输入联想", description = "按前缀返回热度最高的商品名称、品牌和分类，支持拼音首字母，数据来自内存不查询数据库")
+    @GetMapping("/suggestProducts")
+    public BaseResponse<List<Suggestion>> suggestProducts(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return BaseResponse.success(productSuggester.suggest(prefix, limit));
+        } catch (IllegalArgumentException e) {
+            return (BaseResponse<List<Suggestion>>) BaseResponse.error(400, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "游标分页查询商品", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor；withTotal=true时附带总数（允许短时近似）")
+    @GetMapping("/getProductsByCursor")
+    public BaseResponse<CursorPage<Product>> getProductsByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<Product> page = productService.getProductsByCursor(cursor, size, sortField, withTotal);
+        log.info("游标分页查询商品: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
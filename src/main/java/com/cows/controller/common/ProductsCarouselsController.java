@@ -1,6 +1,10 @@
 package com.cows.controller.common;
 
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.dto.ProductsCarouselsDTO;
 import com.cows.entity.ProductsCarousels;
 import com.cows.service.ProductsCarouselsService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +24,7 @@ public class ProductsCarouselsController {
     private ProductsCarouselsService productsCarouselsService;
 
     @Operation(summary = "获取所有横向轮播图商品配置", description = "返回所有横向轮播图商品配置的列表")
+    @ConditionalGet(CatalogTable.PRODUCTS_CAROUSELS)
     @GetMapping("/getAllProductsCarousels")
     public BaseResponse<List<ProductsCarousels>> getAllProductsCarousels() {
         List<ProductsCarousels> productsCarousels = productsCarouselsService.getAllProductsCarousels();
@@ -35,6 +40,24 @@ public class ProductsCarouselsController {
         return BaseResponse.success(productsCarousels);
     }
 
+    @Operation(summary = "获取所有横向轮播图商品（含商品详情）", description = "返回所有横向轮播图配置，商品ID已批量回填为商品详情并保持配置顺序")
+    @ConditionalGet({CatalogTable.PRODUCTS_CAROUSELS, CatalogTable.PRODUCTS})
+    @CachedResponseBody
+    @GetMapping("/getAllProductsCarouselsHydrated")
+    public BaseResponse<List<ProductsCarouselsDTO>> getAllProductsCarouselsHydrated() {
+        List<ProductsCarouselsDTO> productsCarousels = productsCarouselsService.getAllProductsCarouselsHydrated();
+        log.info("获取所有横向轮播图商品（含商品详情）: 配置数={}", productsCarousels.size());
+        return BaseResponse.success(productsCarousels);
+    }
+
+    @Operation(summary = "通过ID获取横向轮播图商品（含商品详情）", description = "返回指定ID的横向轮播图配置，商品ID已批量回填为商品详情")
+    @GetMapping("/getProductsCarouselsHydratedById/{id}")
+    public BaseResponse<ProductsCarouselsDTO> getProductsCarouselsHydratedById(@Parameter(description = "配置ID", required = true) @PathVariable int id) {
+        ProductsCarouselsDTO productsCarousels = productsCarouselsService.getProductsCarouselsHydratedById(id);
+        log.info("通过ID获取横向轮播图商品（含商品详情）: {}", productsCarousels);
+        return BaseResponse.success(productsCarousels);
+    }
+
     @Operation(summary = "新增横向轮播图商品配置", description = "通过JSON数据新增横向轮播图商品配置")
     @PostMapping("/addProductsCarousels")
     public BaseResponse<String> addProductsCarousels(@Parameter(description = "横向轮播图商品配置数据", required = true) @RequestBody ProductsCarousels productsCarousels) {
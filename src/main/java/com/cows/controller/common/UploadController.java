@@ -1,21 +1,19 @@
 package com.cows.controller.common;
 
 import com.cows.commons.api.BaseResponse;
+import com.cows.service.FileUploadService;
+import com.cows.upload.FileNameIndex;
+import com.cows.upload.FileReferences;
+import com.cows.upload.StoredFile;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.security.Principal;
 
 
 /**
@@ -30,64 +28,67 @@ import java.util.UUID;
 @Schema(name="文件上传", description="文件上传")
 @Tag(name = "文件上传")
 public class UploadController {
-    private static final String UPLOAD_DIR = "./upload";
-    // 存储文件名映射关系：storageName -> originalName
-    private static final Map<String, String> FILE_NAME_MAPPING = new HashMap<>();
+    @Autowired
+    private FileUploadService fileUploadService;
 
-    @PostMapping("/upload")
-    public BaseResponse<String> handleFileUpload(@RequestParam("file") MultipartFile file, @RequestParam("userId") String userId) {
-        // 创建upload文件夹（如果不存在）
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new BaseResponse<>(1, "Failed to create upload directory", null);
-        }
-
-        String originalFilename = file.getOriginalFilename();
-        // 对原始文件名进行安全处理，移除可能导致文件系统错误的字符
-        String safeOriginalFilename = originalFilename.replaceAll("[^\\w.-]", "_");
-        String fileExtension = safeOriginalFilename.substring(safeOriginalFilename.lastIndexOf(".") + 1);
-        // 限制上传文件大小
-        if (file.getSize() > 1024 * 1024 * 5) {
-            return new BaseResponse<>(1, "File size too large", null);
-        }
-        // 限制上传文件格式（jpg、png、jpeg、bmp）
-        if (!"jpg".equals(fileExtension) && !"png".equals(fileExtension) && !"jpeg".equals(fileExtension) && !"bmp".equals(fileExtension)) {
-            return new BaseResponse<>(1, "Invalid file format", null);
-        }
+    // 存储文件名映射关系：storageName -> originalName，重启后仍然有效
+    @Autowired
+    private FileNameIndex fileNameIndex;
 
+    @PostMapping("/upload")
+    public BaseResponse<String> handleFileUpload(@RequestParam("file") MultipartFile file, @RequestParam("userId") String userId,
+                                                 Principal principal) {
         // 双文件名策略：storageName用于文件系统存储，displayName用于前端展示
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String storageName = userId + "_" + timestamp + "_" + UUID.randomUUID() + "." + fileExtension; // 安全存储名
-        String displayName = originalFilename; // 原始展示名
-
-        // 保存文件映射关系
-        FILE_NAME_MAPPING.put(storageName, displayName);
-        log.info("File upload mapping - storageName: {}, displayName: {}", storageName, displayName);
+        // 存储名由文件内容的SHA-256和文件头识别出的格式决定，相同内容的文件只保存一份
+        String displayName = file.getOriginalFilename(); // 原始展示名
 
-        // Save the file to the server using storageName
-        Path filePath = Paths.get(UPLOAD_DIR, storageName);
+        // 流式写入磁盘，同时校验大小和格式（jpg、png、bmp）
+        StoredFile storedFile;
         try {
-            Files.write(filePath, file.getBytes());
+            // 引用记在登录身份名下，userId是客户端传入的参数，只用于日志
+            storedFile = fileUploadService.store(file, principal == null ? FileReferences.UNOWNED : principal.getName());
+        } catch (IllegalArgumentException e) {
+            return new BaseResponse<>(1, e.getMessage(), null);
         } catch (IOException e) {
-            log.error("Failed to save file: {}", storageName, e);
-            FILE_NAME_MAPPING.remove(storageName); // 清理映射关系
+            log.error("Failed to save file uploaded by user: {}", userId, e);
             return new BaseResponse<>(1, "Failed to save file", null);
         }
+        String storageName = storedFile.getStorageName();
+
+        // 保存文件映射关系，内容相同的文件共用存储名，展示名保留第一次上传时的，后来的上传不能改掉别人的文件名
+        fileNameIndex.putIfAbsent(storageName, displayName);
+        log.info("File upload mapping - userId: {}, storageName: {}, displayName: {}, size: {}, deduplicated: {}",
+                userId, storageName, displayName, storedFile.getSize(), storedFile.isDeduplicated());
 
         return new BaseResponse<>(0, "File uploaded successfully", storageName);
     }
 
+    /**
+     * 释放当前登录身份上传得到的一次引用，所有引用都释放后删除文件；不能释放别人上传的引用
+     */
+    @PostMapping("/release")
+    public BaseResponse<Integer> releaseFile(@RequestParam("storageName") String storageName, Principal principal) throws IOException {
+        if (principal == null) {
+            return new BaseResponse<>(1, "Login required", null);
+        }
+        int remaining;
+        try {
+            remaining = fileUploadService.release(storageName, principal.getName());
+        } catch (IllegalArgumentException e) {
+            return new BaseResponse<>(1, e.getMessage(), null);
+        }
+        if (remaining == 0) {
+            fileNameIndex.remove(storageName);
+        }
+        return new BaseResponse<>(0, "Success", remaining);
+    }
+
     /**
      * 获取文件的原始展示名称
      */
     @GetMapping("/getDisplayName")
     public BaseResponse<String> getDisplayName(@RequestParam("storageName") String storageName) {
-        String displayName = FILE_NAME_MAPPING.get(storageName);
+        String displayName = fileNameIndex.get(storageName);
         if (displayName == null) {
             return new BaseResponse<>(1, "File not found", null);
         }
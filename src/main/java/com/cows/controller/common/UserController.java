@@ -4,6 +4,7 @@ import com.cows.dto.*;
 import com.cows.entity.User;
 import com.cows.service.UserService;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.dto.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -152,7 +153,7 @@ public class UserController {
         // 记录日志，输出更新的User对象的信息
         log.info("=======updateUser:{}", user);
         // 返回一个表示操作成功的BaseResponse对象
-        return BaseResponse.success(new UpdateUserResponseDTO(user.getId(), updates));
+        return BaseResponse.success(new UpdateUserResponseDTO(user.getId(), updates, user.getVersion()));
     }
 
     /**
@@ -219,6 +220,16 @@ public class UserController {
         return BaseResponse.success(userDTOs);
     }
 
+    @Operation(summary = "游标分页查询用户", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getUsersByCursor")
+    public BaseResponse<CursorPage<UserDTO>> getUsersByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<User> page = userService.getUsersByCursor(cursor, size, sortField);
+        List<UserDTO> userDTOs = page.getItems().stream().map(this::convertToDto).collect(Collectors.toList());
+        return BaseResponse.success(new CursorPage<>(userDTOs, page.getNextCursor(), page.isHasMore(), page.getTotal()));
+    }
+
 
     /**
      * dao 转 dto
@@ -230,6 +241,7 @@ public class UserController {
         userDto.setPassword(user.getPassword());
         userDto.setEnable(user.isEnable());
         userDto.setDeleted(user.isDeleted());
+        userDto.setVersion(user.getVersion());
         log.info("=======convertToDto:{}", userDto);
         return userDto;
     }
@@ -245,6 +257,7 @@ public class UserController {
         user.setPassword(userDto.getPassword());
         user.setEnable(userDto.isEnable());
         user.setDeleted(userDto.isDeleted());
+        user.setVersion(userDto.getVersion());
         log.info("=======convertToEntity:{}", user);
         return user;
     }
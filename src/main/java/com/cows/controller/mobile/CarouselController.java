@@ -1,6 +1,10 @@
 package com.cows.controller.mobile;
 
+import com.cows.cache.CachedResponseBody;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.ConditionalGet;
 import com.cows.commons.api.BaseResponse;
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Carousel;
 import com.cows.service.CarouselService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +27,8 @@ public class CarouselController {
     private CarouselService carouselService;
 
     @Operation(summary = "获取所有轮播图信息", description = "返回所有轮播图的列表")
+    @ConditionalGet(CatalogTable.CAROUSELS)
+    @CachedResponseBody
     @GetMapping("/getAllCarousels")
     public BaseResponse<List<Carousel>> getAllCarousels() {
         List<Carousel> carousels = carouselService.getAllCarousels();
@@ -74,4 +80,14 @@ public class CarouselController {
         log.info("分页查询轮播图: {}", carousels);
         return BaseResponse.success(carousels);
     }
+
+    @Operation(summary = "游标分页查询轮播图", description = "按排序字段和ID做键集分页，首页不传cursor，后续页传上一页返回的nextCursor")
+    @GetMapping("/getCarouselsByCursor")
+    public BaseResponse<CursorPage<Carousel>> getCarouselsByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sortField) {
+        CursorPage<Carousel> page = carouselService.getCarouselsByCursor(cursor, size, sortField);
+        log.info("游标分页查询轮播图: 本页{}条, hasMore={}", page.getItems().size(), page.isHasMore());
+        return BaseResponse.success(page);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.cows.datasource;
+
+/**
+ * 事务外执行的语句类型，由ReadWriteRoutingInterceptor在执行MyBatis语句期间设置
+ * 事务外每条语句单独获取连接，路由数据源据此把查询发往从库
+ */
+final class ReadHint {
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private ReadHint() {
+    }
+
+    static boolean isRead() {
+        return Boolean.TRUE.equals(READ.get());
+    }
+
+    /**
+     * @return 设置前的值，用于恢复
+     */
+    static Boolean set(boolean read) {
+        Boolean previous = READ.get();
+        READ.set(read);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+}
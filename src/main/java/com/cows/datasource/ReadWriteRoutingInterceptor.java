@@ -0,0 +1,48 @@
+package com.cows.datasource;
+
+import com.cows.util.TransactionUtil;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 标记MyBatis语句是查询还是写入
+ * 事务外的查询由此路由到从库；写语句记录到ReplicaRouter，事务提交后再记录一次，之后一段时间内的查询走主库
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    private final ReplicaRouter router;
+
+    public ReadWriteRoutingInterceptor(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        boolean read = "query".equals(invocation.getMethod().getName());
+        if (!read) {
+            router.markWrite();
+            TransactionUtil.afterCommit(router::markWrite);
+        }
+        Boolean previous = ReadHint.set(read);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadHint.restore(previous);
+        }
+    }
+}
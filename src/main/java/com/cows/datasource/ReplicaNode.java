@@ -0,0 +1,77 @@
+package com.cows.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 一个从库及其最近一次健康检查的结果
+ * 首次检查完成前视为不可用，查询走主库
+ */
+public class ReplicaNode {
+
+    /**
+     * 检查耗时的指数移动平均权重
+     */
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy;
+    /**
+     * 复制延迟（秒），未知时为-1
+     */
+    private volatile long lagSeconds = -1;
+    private volatile double latencyMs = Double.NaN;
+
+    public ReplicaNode(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * 记录一次成功的检查
+     * @param lagSeconds 复制延迟，-1表示复制未运行
+     */
+    public void checked(long lagSeconds, double elapsedMs) {
+        this.lagSeconds = lagSeconds;
+        double previous = latencyMs;
+        latencyMs = Double.isNaN(previous) ? elapsedMs : previous + LATENCY_WEIGHT * (elapsedMs - previous);
+        healthy = true;
+    }
+
+    /**
+     * 连接或检查失败，下次检查成功前不再使用
+     */
+    public void markDown() {
+        healthy = false;
+    }
+
+    public boolean isEligible(long maxLagSeconds) {
+        return healthy && lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+}
@@ -0,0 +1,144 @@
+package com.cows.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 决定一次取连接该走主库还是从库，以及走哪个从库
+ * 只读事务和事务外的查询走从库；读写事务、事务外的写语句、本节点刚写入后的一段时间内都走主库；
+ * 没有可用的从库（未检查、连接失败、复制停止或延迟过大）时回到主库
+ */
+@Slf4j
+public class ReplicaRouter {
+
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Master", "Seconds_Behind_Source"};
+
+    private final List<ReplicaNode> replicas;
+    private final RoutingDataSourceProperties properties;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long lastWriteAt;
+
+    public ReplicaRouter(List<ReplicaNode> replicas, RoutingDataSourceProperties properties) {
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+    }
+
+    /**
+     * 当前线程这次取连接是否可以走从库
+     */
+    public boolean isReadRoute() {
+        if (System.currentTimeMillis() - lastWriteAt < properties.getPrimaryAfterWriteMs()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return ReadHint.isRead();
+    }
+
+    /**
+     * @return 选中的从库，没有可用的从库时返回null
+     */
+    public ReplicaNode select() {
+        long maxLag = properties.getMaxLagSeconds();
+        if (properties.getSelection() == ReplicaSelection.LEAST_LATENCY) {
+            ReplicaNode best = null;
+            for (ReplicaNode replica : replicas) {
+                if (replica.isEligible(maxLag) && (best == null || replica.getLatencyMs() < best.getLatencyMs())) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isEligible(maxLag)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 记录本节点的一次写入，之后primary-after-write-ms内的查询走主库
+     */
+    public void markWrite() {
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 检查每个从库的连通性、复制延迟和响应耗时
+     */
+    @Scheduled(fixedDelayString = "${datasource.routing.check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            boolean wasEligible = replica.isEligible(properties.getMaxLagSeconds());
+            long start = System.nanoTime();
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+                replica.checked(lagOf(resultSet), (System.nanoTime() - start) / 1e6);
+            } catch (SQLException e) {
+                replica.markDown();
+                if (wasEligible) {
+                    log.warn("从库检查失败，查询改走其他从库或主库: {}, {}", replica.getName(), e.getMessage());
+                }
+                continue;
+            }
+            boolean eligible = replica.isEligible(properties.getMaxLagSeconds());
+            if (eligible != wasEligible) {
+                log.info("从库{}: {}, 复制延迟={}s", eligible ? "恢复使用" : "暂停使用", replica.getName(), replica.getLagSeconds());
+            }
+        }
+    }
+
+    /**
+     * 关闭各从库的连接池
+     */
+    public void close() {
+        for (ReplicaNode replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭从库连接池失败: {}, {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 复制延迟秒数，没有结果或复制未运行时返回-1
+     */
+    private static long lagOf(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return -1;
+        }
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    column = i;
+                }
+            }
+        }
+        Object value = resultSet.getObject(column);
+        return value instanceof Number number ? number.longValue() : -1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cows.datasource;
+
+/**
+ * 从库选择策略
+ */
+public enum ReplicaSelection {
+    /**
+     * 在可用的从库之间轮询
+     */
+    ROUND_ROBIN,
+    /**
+     * 选择最近几次健康检查平均耗时最短的从库
+     */
+    LEAST_LATENCY
+}
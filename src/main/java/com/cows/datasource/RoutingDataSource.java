@@ -0,0 +1,45 @@
+package com.cows.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 读写分离数据源，每次取连接时由ReplicaRouter决定走主库还是从库
+ * 必须包在LazyConnectionDataSourceProxy里使用：事务开始时还不知道是否只读，要推迟到执行第一条语句时才真正取连接
+ */
+@Slf4j
+public class RoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaRouter router;
+
+    public RoutingDataSource(DataSource primary, ReplicaRouter router) {
+        this.primary = primary;
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (router.isReadRoute()) {
+            ReplicaNode replica = router.select();
+            if (replica != null) {
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    replica.markDown();
+                    log.warn("从库取连接失败，改走主库: {}, {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("读写分离数据源不支持指定用户名和密码取连接");
+    }
+}
@@ -0,0 +1,57 @@
+package com.cows.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置
+ * 主库沿用 spring.datasource.*；开启后只读事务和事务外的查询发往从库，从库不可用或延迟过大时回到主库
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.routing")
+public class RoutingDataSourceProperties {
+    /**
+     * 关闭时不创建路由数据源，全部读写都走主库
+     */
+    private boolean enabled = false;
+    /**
+     * 从库选择策略
+     */
+    private ReplicaSelection selection = ReplicaSelection.ROUND_ROBIN;
+    /**
+     * 复制延迟超过这个秒数的从库不再接收查询
+     */
+    private long maxLagSeconds = 2;
+    /**
+     * 检查从库连通性和复制延迟的间隔（毫秒）
+     */
+    private long checkIntervalMs = 1000;
+    /**
+     * 本节点写入后这段时间内（毫秒）查询都走主库，保证刚写入的数据能马上读到，应大于正常的复制延迟
+     */
+    private long primaryAfterWriteMs = 3000;
+    /**
+     * 查询复制延迟的语句，返回 Seconds_Behind_Master（或 Seconds_Behind_Source）列，没有这两列时取第一列；
+     * 没有结果或值为null（复制未运行）的从库视为不可用。用H2等非MySQL实例代替从库时可以配置为 SELECT 0
+     */
+    private String lagQuery = "SHOW SLAVE STATUS";
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 从库连接配置
+     */
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cows.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 一张表的增量变更
+ * upserts为新增或修改的行，客户端按ID覆盖；deletedIds为已逻辑删除的行，客户端按ID删除
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeSet<T> {
+    private List<T> upserts;
+    private List<Integer> deletedIds;
+    /**
+     * 这张表本次没有返回完，需要用新令牌继续同步
+     */
+    private boolean hasMore;
+}
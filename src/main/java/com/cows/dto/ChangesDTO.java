@@ -0,0 +1,27 @@
+package com.cows.dto;
+
+import com.cows.entity.Brand;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import com.cows.entity.ProductsCarousels;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 目录数据的增量变更
+ * token为下次同步使用的令牌；hasMore为true时说明还有变更没有返回，客户端应立即用token继续请求
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangesDTO {
+    private ChangeSet<Product> products;
+    private ChangeSet<ProductCategory> productCategories;
+    private ChangeSet<Brand> brands;
+    private ChangeSet<Carousel> carousels;
+    private ChangeSet<ProductsCarousels> productsCarousels;
+    private String token;
+    private boolean hasMore;
+}
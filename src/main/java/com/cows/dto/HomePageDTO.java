@@ -0,0 +1,35 @@
+package com.cows.dto;
+
+import com.cows.entity.About;
+import com.cows.entity.BasicInformation;
+import com.cows.entity.Brand;
+import com.cows.entity.BrandAuthorizationCertificate;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 官网首页聚合数据，一次请求返回首页需要的全部栏目
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HomePageDTO {
+    private List<Carousel> carousels;
+    private List<ProductsCarouselsDTO> productsCarousels;
+    private List<ProductCategory> productCategories;
+    private List<Product> products;
+    private List<BasicInformation> basicInformation;
+    private List<About> abouts;
+    private List<BrandAuthorizationCertificate> certificates;
+    private List<Brand> brands;
+    /**
+     * 超时或出错的栏目名，这些栏目返回的是上次成功加载的数据（没有时为空列表）
+     */
+    private List<String> degradedSections;
+}
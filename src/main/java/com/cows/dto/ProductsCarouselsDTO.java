@@ -0,0 +1,41 @@
+package com.cows.dto;
+
+import com.cows.entity.Product;
+import com.cows.entity.ProductsCarousels;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 横向轮播图商品配置（已回填商品详情）
+ * products按配置中的商品ID顺序排列，已删除或不存在的商品会被跳过
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductsCarouselsDTO {
+    private int id;
+    private List<Product> products;
+    private String createTime;
+    private String updateTime;
+
+    /**
+     * 按配置中的商品ID顺序从productsById中取出商品回填，找不到的ID跳过
+     */
+    public static ProductsCarouselsDTO of(ProductsCarousels config, Map<Integer, Product> productsById) {
+        List<Product> products = new ArrayList<>();
+        if (config.getProducts() != null) {
+            for (int productId : config.getProducts()) {
+                Product product = productsById.get(productId);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+        }
+        return new ProductsCarouselsDTO(config.getId(), products, config.getCreateTime(), config.getUpdateTime());
+    }
+}
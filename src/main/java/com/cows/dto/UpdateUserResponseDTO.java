@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 public class UpdateUserResponseDTO {
     private int id;
     private int updates;
+    private Integer version;// 更新后的版本号
 
     // getters and setters
 }
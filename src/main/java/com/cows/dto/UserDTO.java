@@ -16,5 +16,9 @@ public class UserDTO {
     private boolean isEnable;
     @JsonProperty("isDeleted")
     private boolean isDeleted;
+    /**
+     * 读取时的版本号；更新时传入则只在版本未变时更新，不传则以最新版本为准覆盖
+     */
+    private Integer version;
     // 自动生成getter和setter方法
 }
\ No newline at end of file
@@ -35,6 +35,8 @@ public class User {
     @Schema(name = "isDeleted", description = "是否删除")
     private boolean isDeleted;
     private int updates;
+    @Schema(name = "version", description = "版本号，每次修改加1，用于乐观锁")
+    private Integer version;
     public User(int i, String 李银池, String number, int i1) {
     }
 
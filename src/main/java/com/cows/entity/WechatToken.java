@@ -0,0 +1,33 @@
+package com.cows.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一个微信用户的网页授权令牌，时间均为epoch秒
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WechatToken {
+    private String openid; // 用户的唯一标识
+    private String accessToken;
+    private long accessTokenExpiresAt; // accessToken的过期时间
+    private String refreshToken;
+    private long refreshTokenExpiresAt; // refreshToken的过期时间
+
+    /**
+     * @return accessToken剩余的有效秒数，已过期时为负数
+     */
+    public long accessTokenValidFor(long now) {
+        return accessTokenExpiresAt - now;
+    }
+
+    /**
+     * @return refreshToken剩余的有效秒数，已过期时为负数
+     */
+    public long refreshTokenValidFor(long now) {
+        return refreshTokenExpiresAt - now;
+    }
+}
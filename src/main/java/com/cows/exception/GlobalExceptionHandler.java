@@ -4,6 +4,7 @@ import com.cows.commons.api.BaseResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.platform.commons.logging.Logger;
 import org.junit.platform.commons.logging.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -29,6 +30,30 @@ public class GlobalExceptionHandler {
         return new BaseResponse(400, "缺少必要的请求参数");
     }
 
+    /**
+     * 分页或同步游标不合法，例如无法解析的游标、不支持的排序字段
+     * @param ex InvalidCursorException
+     * @return
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    public BaseResponse handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn("分页游标不合法，{}", ex.getMessage());
+        return new BaseResponse(400, ex.getMessage());
+    }
+
+    /**
+     * 乐观锁冲突：数据已被其他请求修改，客户端应重新读取后再提交
+     * @param ex OptimisticLockingFailureException
+     * @return
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(value = HttpStatus.CONFLICT)
+    public BaseResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        log.warn("数据已被修改，{}", ex.getMessage());
+        return new BaseResponse(409, ex.getMessage());
+    }
+
     /**
      * @Description 处理空指针异常
      * @param ex NullPointerException
@@ -0,0 +1,14 @@
+package com.cows.exception;
+
+/**
+ * 分页或同步请求的游标参数不合法：游标/令牌无法解析、与排序字段不匹配、排序字段不在白名单中、每页大小超出范围
+ * 由GlobalExceptionHandler映射为400，其他IllegalArgumentException仍按原来的方式处理
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 5029321650285839214L;
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cows.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按目标主机统计出站HTTP调用的耗时（到收到响应头为止）
+ * 注册为 http.client.outbound{host, method, status}，连接失败或超时的status为IO_ERROR；没有MeterRegistry时不统计
+ */
+public class OutboundHttpMetrics implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC_NAME = "http.client.outbound";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public OutboundHttpMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String host = request.getURI().getHost();
+            String outcome = status;
+            meterRegistry.ifAvailable(registry -> Timer.builder(METRIC_NAME)
+                    .tag("host", host == null ? "none" : host)
+                    .tag("method", request.getMethod().name())
+                    .tag("status", outcome)
+                    .description("出站HTTP调用耗时")
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.cows.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 出站HTTP调用（RestTemplate）的连接池和超时配置，对应 http.client.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http.client")
+public class OutboundHttpProperties {
+    /**
+     * 建立TCP连接的超时
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * 等待响应数据的超时（socket读超时）
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+    /**
+     * 连接池已满时等待空闲连接的超时
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    /**
+     * 连接池的总连接数
+     */
+    private int maxTotal = 200;
+    /**
+     * 每个目标主机的最大连接数
+     */
+    private int maxPerRoute = 20;
+    /**
+     * 空闲超过这个时间的连接被后台关闭，要小于对方服务器的keep-alive超时
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    /**
+     * 连接的最长存活时间，到期后不再复用，让DNS变更能够生效
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.About;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -17,4 +18,5 @@ public interface AboutMapper {
     int deleteAbout(int id);
     List<About> findAboutsPaged(@Param("offset") int offset, @Param("limit") int limit, @Param("sortField") String sortField);
     int countAllAbouts();
+    List<About> findAboutsAfter(KeysetQuery query);// 键集分页查询
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.Admin;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
@@ -16,4 +17,5 @@ public interface AdminMapper {
     @Select("SELECT COUNT(*) FROM Admins WHERE userName = #{userName}")
     int countByUserName(String userName); // 查询是否存在同名用户
     Admin findAdminByUserName(String userName); // 新增方法
+    List<Admin> findAdminsAfter(KeysetQuery query);// 键集分页查询
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.BasicInformation;
 import org.apache.ibatis.annotations.Mapper;
 import java.util.List;
@@ -12,4 +13,5 @@ public interface BasicInformationMapper {
     int updateBasicInformation(BasicInformation basicInformation); // 更新基本信息
     int deleteBasicInformation(Long id); // 删除基本信息，逻辑删除，将isDeleted字段设置为1
     List<BasicInformation> getAllBasicInformation(int offset, int limit, String sortField); // 分页查询基本信息
+    List<BasicInformation> findBasicInformationAfter(KeysetQuery query);// 键集分页查询
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.ChangeQuery;
 import com.cows.entity.Brand;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -18,4 +19,5 @@ public interface BrandMapper {
     List<Brand> findBrandsPaged(@Param("offset") int offset, @Param("limit") int limit, @Param("sortField") String sortField);
     Brand findBrandByName(@Param("name") String name); 
     List<Brand> searchBrandsByName(@Param("name") String name);
+    List<Brand> findBrandsChangedAfter(ChangeQuery query);// 增量同步查询，包括已逻辑删除的行
 }
\ No newline at end of file
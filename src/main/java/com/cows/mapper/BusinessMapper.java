@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.Business;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -17,5 +18,5 @@ public interface BusinessMapper {
     int deleteBusiness(int id);
     List<Business> findBusinessesPaged(@Param("offset") int offset, @Param("limit") int limit, @Param("sortField") String sortField);
     int countAllBusinesses();
-    List<Business> searchBusinessesByName(@Param("name") String name);
+    List<Business> findBusinessesAfter(KeysetQuery query);// 键集分页查询
 }
\ No newline at end of file
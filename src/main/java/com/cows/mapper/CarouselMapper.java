@@ -1,5 +1,7 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.ChangeQuery;
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.Carousel;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
@@ -15,4 +17,6 @@ public interface CarouselMapper {
     List<Carousel> getAllCarousels(int offset, int limit, String sortField);
     @Select("SELECT COUNT(*) FROM Carousels WHERE imageUrl = #{imageUrl}")
     int countByImageUrl(String imageUrl);
+    List<Carousel> findCarouselsAfter(KeysetQuery query);// 键集分页查询
+    List<Carousel> findCarouselsChangedAfter(ChangeQuery query);// 增量同步查询，包括已逻辑删除的行
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.cows.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+
+/**
+ * 目录类数据表的版本信息，表名只能来自 CatalogTable
+ * */
+@Mapper
+public interface CatalogVersionMapper {
+    Long countRows(@Param("table") String table);
+    Date findLastModified(@Param("table") String table);
+    String findTimeBefore(@Param("seconds") int seconds);// 数据库当前时间往前若干秒，格式与updateTime相同
+}
@@ -0,0 +1,14 @@
+package com.cows.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 按ID顺序分批读取数据表的全部ID，用于重建布隆过滤器，表名只能来自 IdFilterTable
+ * */
+@Mapper
+public interface EntityIdMapper {
+    List<Integer> findIdsAfter(@Param("table") String table, @Param("afterId") int afterId, @Param("limit") int limit);
+}
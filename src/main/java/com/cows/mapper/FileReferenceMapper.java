@@ -0,0 +1,13 @@
+package com.cows.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.List;
+
+/**
+ * 读取所有保存了上传文件地址的字段，用于重建上传文件的引用计数
+ * */
+@Mapper
+public interface FileReferenceMapper {
+    List<String> findAllFileReferences();
+}
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.Order;
 
 import java.util.List;
@@ -23,4 +24,5 @@ public interface OrderMapper {
     int deleteOrder(int id);// 删除
 
     List<Order> getAllOrders(int offset, int limit, String sortField);// 分页查询
-}
+    List<Order> findOrdersAfter(KeysetQuery query);// 键集分页查询
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.ChangeQuery;
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.ProductCategory;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -13,4 +15,6 @@ public interface ProductCategoryMapper {
     int updateProductCategory(ProductCategory productCategory);
     int deleteProductCategory(int id);
     List<ProductCategory> findProductCategoriesPaged(@Param("offset") int offset, @Param("limit") int limit, @Param("sortField") String sortField);
+    List<ProductCategory> findProductCategoriesAfter(KeysetQuery query);// 键集分页查询
+    List<ProductCategory> findProductCategoriesChangedAfter(ChangeQuery query);// 增量同步查询，包括已逻辑删除的行
 }
\ No newline at end of file
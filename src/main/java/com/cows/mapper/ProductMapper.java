@@ -1,8 +1,11 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.ChangeQuery;
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,5 +20,7 @@ public interface ProductMapper {
     int deleteProduct(int id);
     List<Product> findProductsPaged(@Param("offset") int offset, @Param("limit") int limit, @Param("sortField") String sortField);
     int countAllProducts();// 统计所有商品数量
-    List<Product> searchProductsByName(@Param("name") String name);// 根据商品名称搜索商品
+    List<Product> findProductsByIds(@Param("ids") Collection<Integer> ids);// 根据ID集合批量查询商品
+    List<Product> findProductsAfter(KeysetQuery query);// 键集分页查询
+    List<Product> findProductsChangedAfter(ChangeQuery query);// 增量同步查询，包括已逻辑删除的行
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.ChangeQuery;
 import com.cows.entity.ProductsCarousels;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Result;
@@ -15,4 +16,5 @@ public interface ProductsCarouselsMapper {
     int insertProductsCarousels(ProductsCarousels productsCarousels);
     int updateProductsCarousels(ProductsCarousels productsCarousels);
     int deleteProductsCarousels(int id);
+    List<ProductsCarousels> findProductsCarouselsChangedAfter(ChangeQuery query);// 增量同步查询，包括已逻辑删除的行
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.cows.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 上传文件名映射
+ * */
+@Mapper
+public interface UploadFileNameMapper {
+    String findDisplayName(String storageName);
+    int upsertFileName(@Param("storageName") String storageName, @Param("displayName") String displayName);
+    int insertFileNameIfAbsent(@Param("storageName") String storageName, @Param("displayName") String displayName);// 已存在时不修改
+    int deleteFileName(String storageName);
+}
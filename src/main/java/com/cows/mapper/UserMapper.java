@@ -1,5 +1,6 @@
 package com.cows.mapper;
 
+import com.cows.commons.page.KeysetQuery;
 import com.cows.entity.User;
 
 import java.util.List;
@@ -21,9 +22,12 @@ public interface UserMapper {
 
     int insertUser(User user);
 
+    int upsertWechatUser(User user);// 按openid插入，已存在时返回已有用户的ID
+
     int updateUser(User user);
 
     int deleteUser(int id);
     // 分页查询
     List<User> getAllUsers(int offset, int limit, String sortField);
-}
+    List<User> findUsersAfter(KeysetQuery query);// 键集分页查询
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.cows.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP Range 请求中的一个字节区间，start 和 end 都包含在内
+ */
+@Data
+@AllArgsConstructor
+public class ByteRange {
+
+    private long start;
+    private long end;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long fileLength) {
+        return "bytes " + start + "-" + end + "/" + fileLength;
+    }
+
+    /**
+     * 解析 Range 请求头，只支持 bytes 单位
+     * 形如 "bytes=0-499,1000-,-500"，超出文件末尾的部分截断，完全在文件之外的区间丢弃
+     * @param header     Range 请求头
+     * @param fileLength 文件长度
+     * @return 语法不合法或单位不支持时返回null（按规范应忽略Range返回整个文件）；没有可满足的区间时返回空列表（应返回416）
+     */
+    public static List<ByteRange> parse(String header, long fileLength) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String part : header.substring("bytes=".length()).split(",")) {
+            String spec = part.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            try {
+                if (first.isEmpty()) {
+                    // 后缀形式：最后N个字节
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(fileLength - suffix, 0);
+                    end = fileLength - 1;
+                } else {
+                    start = Long.parseLong(first);
+                    end = last.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(last), fileLength - 1);
+                    if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                        return null;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (start < fileLength && start <= end) {
+                ranges.add(new ByteRange(start, end));
+            }
+        }
+        return ranges;
+    }
+}
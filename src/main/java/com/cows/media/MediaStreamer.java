@@ -0,0 +1,223 @@
+package com.cows.media;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 音视频文件的流式输出，支持 HTTP Range（单区间和多区间 206、416）和 If-Range
+ * 文件从磁盘上的媒体目录读取（启动时把 classpath:media/ 中缺少的文件解压过去），Content-Type 按文件名判断；
+ * 单区间和整个文件在 Tomcat 支持时交给 sendfile 由内核直接发送，否则用 FileChannel.transferTo 写出
+ */
+@Slf4j
+@Component
+public class MediaStreamer {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 区间数超过这个值时忽略Range返回整个文件，避免大量碎片区间放大请求
+     */
+    private static final int MAX_RANGES = 16;
+
+    @Value("${media.dir:./media}")
+    private String mediaDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = getMediaDir();
+        Files.createDirectories(dir);
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:media/*")) {
+            String filename = resource.getFilename();
+            if (filename == null || !resource.isReadable()) {
+                continue;
+            }
+            Path target = dir.resolve(filename);
+            if (!Files.exists(target)) {
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, target);
+                }
+                log.info("媒体文件已解压到磁盘: {}", target);
+            }
+        }
+    }
+
+    public Path getMediaDir() {
+        return Paths.get(mediaDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param filename   媒体目录下的文件名
+     * @param attachment true为下载（attachment），false为在线播放（inline）
+     */
+    public void stream(String filename, boolean attachment, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(filename);
+        if (file == null) {
+            log.error("File not found: {}", filename);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder(attachment ? "attachment" : "inline")
+                        .filename(file.getFileName().toString(), StandardCharsets.UTF_8).build().toString());
+
+        List<ByteRange> ranges = rangesOf(request, length, lastModified);
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        try {
+            if (ranges == null) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(contentType);
+                send(request, response, file, 0, length);
+            } else if (ranges.size() == 1) {
+                ByteRange range = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(contentType);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(length));
+                send(request, response, file, range.getStart(), range.length());
+            } else {
+                sendMultipart(request, response, file, contentType, length, ranges);
+            }
+        } catch (IOException e) {
+            // 播放器拖动进度条时会主动断开连接，属于正常情况
+            log.debug("Media streaming aborted: {}, {}", filename, e.getMessage());
+        }
+    }
+
+    /**
+     * 文件名只能指向媒体目录内的普通文件
+     */
+    private Path resolve(String filename) {
+        Path dir = getMediaDir();
+        Path file = dir.resolve(filename).normalize();
+        if (!file.startsWith(dir) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * @return null表示返回整个文件，空列表表示416
+     */
+    private static List<ByteRange> rangesOf(HttpServletRequest request, long length, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        // If-Range 与当前文件的修改时间不一致时说明客户端缓存的是旧文件，返回整个文件
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                return null;
+            }
+            try {
+                if (request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 != lastModified / 1000) {
+                    return null;
+                }
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        List<ByteRange> ranges = ByteRange.parse(header, length);
+        if (ranges != null && ranges.size() > MAX_RANGES) {
+            return null;
+        }
+        return ranges;
+    }
+
+    private static void send(HttpServletRequest request, HttpServletResponse response, Path file,
+                             long start, long length) throws IOException {
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void sendMultipart(HttpServletRequest request, HttpServletResponse response, Path file,
+                                      String contentType, long length, List<ByteRange> ranges) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[ranges.size()][];
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long contentLength = end.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + range.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + range.length();
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders[i]);
+                transfer(channel, ranges.get(i).getStart(), ranges.get(i).length(), target);
+            }
+        }
+        out.write(end);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+}
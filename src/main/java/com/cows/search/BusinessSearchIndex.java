@@ -0,0 +1,32 @@
+package com.cows.search;
+
+import com.cows.entity.Business;
+import com.cows.mapper.BusinessMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 招商加盟名称搜索索引
+ */
+@Component
+public class BusinessSearchIndex extends EntitySearchIndex<Business> {
+
+    @Autowired
+    private BusinessMapper businessMapper;
+
+    public BusinessSearchIndex() {
+        super("招商加盟", Business::getId, Business::getName);
+    }
+
+    @Override
+    protected List<Business> loadAll() {
+        return businessMapper.findAllBusinesses();
+    }
+
+    @Override
+    protected Business loadById(int id) {
+        return businessMapper.findBusinessById(id);
+    }
+}
@@ -0,0 +1,92 @@
+package com.cows.search;
+
+import com.cows.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 实体搜索索引的公共部分
+ * 启动完成后从数据库全量加载一次；之后由服务层的增删改在事务提交后增量更新；
+ * 另外定时全量重建，用来同步其他节点写入的数据以及补上增量更新失败的条目
+ */
+@Slf4j
+public abstract class EntitySearchIndex<T> {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final String name;
+    private final InvertedIndex<T> index;
+
+    protected EntitySearchIndex(String name, ToIntFunction<T> idOf, Function<T, String> textOf) {
+        this.name = name;
+        this.index = new InvertedIndex<>(idOf, textOf);
+    }
+
+    /**
+     * 读取全部未删除的实体
+     */
+    protected abstract List<T> loadAll();
+
+    /**
+     * 按ID读取未删除的实体，不存在或已删除时返回null
+     */
+    protected abstract T loadById(int id);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.rebuild-interval-ms:600000}", fixedDelayString = "${search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            index.replaceAll(loadAll());
+            log.info("{}搜索索引重建完成: 文档数={}, 耗时={}ms", name, index.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("{}搜索索引重建失败，继续使用旧索引", name, e);
+        }
+    }
+
+    /**
+     * 实体新增或修改后调用，事务提交后重新读取该实体并更新索引
+     */
+    public void refresh(int id) {
+        TransactionUtil.afterCommit(() -> {
+            T entity = loadById(id);
+            if (entity == null) {
+                index.remove(id);
+            } else {
+                index.put(entity);
+            }
+        });
+    }
+
+    /**
+     * 实体删除后调用，事务提交后从索引中移除
+     */
+    public void remove(int id) {
+        TransactionUtil.afterCommit(() -> index.remove(id));
+    }
+
+    /**
+     * @param keyword 关键词
+     * @param page    页码，从0开始
+     * @param size    每页条数
+     */
+    public SearchResult<T> search(String keyword, int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("页码不能为负数，每页大小必须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+        return index.search(keyword, page, size);
+    }
+
+    /**
+     * 返回全部命中结果，按相关度排序
+     */
+    public List<T> searchAll(String keyword) {
+        return index.search(keyword, 0, Integer.MAX_VALUE).getItems();
+    }
+}
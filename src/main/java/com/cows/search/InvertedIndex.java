@@ -0,0 +1,211 @@
+package com.cows.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 内存倒排索引
+ * 词典用TreeMap保存，支持对最后一个字母数字词做前缀匹配；多个查询词之间是"与"的关系，
+ * 相关度为各词 idf × 词频 之和，名称与查询完全相同或以查询开头的文档额外加分
+ * 读多写少，用读写锁保护；全量重建时先在锁外建好新索引再整体替换
+ */
+public class InvertedIndex<T> {
+
+    private static final double EXACT_BONUS = 10.0;
+    private static final double PREFIX_BONUS = 5.0;
+
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> textOf;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Integer, Entry<T>> docs = new HashMap<>();
+    private TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+
+    public InvertedIndex(ToIntFunction<T> idOf, Function<T, String> textOf) {
+        this.idOf = idOf;
+        this.textOf = textOf;
+    }
+
+    /**
+     * 新增或替换一个文档
+     */
+    public void put(T doc) {
+        Entry<T> entry = analyze(doc);
+        lock.writeLock().lock();
+        try {
+            removeLocked(entry.id);
+            addLocked(docs, postings, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 用给定的全部文档重建索引
+     */
+    public void replaceAll(Collection<T> all) {
+        Map<Integer, Entry<T>> newDocs = new HashMap<>(all.size() * 2);
+        TreeMap<String, Map<Integer, Integer>> newPostings = new TreeMap<>();
+        for (T doc : all) {
+            addLocked(newDocs, newPostings, analyze(doc));
+        }
+        lock.writeLock().lock();
+        try {
+            docs = newDocs;
+            postings = newPostings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query 查询文本
+     * @param page  页码，从0开始
+     * @param size  每页条数
+     */
+    public SearchResult<T> search(String query, int page, int size) {
+        List<SearchTokenizer.Token> tokens = SearchTokenizer.queryTokens(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult<>(0, page, size, Collections.emptyList());
+        }
+        String normalizedQuery = SearchTokenizer.normalize(query);
+        lock.readLock().lock();
+        try {
+            int docCount = Math.max(docs.size(), 1);
+            Map<Integer, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                SearchTokenizer.Token token = tokens.get(i);
+                boolean prefix = i == tokens.size() - 1 && !token.isCjk();
+                Map<Integer, Double> termScores = scoreTerm(token.getTerm(), prefix, docCount);
+                scores = scores == null ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<Integer, Double> hit : scores.entrySet()) {
+                String text = docs.get(hit.getKey()).text;
+                double bonus = text.equals(normalizedQuery) ? EXACT_BONUS
+                        : text.startsWith(normalizedQuery) ? PREFIX_BONUS : 0;
+                ranked.add(Map.entry(hit.getKey(), hit.getValue() + bonus));
+            }
+            ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<T> items = new ArrayList<>();
+            long offset = (long) page * size;
+            for (long i = offset; i < ranked.size() && items.size() < size; i++) {
+                items.add(docs.get(ranked.get((int) i).getKey()).doc);
+            }
+            return new SearchResult<>(ranked.size(), page, size, items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 单个查询词命中的文档及得分，前缀匹配时合并所有以该词开头的词
+     */
+    private Map<Integer, Double> scoreTerm(String term, boolean prefix, int docCount) {
+        Map<String, Map<Integer, Integer>> matched = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Collections.emptyMap();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map<Integer, Integer> posting : matched.values()) {
+            double idf = Math.log(1.0 + (double) docCount / posting.size());
+            for (Map.Entry<Integer, Integer> e : posting.entrySet()) {
+                scores.merge(e.getKey(), idf * e.getValue(), Double::sum);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Integer, Double> intersect(Map<Integer, Double> a, Map<Integer, Double> b) {
+        Map<Integer, Double> small = a.size() <= b.size() ? a : b;
+        Map<Integer, Double> large = small == a ? b : a;
+        Map<Integer, Double> result = new HashMap<>();
+        for (Map.Entry<Integer, Double> e : small.entrySet()) {
+            Double other = large.get(e.getKey());
+            if (other != null) {
+                result.put(e.getKey(), e.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private Entry<T> analyze(T doc) {
+        String text = textOf.apply(doc);
+        Map<String, Integer> termFreq = new HashMap<>();
+        for (SearchTokenizer.Token token : SearchTokenizer.indexTokens(text)) {
+            termFreq.merge(token.getTerm(), 1, Integer::sum);
+        }
+        return new Entry<>(idOf.applyAsInt(doc), doc, SearchTokenizer.normalize(text), termFreq);
+    }
+
+    private static <T> void addLocked(Map<Integer, Entry<T>> docs, TreeMap<String, Map<Integer, Integer>> postings,
+                                      Entry<T> entry) {
+        docs.put(entry.id, entry);
+        for (Map.Entry<String, Integer> e : entry.termFreq.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(entry.id, e.getValue());
+        }
+    }
+
+    private void removeLocked(int id) {
+        Entry<T> old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.termFreq.keySet()) {
+            Map<Integer, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final int id;
+        private final T doc;
+        private final String text;
+        private final Map<String, Integer> termFreq;
+
+        private Entry(int id, T doc, String text, Map<String, Integer> termFreq) {
+            this.id = id;
+            this.doc = doc;
+            this.text = text;
+            this.termFreq = termFreq;
+        }
+    }
+}
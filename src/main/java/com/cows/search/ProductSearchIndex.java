@@ -0,0 +1,32 @@
+package com.cows.search;
+
+import com.cows.entity.Product;
+import com.cows.mapper.ProductMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 商品名称搜索索引
+ */
+@Component
+public class ProductSearchIndex extends EntitySearchIndex<Product> {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    public ProductSearchIndex() {
+        super("商品", Product::getId, Product::getName);
+    }
+
+    @Override
+    protected List<Product> loadAll() {
+        return productMapper.findAllProducts();
+    }
+
+    @Override
+    protected Product loadById(int id) {
+        return productMapper.findProductById(id);
+    }
+}
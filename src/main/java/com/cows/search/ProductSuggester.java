@@ -0,0 +1,179 @@
+package com.cows.search;
+
+import cn.hutool.extra.pinyin.PinyinUtil;
+import com.cows.entity.Brand;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import com.cows.mapper.BrandMapper;
+import com.cows.mapper.ProductCategoryMapper;
+import com.cows.mapper.ProductMapper;
+import com.cows.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 商品搜索框的输入联想
+ * 建议来源为商品名称、品牌（品牌表和商品上的品牌）和分类名称，可以用原文或拼音首字母的前缀匹配（如 "ydx" 匹配 "运动鞋"）
+ * 热度 = 关联商品数 + 关联商品的详情浏览次数；前缀树在后台线程重建后整体替换，查询不访问数据库
+ * 商品、分类和品牌的增删改都要调用 requestRebuild
+ */
+@Slf4j
+@Component
+public class ProductSuggester {
+
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductCategoryMapper productCategoryMapper;
+
+    @Autowired
+    private BrandMapper brandMapper;
+
+    private final AtomicReference<SuggestTrie> trie = new AtomicReference<>(SuggestTrie.empty());
+    private final Map<Integer, LongAdder> views = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param prefix 用户已输入的内容
+     * @param limit  返回条数
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("返回条数必须在1到" + MAX_LIMIT + "之间");
+        }
+        return trie.get().suggest(SearchTokenizer.normalize(prefix), limit);
+    }
+
+    /**
+     * 记录一次商品详情浏览，下次重建时计入热度
+     */
+    public void recordView(int productId) {
+        views.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * 请求后台重建，有事务时在提交后才开始；重建尚未开始时的多次请求合并为一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.rebuild-interval-ms:600000}", fixedDelayString = "${search.rebuild-interval-ms:600000}")
+    public void requestRebuild() {
+        TransactionUtil.afterCommit(() -> {
+            if (rebuildPending.compareAndSet(false, true)) {
+                rebuildExecutor.execute(this::rebuild);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long start = System.currentTimeMillis();
+        try {
+            SuggestTrie built = build(productMapper.findAllProducts(), productCategoryMapper.findAllProductCategories(),
+                    brandMapper.findAllBrands());
+            trie.set(built);
+            log.info("商品搜索建议重建完成: 建议数={}, 耗时={}ms", built.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("商品搜索建议重建失败，继续使用旧数据", e);
+        }
+    }
+
+    private SuggestTrie build(List<Product> products, List<ProductCategory> categories, List<Brand> brands) {
+        Map<Integer, String> categoryNames = new HashMap<>();
+        for (ProductCategory category : categories) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+
+        // 同一类型下文本相同的建议合并，热度累加
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        // 还没有商品的品牌也给出建议
+        for (Brand brand : brands) {
+            merge(merged, brand.getName(), Suggestion.TYPE_BRAND, 1);
+        }
+        for (Product product : products) {
+            LongAdder viewCount = views.get(product.getId());
+            long weight = 1 + (viewCount == null ? 0 : viewCount.sum());
+            merge(merged, product.getName(), Suggestion.TYPE_PRODUCT, weight);
+            merge(merged, product.getBrand(), Suggestion.TYPE_BRAND, weight);
+            merge(merged, categoryNames.get(product.getCategoryId()), Suggestion.TYPE_CATEGORY, weight);
+        }
+
+        SuggestTrie.Builder builder = SuggestTrie.builder(MAX_LIMIT);
+        for (Suggestion suggestion : merged.values()) {
+            builder.add(suggestion, keysOf(suggestion.getText()));
+        }
+        return builder.build();
+    }
+
+    private static void merge(Map<String, Suggestion> merged, String text, String type, long weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String trimmed = text.trim();
+        merged.merge(type + ':' + SearchTokenizer.normalize(trimmed), new Suggestion(trimmed, type, weight),
+                (a, b) -> {
+                    a.setWeight(a.getWeight() + b.getWeight());
+                    return a;
+                });
+    }
+
+    /**
+     * 可匹配的键：全称、从每个空格后开始的后缀（"air" 可匹配 "nike air"）、拼音首字母
+     */
+    private static Set<String> keysOf(String text) {
+        String normalized = SearchTokenizer.normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            String suffix = normalized.substring(i + 1).trim();
+            if (!suffix.isEmpty()) {
+                keys.add(suffix);
+            }
+        }
+        StringBuilder initials = new StringBuilder();
+        boolean hasChinese = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (PinyinUtil.isChinese(c)) {
+                initials.append(Character.toLowerCase(PinyinUtil.getFirstLetter(c)));
+                hasChinese = true;
+            } else if (Character.isLetterOrDigit(c)) {
+                initials.append(c);
+            }
+        }
+        if (hasChinese) {
+            keys.add(initials.toString());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cows.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 搜索结果，items按相关度从高到低排列
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResult<T> {
+    /**
+     * 命中的总条数
+     */
+    private int total;
+    private int page;
+    private int size;
+    private List<T> items;
+}
@@ -0,0 +1,112 @@
+package com.cows.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词
+ * 连续的字母数字作为一个词；中日韩文字没有空格分隔，按相邻两字切分（bigram），
+ * 建索引时额外收录单字，保证只输入一个汉字也能命中
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 统一全角/半角和大小写
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * 建索引用的词：字母数字词 + 汉字单字 + 汉字bigram
+     */
+    public static List<Token> indexTokens(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询用的词：字母数字词 + 汉字bigram（只有一个汉字时用单字）
+     */
+    public static List<Token> queryTokens(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<Token> tokenize(String text, boolean forIndex) {
+        String normalized = normalize(text);
+        List<Token> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        List<String> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(new String(Character.toChars(codePoint)));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, forIndex);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, forIndex);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, forIndex);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<Token> tokens) {
+        if (word.length() > 0) {
+            tokens.add(new Token(word.toString(), false));
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<String> run, List<Token> tokens, boolean forIndex) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (forIndex || run.size() == 1) {
+            for (String ch : run) {
+                tokens.add(new Token(ch, true));
+            }
+        }
+        for (int j = 0; j + 1 < run.size(); j++) {
+            tokens.add(new Token(run.get(j) + run.get(j + 1), true));
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Token {
+        /**
+         * 词
+         */
+        private final String term;
+        /**
+         * 是否为中日韩文字切出的词，这类词不做前缀匹配
+         */
+        private final boolean cjk;
+    }
+}
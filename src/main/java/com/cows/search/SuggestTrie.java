@@ -0,0 +1,158 @@
+package com.cows.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 只读的前缀树，每个节点预先算好该前缀下热度最高的 topK 条建议，查询只需沿前缀走到节点直接返回
+ * 子节点用有序的 char[] + 数组保存并二分查找，不为每个节点创建HashMap；构建完成后不再修改，可被多个线程同时读取
+ */
+public final class SuggestTrie {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    private final Node root;
+    private final Suggestion[] suggestions;
+
+    private SuggestTrie(Node root, Suggestion[] suggestions) {
+        this.root = root;
+        this.suggestions = suggestions;
+    }
+
+    public static SuggestTrie empty() {
+        return new SuggestTrie(new Node(), new Suggestion[0]);
+    }
+
+    /**
+     * @param prefix 已规范化的前缀
+     * @param limit  最多返回的条数，不超过构建时的topK
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        int n = Math.min(limit, node.top.length);
+        List<Suggestion> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(suggestions[node.top[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    public static Builder builder(int topK) {
+        return new Builder(topK);
+    }
+
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int[] top = NO_IDS;
+        /**
+         * 仅在构建期间使用：该前缀下的全部建议ID，build后置为null
+         */
+        private List<Integer> candidates;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node created = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newLabels[at] = c;
+            newChildren[at] = created;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            labels = newLabels;
+            children = newChildren;
+            return created;
+        }
+    }
+
+    public static final class Builder {
+        private final int topK;
+        private final Node root = new Node();
+        private final List<Suggestion> suggestions = new ArrayList<>();
+
+        private Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * 登记一条建议及其可被匹配的若干个键（已规范化），同一建议可以有多个键，例如全称和拼音首字母
+         */
+        public Builder add(Suggestion suggestion, Iterable<String> keys) {
+            int id = suggestions.size();
+            suggestions.add(suggestion);
+            for (String key : keys) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.childOrCreate(key.charAt(i));
+                    addCandidate(node, id);
+                }
+            }
+            return this;
+        }
+
+        public SuggestTrie build() {
+            Comparator<Integer> byWeight = Comparator.<Integer>comparingLong(id -> suggestions.get(id).getWeight())
+                    .reversed()
+                    .thenComparing(id -> suggestions.get(id).getText());
+            finish(root, byWeight);
+            return new SuggestTrie(root, suggestions.toArray(new Suggestion[0]));
+        }
+
+        private void addCandidate(Node node, int id) {
+            if (node.candidates == null) {
+                node.candidates = new ArrayList<>(1);
+            }
+            node.candidates.add(id);
+        }
+
+        /**
+         * 把每个节点收集到的建议去重、按热度排序后截断为topK
+         */
+        private void finish(Node node, Comparator<Integer> byWeight) {
+            if (node.candidates != null) {
+                List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(node.candidates));
+                ids.sort(byWeight);
+                int n = Math.min(topK, ids.size());
+                int[] top = new int[n];
+                for (int i = 0; i < n; i++) {
+                    top[i] = ids.get(i);
+                }
+                node.top = top;
+                node.candidates = null;
+            }
+            for (Node child : node.children) {
+                finish(child, byWeight);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cows.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索建议
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Suggestion {
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_BRAND = "brand";
+    public static final String TYPE_CATEGORY = "category";
+
+    /**
+     * 展示给用户的原始文本
+     */
+    private String text;
+    /**
+     * 来源：product / brand / category
+     */
+    private String type;
+    /**
+     * 热度，越大越靠前
+     */
+    private long weight;
+}
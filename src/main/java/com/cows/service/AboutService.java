@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.About;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -15,4 +16,5 @@ public interface AboutService {
     int updateAbout(About about);
     int deleteAbout(int id);
     Map<String, Object> getAboutsPaged(int page, int size, String sortField);
+    CursorPage<About> getAboutsByCursor(String cursor, int size, String sortField, boolean withTotal);// 键集分页查询
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Admin;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -15,4 +16,5 @@ public interface AdminService {
     List<Admin> getAllAdmins(int page, int size, String sortField);
     Admin login(String userName, String password);
     void logout();
+    CursorPage<Admin> getAdminsByCursor(String cursor, int size, String sortField);// 键集分页查询
 }
\ No newline at end of file
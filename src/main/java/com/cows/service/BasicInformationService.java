@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.BasicInformation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -11,4 +12,5 @@ public interface BasicInformationService {
     int updateBasicInformation(BasicInformation basicInformation);
     int deleteBasicInformation(Long id);
     List<BasicInformation> getAllBasicInformation(int page, int size, String sortField); // 分页查询基本信息
+    CursorPage<BasicInformation> getBasicInformationByCursor(String cursor, int size, String sortField);// 键集分页查询
 }
\ No newline at end of file
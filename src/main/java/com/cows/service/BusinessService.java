@@ -1,6 +1,8 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Business;
+import com.cows.search.SearchResult;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Map;
@@ -16,4 +18,6 @@ public interface BusinessService {
     int deleteBusiness(int id);
     Map<String, Object> getBusinessesPaged(int page, int size, String sortField);
     List<Business> searchBusinessesByName(String name);
+    SearchResult<Business> searchBusinesses(String keyword, int page, int size);// 全文搜索，按相关度排序分页
+    CursorPage<Business> getBusinessesByCursor(String cursor, int size, String sortField, boolean withTotal);// 键集分页查询
 }
\ No newline at end of file
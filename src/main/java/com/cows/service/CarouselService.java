@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Carousel;
 import java.util.List;
 
@@ -10,4 +11,5 @@ public interface CarouselService {
     int updateCarousel(Carousel carousel);
     int deleteCarousel(int id);
     List<Carousel> getAllCarousels(int page, int size, String sortField);
+    CursorPage<Carousel> getCarouselsByCursor(String cursor, int size, String sortField);// 键集分页查询
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.cows.service;
+
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.CatalogVersion;
+import com.cows.mapper.CatalogVersionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+
+/**
+ * 目录数据的版本号，用于HTTP条件请求
+ * 版本由表的行数 COUNT(*)、MAX(updateTime) 和Redis中的写入代数混合而成：MAX(updateTime) 走 idx_updateTime 只读一行，
+ * COUNT(*) 是不加锁的一致性读，不像 CHECKSUM TABLE 那样扫全表并阻塞写入；行数补上物理删除（不更新updateTime）的情况。
+ * updateTime只精确到秒，同一秒内不改变行数的两次修改前两项都不变，所以每次通过本应用写入提交后都把表的写入代数加1（changed），
+ * 这样的修改也会得到新的版本。
+ * 版本各节点上一致，负载均衡到不同节点也能命中304；结果在本地缓存几秒，挡住客户端轮询的请求峰值。
+ * Redis不可用时代数按0计算，只会多返回200，不会把修改后的数据当作未修改；绕过应用直接改库仍只能靠行数和修改时间发现
+ */
+@Slf4j
+@Service
+public class CatalogVersionService {
+
+    @Value("${catalog.version.generation-key-prefix:catalog:generation:}")
+    private String generationKeyPrefix;
+
+    @Autowired
+    private CatalogVersionMapper catalogVersionMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 多张表的版本合并为一个：版本值按顺序混合，修改时间取最大值
+     */
+    public CatalogVersion versionOf(CatalogTable... tables) {
+        long checksum = 17;
+        long lastModified = 0;
+        for (CatalogTable table : tables) {
+            CatalogVersion version = versionOf(table);
+            checksum = checksum * 31 + version.getChecksum();
+            lastModified = Math.max(lastModified, version.getLastModified());
+        }
+        return new CatalogVersion(checksum, lastModified);
+    }
+
+    /**
+     * @return 形如 "1a2b3c" 的强ETag
+     */
+    public String etagOf(CatalogVersion version) {
+        return "\"" + Long.toHexString(version.getChecksum()) + "\"";
+    }
+
+    /**
+     * @return 单张表当前的版本值（同样有秒级缓存）
+     */
+    public long checksumOf(CatalogTable table) {
+        return versionOf(table).getChecksum();
+    }
+
+    /**
+     * @return 本节点缓存中单张表的版本值，缓存中没有时返回null，不查询数据库
+     */
+    public Long cachedChecksumOf(CatalogTable table) {
+        CatalogVersion version = cacheManager.getCache(CacheNames.CATALOG_VERSIONS).get(table.name(), CatalogVersion.class);
+        return version == null ? null : version.getChecksum();
+    }
+
+    /**
+     * 目录数据写入提交后调用（不要在事务中调用）：表的写入代数加1，并丢弃本节点缓存的表版本
+     * 先提交再加代数：读到新代数的请求一定也读到新数据，不会把旧数据缓存在新版本下；
+     * 其他节点在本地缓存的版本过期（几秒）后读到新的代数
+     */
+    public void changed(CatalogTable... tables) {
+        for (CatalogTable table : tables) {
+            try {
+                stringRedisTemplate.opsForValue().increment(generationKeyPrefix + table.name());
+            } catch (Exception e) {
+                log.warn("增加目录表写入代数失败: {}, {}", table, e.getMessage());
+            }
+        }
+        invalidate(tables);
+    }
+
+    /**
+     * 立即丢弃本节点缓存的表版本，下次读取时重新计算
+     * 使用evictIfPresent，不会像evict那样被事务感知的缓存推迟到提交之后，可以在事务提交后的回调中调用
+     */
+    public void invalidate(CatalogTable... tables) {
+        Cache cache = cacheManager.getCache(CacheNames.CATALOG_VERSIONS);
+        for (CatalogTable table : tables) {
+            cache.evictIfPresent(table.name());
+        }
+    }
+
+    private CatalogVersion versionOf(CatalogTable table) {
+        Cache cache = cacheManager.getCache(CacheNames.CATALOG_VERSIONS);
+        return cache.get(table.name(), () -> load(table));
+    }
+
+    private CatalogVersion load(CatalogTable table) {
+        Long rows = catalogVersionMapper.countRows(table.getTableName());
+        Date lastModified = catalogVersionMapper.findLastModified(table.getTableName());
+        long modified = lastModified == null ? 0 : lastModified.getTime();
+        return new CatalogVersion(mix(rows == null ? 0 : rows, modified, generationOf(table)), modified);
+    }
+
+    private long generationOf(CatalogTable table) {
+        try {
+            String generation = stringRedisTemplate.opsForValue().get(generationKeyPrefix + table.name());
+            return generation == null ? 0 : Long.parseLong(generation);
+        } catch (Exception e) {
+            log.warn("读取目录表写入代数失败: {}, {}", table, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 行数和写入代数分别乘以不同的奇数常量打散后与修改时间混合，避免几项的小幅变化互相抵消
+     */
+    private static long mix(long rows, long lastModified, long generation) {
+        return lastModified ^ (rows * 0x9E3779B97F4A7C15L) ^ (generation * 0xC2B2AE3D27D4EB4FL);
+    }
+}
@@ -0,0 +1,14 @@
+package com.cows.service;
+
+import com.cows.dto.ChangesDTO;
+
+/**
+ * 目录数据增量同步服务接口
+ */
+public interface ChangeFeedService {
+    /**
+     * @param since 上次返回的同步令牌，为空时从头同步
+     * @param limit 每张表最多返回的行数
+     */
+    ChangesDTO getChanges(String since, int limit);
+}
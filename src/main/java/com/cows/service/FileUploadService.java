@@ -0,0 +1,320 @@
+package com.cows.service;
+
+import com.cows.mapper.FileReferenceMapper;
+import com.cows.upload.FileReferences;
+import com.cows.upload.ImageFormat;
+import com.cows.upload.MappedLogStore;
+import com.cows.upload.StoredFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 上传文件落盘
+ * 从multipart流直接经FileChannel写入磁盘，边写边计算SHA-256，不把整个文件读进堆内存；
+ * 文件格式按文件头魔数判断，先写到上传目录中的隐藏临时文件（/files/** 不提供隐藏文件），校验全部通过后再原子改名为最终文件名，
+ * 进程崩溃留下的临时文件在启动时清理
+ * 存储按内容寻址：文件名为 内容的SHA-256.后缀，相同内容只保存一份，每次上传使上传者的引用加一，
+ * 上传者只能释放自己持有的引用，全部引用释放后删除文件；引用计数缺失的文件不会被删除，启动时按引用表重建；
+ * 同一个文件名永远对应同一份内容，所以 /files/** 可以让浏览器和CDN永久缓存
+ */
+@Slf4j
+@Service
+public class FileUploadService {
+
+    /**
+     * 每次transferFrom的最大字节数，用来在写入过程中及时检查大小上限
+     */
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private static final Pattern STORAGE_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|bmp)");
+
+    private static final String TEMP_PREFIX = ".upload-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * 超过这个时间还没有改名的临时文件是进程崩溃留下的；上传目录可能被多个节点共享，不能删除其他节点正在写的临时文件
+     */
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    @Value("${upload.dir:./upload}")
+    private String uploadDir;
+
+    @Value("${upload.max-size:5242880}")
+    private long maxSize;
+
+    @Value("${upload.ref-count.path:./data/upload-refs.log}")
+    private String refCountPath;
+
+    @Autowired
+    private FileReferenceMapper fileReferenceMapper;
+
+    /**
+     * 存储名 -> 各持有者的引用次数（FileReferences）
+     */
+    private MappedLogStore referenceCounts;
+
+    @PostConstruct
+    public void init() throws IOException {
+        referenceCounts = new MappedLogStore("上传文件引用计数", Paths.get(refCountPath),
+                (storageName, count) -> Files.exists(getUploadDir().resolve(storageName)));
+        referenceCounts.open();
+        sweepStaleTempFiles();
+    }
+
+    /**
+     * 删除进程崩溃时留在上传目录中的临时文件
+     */
+    void sweepStaleTempFiles() throws IOException {
+        Path dir = getUploadDir();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Instant staleBefore = Instant.now().minus(STALE_TEMP_AGE);
+        int deleted = 0;
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(dir, TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path temp : temps) {
+                try {
+                    if (Files.getLastModifiedTime(temp).toInstant().isBefore(staleBefore) && Files.deleteIfExists(temp)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("删除残留的上传临时文件失败: {}, {}", temp, e.getMessage());
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("已删除{}个残留的上传临时文件", deleted);
+        }
+    }
+
+    /**
+     * 引用计数缺失（如日志丢失或早于引用计数上传）的文件，按数据表中引用该文件的地址数重建，记为无持有者的引用
+     * 重建后仍没有引用的文件只记录日志，不删除
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildMissingReferenceCounts() throws IOException {
+        Path dir = getUploadDir();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<String> missing;
+        try (Stream<Path> files = Files.list(dir)) {
+            missing = files.map(file -> file.getFileName().toString())
+                    .filter(name -> STORAGE_NAME.matcher(name).matches() && referenceCounts.get(name) == null)
+                    .collect(Collectors.toList());
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> referenced = new HashMap<>();
+        try {
+            for (String value : fileReferenceMapper.findAllFileReferences()) {
+                Matcher matcher = STORAGE_NAME.matcher(value);
+                while (matcher.find()) {
+                    referenced.merge(matcher.group(), 1, Integer::sum);
+                }
+            }
+        } catch (Exception e) {
+            // 计数缺失的文件本来就不会被删除，下次启动再重建
+            log.error("读取上传文件引用失败，{}个文件的引用计数暂不重建", missing.size(), e);
+            return;
+        }
+        int orphans = 0;
+        for (String storageName : missing) {
+            int count = referenced.getOrDefault(storageName, 0);
+            if (count == 0) {
+                orphans++;
+                continue;
+            }
+            // 重建期间可能有新的上传，只补上仍然缺失的计数
+            computeReferences(storageName, references -> {
+                if (references.total() == 0) {
+                    references.add(FileReferences.UNOWNED, count);
+                }
+            });
+        }
+        log.info("上传文件引用计数重建完成: 缺失={}, 无引用={}", missing.size(), orphans);
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        referenceCounts.close();
+    }
+
+    public Path getUploadDir() {
+        return Paths.get(uploadDir);
+    }
+
+    /**
+     * @return 上传目录中对应的文件，文件名越出上传目录、指向临时文件或文件不存在时返回null
+     */
+    public Path resolve(String storageName) {
+        Path dir = getUploadDir().toAbsolutePath().normalize();
+        Path file = dir.resolve(storageName).normalize();
+        if (!file.startsWith(dir) || file.getFileName().toString().startsWith(".") || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * @param file  上传的文件
+     * @param owner 上传者，之后只有上传者能释放这次上传的引用
+     * @throws IllegalArgumentException 文件过大或不是允许的图片格式
+     */
+    public StoredFile store(MultipartFile file, String owner) throws IOException {
+        if (file.getSize() > maxSize) {
+            throw new IllegalArgumentException("File size too large");
+        }
+        Path dir = getUploadDir();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            MessageDigest digest = sha256();
+            ImageFormat format;
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                byte[] header = in.readNBytes(ImageFormat.HEADER_LENGTH);
+                format = ImageFormat.detect(header, header.length);
+                if (format == null) {
+                    throw new IllegalArgumentException("Invalid file format");
+                }
+                out.write(ByteBuffer.wrap(header));
+                size = header.length;
+
+                ReadableByteChannel source = Channels.newChannel(in);
+                long transferred;
+                while ((transferred = out.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                    // 客户端声明的大小不可信，以实际写入的字节数为准
+                    if (size > maxSize) {
+                        throw new IllegalArgumentException("File size too large");
+                    }
+                }
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String storageName = sha256 + "." + format.getExtension();
+            Path target = dir.resolve(storageName);
+            boolean[] deduplicated = new boolean[1];
+            // 在引用计数的锁内判断文件是否存在，避免与release同时进行时把刚被删除的文件当成已存在
+            String value = computeReferences(storageName, references -> {
+                if (Files.exists(target)) {
+                    deduplicated[0] = true;
+                    // 已有文件但引用计数缺失：保留一个无持有者的引用，避免这次上传释放后把仍被引用的文件删除
+                    if (references.total() == 0) {
+                        references.add(FileReferences.UNOWNED, 1);
+                    }
+                } else {
+                    move(temp, target);
+                }
+                references.add(owner, 1);
+            });
+            log.debug("上传文件已保存: {}, 格式={}, 大小={}, 去重={}, 引用数={}", storageName, format, size, deduplicated[0],
+                    FileReferences.parse(value).total());
+            return new StoredFile(storageName, format, size, sha256, deduplicated[0]);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 释放owner持有的一次引用，全部引用释放后删除文件
+     * @return 剩余的引用数（包括其他持有者的）
+     * @throws IllegalArgumentException 存储名不合法、文件不存在、引用计数缺失或owner没有持有该文件的引用
+     */
+    public int release(String storageName, String owner) throws IOException {
+        if (storageName == null || !STORAGE_NAME.matcher(storageName).matches()) {
+            throw new IllegalArgumentException("Invalid storage name");
+        }
+        Path target = getUploadDir().resolve(storageName);
+        if (!Files.exists(target)) {
+            throw new IllegalArgumentException("File not found");
+        }
+        String value = computeReferences(storageName, references -> {
+            // 引用计数缺失时无法判断文件是否仍被使用，不删除，等待启动时按引用表重建
+            if (references.total() == 0) {
+                throw new IllegalArgumentException("Reference count unknown");
+            }
+            if (!references.release(owner)) {
+                throw new IllegalArgumentException("No reference held");
+            }
+            if (references.total() == 0) {
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        return FileReferences.parse(value).total();
+    }
+
+    /**
+     * @param update 修改当前的引用（不存在时为空），修改后没有引用时删除计数
+     * @return 新的存储值
+     */
+    private String computeReferences(String storageName, Consumer<FileReferences> update) throws IOException {
+        try {
+            return referenceCounts.compute(storageName, current -> {
+                FileReferences references = FileReferences.parse(current);
+                update.accept(references);
+                return references.format();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void move(Path source, Path target) {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
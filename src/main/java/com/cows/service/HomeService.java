@@ -0,0 +1,10 @@
+package com.cows.service;
+
+import com.cows.dto.HomePageDTO;
+
+/**
+ * 官网首页聚合服务接口
+ * */
+public interface HomeService {
+    HomePageDTO getHomePage();
+}
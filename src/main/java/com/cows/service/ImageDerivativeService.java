@@ -0,0 +1,283 @@
+package com.cows.service;
+
+import com.cows.upload.DiskLruCache;
+import com.cows.upload.ImageFormat;
+import com.cows.upload.ImageVariant;
+import com.cows.upload.ServedImage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上传图片的派生图（缩放、压缩、转格式）
+ * 派生图生成后放在按大小淘汰的磁盘缓存中；生成在固定大小的线程池中进行，同一派生图的并发请求只生成一次；
+ * 线程池排满或等待超时时直接返回原图，不让图片处理拖垮请求线程
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    /**
+     * 原图像素数上限，防止解码超大图片耗尽内存
+     */
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final long WAIT_SECONDS = 10;
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    @Value("${image.cache-dir:./data/image-cache}")
+    private String cacheDir;
+
+    @Value("${image.cache-max-bytes:536870912}")
+    private long cacheMaxBytes;
+
+    /**
+     * 处理线程数，0表示使用CPU核数
+     */
+    @Value("${image.workers:0}")
+    private int workers;
+
+    @Value("${image.queue-size:64}")
+    private int queueSize;
+
+    private DiskLruCache cache;
+    private ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        // 不使用ImageIO的磁盘临时缓存，图片已经限制了大小
+        ImageIO.setUseCache(false);
+        cache = new DiskLruCache(Paths.get(cacheDir), cacheMaxBytes);
+        cache.open();
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "image-derivative-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param storageName 上传文件的存储名
+     * @param width       目标宽度，为null时最宽1920；三个参数都为null时返回原图
+     * @param quality     压缩质量1-100
+     * @param format      输出格式 jpg/png/webp
+     * @return 文件不存在时返回null
+     * @throws IllegalArgumentException 参数不合法或原图无法处理
+     */
+    public ServedImage get(String storageName, Integer width, Integer quality, String format) throws IOException {
+        Path source = fileUploadService.resolve(storageName);
+        if (source == null) {
+            return null;
+        }
+        ImageFormat sourceFormat = detect(source);
+        ServedImage original = new ServedImage(source,
+                sourceFormat == null ? "application/octet-stream" : sourceFormat.getContentType(), true);
+        if (width == null && quality == null && format == null) {
+            return original;
+        }
+        if (sourceFormat == null) {
+            throw new IllegalArgumentException("Invalid file format");
+        }
+        ImageVariant variant = ImageVariant.of(width == null ? Integer.MAX_VALUE : width, quality, format, sourceFormat);
+        Path derived = derive(source, variant.fileName(source.getFileName().toString()), variant);
+        if (derived == null) {
+            original.setExact(false);
+            return original;
+        }
+        return new ServedImage(derived, variant.contentType(), true);
+    }
+
+    /**
+     * @return 派生图文件，线程池已满或等待超时时返回null
+     */
+    private Path derive(Path source, String name, ImageVariant variant) throws IOException {
+        Path cached = cache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> future = inFlight.putIfAbsent(name, created);
+        if (future == null) {
+            future = created;
+            try {
+                executor.execute(() -> {
+                    try {
+                        created.complete(render(source, name, variant));
+                    } catch (Throwable e) {
+                        created.completeExceptionally(e);
+                    } finally {
+                        inFlight.remove(name, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(name, created);
+                log.warn("图片处理线程池已满，返回原图: {}", name);
+                return null;
+            }
+        }
+        try {
+            return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("等待派生图超时，返回原图: {}", name);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private Path render(Path source, String name, ImageVariant variant) throws IOException {
+        // 排队期间可能已由之前的任务生成
+        Path cached = cache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.currentTimeMillis();
+        BufferedImage image = read(source);
+        boolean opaque = !ImageVariant.PNG.equals(variant.getFormat());
+        BufferedImage scaled = scale(image, Math.min(variant.getWidth(), image.getWidth()), opaque);
+        Path temp = cache.createTempFile();
+        try {
+            write(scaled, variant, temp);
+            Path file = cache.commit(temp, name);
+            log.debug("派生图已生成: {}, {}x{}, 大小={}, 耗时={}ms", name, scaled.getWidth(), scaled.getHeight(),
+                    Files.size(file), System.currentTimeMillis() - start);
+            return file;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static ImageFormat detect(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(ImageFormat.HEADER_LENGTH);
+            return ImageFormat.detect(header, header.length);
+        }
+    }
+
+    private static BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Invalid file format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // 先只读尺寸，超过上限时不解码像素
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("图片尺寸过大");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 每次最多缩小一半，逐步缩到目标宽度，比一次双线性缩放的锯齿少
+     * @param opaque 输出格式不支持透明时用白色背景去掉透明通道
+     */
+    private static BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(w / 2, width);
+            h = Math.max(h / 2, height);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (opaque) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static void write(BufferedImage image, ImageVariant variant, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(variant.imageIoFormat());
+        if (!writers.hasNext()) {
+            throw new IllegalArgumentException("不支持的图片格式: " + variant.getFormat());
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!ImageVariant.PNG.equals(variant.getFormat()) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(variant.getQuality() / 100f);
+                if (param.canWriteProgressive()) {
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+            }
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Order;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -25,4 +26,5 @@ public interface OrderService {
     void insertOrder(Order order);
     // 分页查询
     List<Order> getAllOrders(int page, int size, String sortField);
+    CursorPage<Order> getOrdersByCursor(String cursor, int size, String sortField);// 键集分页查询
 }
\ No newline at end of file
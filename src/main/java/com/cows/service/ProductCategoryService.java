@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.ProductCategory;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -11,4 +12,5 @@ public interface ProductCategoryService {
     int updateProductCategory(ProductCategory productCategory);
     int deleteProductCategory(int id);
     List<ProductCategory> getProductCategoriesPaged(int page, int size, String sortField);
+    CursorPage<ProductCategory> getProductCategoriesByCursor(String cursor, int size, String sortField);// 键集分页查询
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.Product;
+import com.cows.search.SearchResult;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Map;
@@ -11,10 +13,14 @@ import java.util.Map;
 public interface ProductService {
     List<Product> getAllProducts();
     Product getProductById(int id);
+    List<Product> getProductsByCategory(int categoryId);// 按分类查询未删除的商品
+    List<Product> getProductsByBrand(String brand);// 按品牌名查询未删除的商品
     int addProduct(Product product);
     int updateProduct(Product product);
     int deleteProduct(int id);
 //    List<Product> getProductsPaged(int page, int size, String sortField);
     Map<String, Object> getProductsPaged(int page, int size, String sortField);
     List<Product> searchProductsByName(String name);
+    SearchResult<Product> searchProducts(String keyword, int page, int size);// 全文搜索，按相关度排序分页
+    CursorPage<Product> getProductsByCursor(String cursor, int size, String sortField, boolean withTotal);// 键集分页查询
 }
\ No newline at end of file
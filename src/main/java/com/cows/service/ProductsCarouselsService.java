@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.dto.ProductsCarouselsDTO;
 import com.cows.entity.ProductsCarousels;
 import java.util.List;
 
@@ -9,4 +10,6 @@ public interface ProductsCarouselsService {
     int addProductsCarousels(ProductsCarousels productsCarousels);
     int updateProductsCarousels(ProductsCarousels productsCarousels);
     int deleteProductsCarousels(int id);
-}
\ No newline at end of file
+    List<ProductsCarouselsDTO> getAllProductsCarouselsHydrated(); // 获取所有配置并回填商品详情
+    ProductsCarouselsDTO getProductsCarouselsHydratedById(int id); // 获取指定配置并回填商品详情
+}
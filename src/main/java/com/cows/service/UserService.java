@@ -1,5 +1,6 @@
 package com.cows.service;
 
+import com.cows.commons.page.CursorPage;
 import com.cows.entity.User;
 import com.cows.entity.WechatUser;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,4 +32,5 @@ public interface UserService {
     User findByWechatOpenId(String openId);  // 通过微信OpenId查找用户
 
     User loginOrCreateWechatUser(WechatUser wechatUser);// 登录或创建微信用户
-}
+    CursorPage<User> getUsersByCursor(String cursor, int size, String sortField);// 键集分页查询
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.cows.service;
 
+import com.cows.cache.SingleFlight;
+import com.cows.entity.WechatToken;
 import com.cows.entity.WechatUser;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,16 +12,23 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
-import org.springframework.http.converter.StringHttpMessageConverter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 微信服务类
- * 用于获取微信用户信息
+ * 用于获取微信用户信息；用户的access_token按openid保存在WechatTokenStore中
  * */ 
 @Slf4j
 @Service
 public class WechatService {
     private static final long EXPIRATION_OFFSET = 300; // 提前5分钟刷新token
+    private static final long REFRESH_TOKEN_TTL = 2592000; // refreshToken有效期为30天
+    private static final Gson GSON = new Gson(); // 线程安全，所有响应共用
     @Value("${wechat.appid}")
     private String appId;
 
@@ -29,70 +39,142 @@ public class WechatService {
     private String redirectUri;
 
     @Autowired
-    private RestTemplate restTemplate;  // 确保使用@Autowired注解
-
-    private String accessToken;
-    private long accessTokenExpiresAt;
-    private String refreshToken;
-    private long refreshTokenExpiresAt; // refreshToken的过期时间
-    private String openid;
-
-    public WechatService() {
-        this.restTemplate = new RestTemplate();
-        // 添加对text/plain类型的支持
-        restTemplate.getMessageConverters().add(new StringHttpMessageConverter());
+    private RestTemplate restTemplate;  // RestTemplateConfig提供的带连接池和超时的RestTemplate
+
+    @Autowired
+    private WechatTokenStore tokenStore;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    /**
+     * 正在后台提前刷新的openid，同一用户同时只提交一个刷新任务
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "wechat-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 用授权码换取当前登录用户的access_token，并按openid保存
+     * 授权码只能使用一次且在换取之前不知道是哪个用户，所以每次登录都要换取；不同用户的登录互不等待
+     * @throws IllegalArgumentException 授权码无效或已被使用
+     */
+    public AccessTokenResponse ensureValidAccessToken(String code) {
+        AccessTokenResponse response = requestNewAccessToken(code);
+        if (response == null || response.getAccessToken() == null || response.getOpenid() == null) {
+            throw new IllegalArgumentException("微信授权码无效或已被使用");
+        }
+        tokenStore.save(new WechatToken(response.getOpenid(), response.getAccessToken(), now() + response.getExpiresIn(),
+                response.getRefreshToken(), now() + REFRESH_TOKEN_TTL));
+        log.info("获取新的accessToken: openid={}", response.getOpenid());
+        return response;
     }
 
-    // 实现根据code获取access_token的逻辑
-    // 实现根据access_token获取用户信息的逻辑
-    public synchronized AccessTokenResponse ensureValidAccessToken(String code) {
-        long now = System.currentTimeMillis() / 1000;
-        if (accessToken != null && (accessTokenExpiresAt - now > EXPIRATION_OFFSET)) {
-            log.info("使用现有的accessToken");
-            return new AccessTokenResponse(accessToken, openid, refreshToken, accessTokenExpiresAt - now, ""); // 确保openid已经被设置
+    /**
+     * 获取用户保存的有效access_token
+     * 剩余有效期不足EXPIRATION_OFFSET时提前在后台刷新，仍返回当前令牌；已过期时同步刷新，
+     * 同一用户的并发刷新只请求一次微信接口
+     * @return 没有保存的令牌或refreshToken已失效时返回null，需要用户重新授权
+     */
+    public WechatToken getValidAccessToken(String openid) {
+        WechatToken token = tokenStore.get(openid);
+        if (token == null) {
+            return null;
         }
-    
-        if (refreshToken != null && canRefreshToken(now)) {
-            log.info("尝试使用refreshToken刷新accessToken");
-            AccessTokenResponse response = refreshAccessToken(refreshToken);
-            if (response != null && response.getAccessToken() != null) {
-                updateToken(response);
-                log.info("成功刷新accessToken");
-                return response;
-            }
+        long validFor = token.accessTokenValidFor(now());
+        if (validFor > EXPIRATION_OFFSET) {
+            return token;
         }
-    
-        log.info("请求新的accessToken");
-        AccessTokenResponse response = requestNewAccessToken(code); // 传递授权码
-        updateToken(response);
-        log.info("成功获取新的accessToken");
-        return response;
+        if (validFor > 0) {
+            refreshInBackground(openid);
+            return token;
+        }
+        return refresh(openid);
     }
 
-    private boolean canRefreshToken(long currentTime) {
-        // 实现检查 refreshToken 是否过期的逻辑
-        log.info("检查refreshToken是否过期");
-        System.out.println("检查refreshToken是否过期");
-        log.info("当前时间: " + currentTime);
-        log.info("refreshTokenExpiresAt: " + refreshTokenExpiresAt);
-        log.info("EXPIRATION_OFFSET: " + EXPIRATION_OFFSET);
-        boolean isTokenValid = currentTime < refreshTokenExpiresAt - EXPIRATION_OFFSET;
-        // 此处假设 refreshToken 的有效期通常比 accessToken 长很多
-        log.info("refreshToken是否有效: " + isTokenValid);
-        return isTokenValid;
-    
+    /**
+     * 用保存的access_token获取用户信息，不需要用户重新授权
+     * @return 没有有效令牌时返回null，需要用户重新授权
+     */
+    public WechatUser getUserInfoByOpenid(String openid) {
+        WechatToken token = getValidAccessToken(openid);
+        if (token == null) {
+            return null;
+        }
+        WechatUser user = getUserInfo(token.getAccessToken(), openid);
+        if (user != null) {
+            user.setOpenId(openid);
+        }
+        return user;
     }
 
-    private void updateToken(AccessTokenResponse response) {
-        long now = System.currentTimeMillis() / 1000;
-        this.accessToken = response.getAccessToken();
-        this.refreshToken = response.getRefreshToken();
-        this.accessTokenExpiresAt = now + response.getExpiresIn();
-        this.refreshTokenExpiresAt = now + 2592000; // 假设 refreshToken 有效期为30天
-        this.openid = response.getOpenid(); // 确保更新openid
-        log.info("更新了accessToken和refreshToken，新的accessToken过期时间为：" + this.accessTokenExpiresAt);
-        log.info("新的refreshToken过期时间为：" + this.refreshTokenExpiresAt);
-        log.info("更新了openid：" + this.openid);
+    private void refreshInBackground(String openid) {
+        if (!refreshing.add(openid)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(openid);
+                } catch (Exception e) {
+                    log.warn("提前刷新accessToken失败: openid={}, {}", openid, e.getMessage());
+                } finally {
+                    refreshing.remove(openid);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(openid);
+        }
+    }
+
+    /**
+     * 用refreshToken刷新，同一用户的并发调用合并为一次
+     */
+    private WechatToken refresh(String openid) {
+        return singleFlight.load("wechatToken", openid, () -> {
+            WechatToken token = tokenStore.reload(openid);
+            if (token == null) {
+                return null;
+            }
+            long now = now();
+            // 等待期间已被其他请求或其他节点刷新
+            if (token.accessTokenValidFor(now) > EXPIRATION_OFFSET) {
+                return token;
+            }
+            if (token.refreshTokenValidFor(now) <= EXPIRATION_OFFSET) {
+                log.info("refreshToken即将过期，需要重新授权: openid={}", openid);
+                tokenStore.remove(openid);
+                return null;
+            }
+            AccessTokenResponse response = refreshAccessToken(token.getRefreshToken());
+            if (response == null || response.getAccessToken() == null) {
+                log.warn("刷新accessToken失败: openid={}", openid);
+                if (token.accessTokenValidFor(now) > 0) {
+                    return token;
+                }
+                tokenStore.remove(openid);
+                return null;
+            }
+            log.info("刷新了accessToken: openid={}", openid);
+            // 刷新不延长refreshToken的有效期
+            WechatToken refreshed = new WechatToken(openid, response.getAccessToken(), now + response.getExpiresIn(),
+                    response.getRefreshToken() != null ? response.getRefreshToken() : token.getRefreshToken(),
+                    token.getRefreshTokenExpiresAt());
+            tokenStore.save(refreshed);
+            return refreshed;
+        });
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 
     // 通用方法获取access_token
@@ -104,22 +186,15 @@ public class WechatService {
                 .queryParam("secret", secret)
                 .queryParam("code", code)
                 .queryParam("grant_type", grantType);
-                try {
-        String response = restTemplate.getForObject(builder.toUriString(), String.class);
-        System.out.println("微信API响应: " + response);
-        // 
-        Gson gson = new Gson();
-        AccessTokenResponse tokenResponse = gson.fromJson(response, AccessTokenResponse.class);
-        // 调试输出response中的 access_token和openid
-        System.out.println("AccessToken: " + tokenResponse.getAccessToken());
-        System.out.println("OpenID: " + tokenResponse.getOpenid());
-        System.out.println("Expires In: " + tokenResponse.getExpiresIn());
-        System.out.println("Refresh Token: " + tokenResponse.getRefreshToken());
-        return tokenResponse;
+        try {
+            String response = restTemplate.getForObject(builder.toUriString(), String.class);
+            AccessTokenResponse tokenResponse = GSON.fromJson(response, AccessTokenResponse.class);
+            log.debug("获取accessToken: openid={}, expiresIn={}", tokenResponse.getOpenid(), tokenResponse.getExpiresIn());
+            return tokenResponse;
         } catch (Exception e) {
-            System.out.println("处理微信API响应时发生错误: " + e.getMessage());
-                return null;
-            }
+            log.warn("处理微信API响应时发生错误: {}", e.getMessage());
+            return null;
+        }
     }
 
     // 刷新access_token
@@ -131,8 +206,7 @@ public class WechatService {
                 .queryParam("refresh_token", refreshToken);
 
         String response = restTemplate.getForObject(builder.toUriString(), String.class);
-        System.out.println("refreshAccessToken 微信API响应: " + response);
-        return new Gson().fromJson(response, AccessTokenResponse.class);
+        return GSON.fromJson(response, AccessTokenResponse.class);
     }
 
     // private AccessTokenResponse requestNewAccessToken() {
@@ -156,8 +230,7 @@ public class WechatService {
                 .queryParam("grant_type", "authorization_code");
     
         String response = restTemplate.getForObject(builder.toUriString(), String.class);
-        System.out.println("requestNewAccessToken 微信API响应: " + response);
-        return new Gson().fromJson(response, AccessTokenResponse.class);
+        return GSON.fromJson(response, AccessTokenResponse.class);
     }
 
     // 获取用户信息
@@ -168,13 +241,10 @@ public class WechatService {
         .queryParam("openid", openid)
         .queryParam("lang", "zh_CN");
 
-        String url = builder.toUriString();
-        log.info("请求微信用户信息URL: " + url);
-        WechatUser user = restTemplate.getForObject(url, WechatUser.class);
-        System.out.println("微信用户信息响应: " + user);
-        log.info("微信用户信息响应: " + user);
-       return user;
-}
+        WechatUser user = restTemplate.getForObject(builder.toUriString(), WechatUser.class);
+        log.debug("微信用户信息响应: openid={}", openid);
+        return user;
+    }
 
     // 内部类用于解析access_token响应
     public static class AccessTokenResponse {
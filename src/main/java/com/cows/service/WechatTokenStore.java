@@ -0,0 +1,118 @@
+package com.cows.service;
+
+import com.cows.entity.WechatToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.gson.Gson;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 按openid保存的微信用户令牌
+ * 本地缓存加Redis：本地未命中时读Redis，保存时两边都写，多节点共享同一用户的令牌；
+ * Redis不可用时只记录日志，退化为单节点的本地存储
+ */
+@Slf4j
+@Component
+public class WechatTokenStore {
+
+    private static final Gson GSON = new Gson();
+
+    @Value("${wechat.token.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${wechat.token.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${wechat.token.key-prefix:wechat:token:}")
+    private String keyPrefix;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private Cache<String, WechatToken> localTokens;
+
+    @PostConstruct
+    public void init() {
+        localTokens = Caffeine.newBuilder().maximumSize(localMaxSize).build();
+    }
+
+    /**
+     * @return 保存的令牌，没有或refreshToken已过期时返回null
+     */
+    public WechatToken get(String openid) {
+        long now = System.currentTimeMillis() / 1000;
+        WechatToken token = localTokens.getIfPresent(openid);
+        if (token == null) {
+            token = readRemote(openid);
+            if (token != null) {
+                localTokens.put(openid, token);
+            }
+        }
+        if (token != null && token.refreshTokenValidFor(now) <= 0) {
+            remove(openid);
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * 刷新前调用：其他节点可能已经刷新并写入Redis，Redis中的令牌更新时替换本地的令牌
+     */
+    public WechatToken reload(String openid) {
+        WechatToken local = localTokens.getIfPresent(openid);
+        WechatToken remote = readRemote(openid);
+        if (remote != null && (local == null || remote.getAccessTokenExpiresAt() > local.getAccessTokenExpiresAt())) {
+            localTokens.put(openid, remote);
+            return remote;
+        }
+        return local;
+    }
+
+    public void save(WechatToken token) {
+        localTokens.put(token.getOpenid(), token);
+        if (!redisEnabled) {
+            return;
+        }
+        long ttl = token.refreshTokenValidFor(System.currentTimeMillis() / 1000);
+        if (ttl <= 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(keyPrefix + token.getOpenid(), GSON.toJson(token), Duration.ofSeconds(ttl));
+        } catch (Exception e) {
+            log.warn("写入Redis微信令牌失败: {}, {}", token.getOpenid(), e.getMessage());
+        }
+    }
+
+    public void remove(String openid) {
+        localTokens.invalidate(openid);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(keyPrefix + openid);
+        } catch (Exception e) {
+            log.warn("删除Redis微信令牌失败: {}, {}", openid, e.getMessage());
+        }
+    }
+
+    private WechatToken readRemote(String openid) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(keyPrefix + openid);
+            return json == null ? null : GSON.fromJson(json, WechatToken.class);
+        } catch (Exception e) {
+            log.warn("读取Redis微信令牌失败: {}, {}", openid, e.getMessage());
+            return null;
+        }
+    }
+}
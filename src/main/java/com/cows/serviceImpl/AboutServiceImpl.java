@@ -1,9 +1,17 @@
 package com.cows.serviceImpl;
 
+import com.cows.cache.CacheNames;
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
 import com.cows.entity.About;
 import com.cows.mapper.AboutMapper;
 import com.cows.service.AboutService;
+import com.cows.cache.CatalogTable;
+import com.cows.service.CatalogVersionService;
+import com.cows.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,14 +29,20 @@ public class AboutServiceImpl implements AboutService {
     @Autowired
     private AboutMapper aboutMapper;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<About> getAllAbouts() {
         return aboutMapper.findAllAbouts();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public About getAboutById(int id) {
         return aboutMapper.findAboutById(id);
     }
@@ -37,31 +51,34 @@ public class AboutServiceImpl implements AboutService {
     @Transactional(rollbackFor = Exception.class)
     public int addAbout(About about) {
         aboutMapper.insertAbout(about);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.ABOUT));
         return about.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int updateAbout(About about) {
-        return aboutMapper.updateAbout(about);
+        int updates = aboutMapper.updateAbout(about);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.ABOUT));
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int deleteAbout(int id) {
-        return aboutMapper.deleteAbout(id);
+        int updates = aboutMapper.deleteAbout(id);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.ABOUT));
+        return updates;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Map<String, Object> getAboutsPaged(int page, int size, String sortField) {
         log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.ABOUT.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         List<About> abouts = aboutMapper.findAboutsPaged(offset, size, sortField);
         int total = aboutMapper.countAllAbouts();
@@ -70,4 +87,17 @@ public class AboutServiceImpl implements AboutService {
         result.put("abouts", abouts);
         return result;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<About> getAboutsByCursor(String cursor, int size, String sortField, boolean withTotal) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        CursorPage<About> page = KeysetPaginator.page(cursor, size, sortField, SortSpecs.ABOUT,
+                aboutMapper::findAboutsAfter, About::getId);
+        if (withTotal) {
+            // 总数只在需要时查询，并短时缓存，避免每翻一页都执行一次COUNT(*)
+            page.setTotal(cacheManager.getCache(CacheNames.PAGE_TOTALS).get("abouts", () -> (long) aboutMapper.countAllAbouts()));
+        }
+        return page;
+    }
 }
\ No newline at end of file
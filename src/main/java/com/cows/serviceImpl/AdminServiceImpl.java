@@ -1,5 +1,8 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
 import com.cows.entity.Admin;
 import com.cows.mapper.AdminMapper;
 import com.cows.service.AdminService;
@@ -33,13 +36,13 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<Admin> getAllAdmins() {
         return adminMapper.findAllAdmins();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Admin getAdminById(int id) {
         return adminMapper.findAdminById(id);
     }
@@ -79,10 +82,16 @@ public class AdminServiceImpl implements AdminService {
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.ADMIN.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         return adminMapper.getAllAdmins(offset, size, sortField);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Admin> getAdminsByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.ADMIN,
+                adminMapper::findAdminsAfter, Admin::getId);
+    }
 }
\ No newline at end of file
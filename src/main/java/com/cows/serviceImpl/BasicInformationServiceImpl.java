@@ -1,9 +1,20 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.CacheNames;
+import com.cows.cache.SingleFlight;
 import com.cows.entity.BasicInformation;
 import com.cows.mapper.BasicInformationMapper;
 import com.cows.service.BasicInformationService;
+import com.cows.cache.CatalogTable;
+import com.cows.service.CatalogVersionService;
+import com.cows.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -15,14 +26,22 @@ public class BasicInformationServiceImpl implements BasicInformationService {
     @Autowired
     private BasicInformationMapper basicInformationMapper;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.BASIC_INFORMATION_LIST, key = CacheNames.ALL_KEY, unless = "@singleFlight.servedStale()")
     public List<BasicInformation> getAllBasicInformation() {
-        return basicInformationMapper.findAllBasicInformation();
+        return singleFlight.loadOrStale(CacheNames.BASIC_INFORMATION_LIST, CacheNames.ALL_KEY, basicInformationMapper::findAllBasicInformation);
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.BASIC_INFORMATION, key = "#id")
     public BasicInformation getBasicInformationById(Long id) {
         BasicInformation basicInformation = basicInformationMapper.findBasicInformationById(id);
         if (basicInformation == null) {
@@ -33,8 +52,13 @@ public class BasicInformationServiceImpl implements BasicInformationService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BASIC_INFORMATION_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int addBasicInformation(BasicInformation basicInformation) {
         basicInformationMapper.insertBasicInformation(basicInformation);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BASIC_INFORMATION));
         if (basicInformation.getId() == null) {
             throw new IllegalArgumentException("插入基本信息失败，ID未生成");
         }
@@ -43,14 +67,28 @@ public class BasicInformationServiceImpl implements BasicInformationService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BASIC_INFORMATION_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.BASIC_INFORMATION, key = "#basicInformation.id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int updateBasicInformation(BasicInformation basicInformation) {
-        return basicInformationMapper.updateBasicInformation(basicInformation);
+        int updates = basicInformationMapper.updateBasicInformation(basicInformation);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BASIC_INFORMATION));
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.BASIC_INFORMATION_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.BASIC_INFORMATION, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int deleteBasicInformation(Long id) {
-        return basicInformationMapper.deleteBasicInformation(id);
+        int updates = basicInformationMapper.deleteBasicInformation(id);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BASIC_INFORMATION));
+        return updates;
     }
 
     @Override
@@ -59,10 +97,16 @@ public class BasicInformationServiceImpl implements BasicInformationService {
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.BASIC_INFORMATION.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         return basicInformationMapper.getAllBasicInformation(offset, size, sortField);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BasicInformation> getBasicInformationByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.BASIC_INFORMATION,
+                basicInformationMapper::findBasicInformationAfter, BasicInformation::getId);
+    }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.SortSpecs;
 import com.cows.entity.BrandAuthorizationCertificate;
 import com.cows.mapper.BrandAuthorizationCertificateMapper;
 import com.cows.service.BrandAuthorizationCertificateService;
+import com.cows.cache.CatalogTable;
+import com.cows.service.CatalogVersionService;
+import com.cows.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,14 +19,17 @@ public class BrandAuthorizationCertificateServiceImpl implements BrandAuthorizat
     @Autowired
     private BrandAuthorizationCertificateMapper certificateMapper;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<BrandAuthorizationCertificate> getAllCertificates() {
         return certificateMapper.findAllCertificates();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public BrandAuthorizationCertificate getCertificateById(int id) {
         return certificateMapper.findCertificateById(id);
     }
@@ -31,37 +38,40 @@ public class BrandAuthorizationCertificateServiceImpl implements BrandAuthorizat
     @Transactional(rollbackFor = Exception.class)
     public int addCertificate(BrandAuthorizationCertificate certificate) {
         certificateMapper.insertCertificate(certificate);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BRAND_AUTHORIZATION_CERTIFICATES));
         return certificate.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int updateCertificate(BrandAuthorizationCertificate certificate) {
-        return certificateMapper.updateCertificate(certificate);
+        int updates = certificateMapper.updateCertificate(certificate);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BRAND_AUTHORIZATION_CERTIFICATES));
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int deleteCertificate(int id) {
-        return certificateMapper.deleteCertificate(id);
+        int updates = certificateMapper.deleteCertificate(id);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BRAND_AUTHORIZATION_CERTIFICATES));
+        return updates;
     }
 
     @Override
-@Transactional(rollbackFor = Exception.class)
+@Transactional(readOnly = true)
 public List<BrandAuthorizationCertificate> getCertificatesPaged(int page, int size, String sortField) {
     log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
     if (page < 0 || size <= 0) {
         throw new IllegalArgumentException("Page must be non-negative and size must be positive");
     }
-    if (sortField == null || sortField.isEmpty()) {
-        sortField = "id";
-    }
+    sortField = SortSpecs.BRAND_AUTHORIZATION_CERTIFICATE.column(sortField);  // 只允许白名单中的排序字段
     int offset = page * size;
     return certificateMapper.findCertificatesPaged(offset, size, sortField);
 }
 
 @Override
-@Transactional(rollbackFor = Exception.class)
+@Transactional(readOnly = true)
 public List<BrandAuthorizationCertificate> searchCertificatesByName(String name) {
     return certificateMapper.searchCertificatesByName(name);
 }
@@ -1,7 +1,12 @@
 package com.cows.serviceImpl;
 
+import com.cows.cache.CatalogTable;
+import com.cows.catalog.CatalogSnapshot;
+import com.cows.catalog.CatalogSnapshotHolder;
+import com.cows.commons.page.SortSpecs;
 import com.cows.entity.Brand;
 import com.cows.mapper.BrandMapper;
+import com.cows.search.ProductSuggester;
 import com.cows.service.BrandService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,15 +20,27 @@ public class BrandServiceImpl implements BrandService {
     @Autowired
     private BrandMapper brandMapper;
 
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public List<Brand> getAllBrands() {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.BRANDS);
+        if (snapshot != null) {
+            return snapshot.getBrands().all();
+        }
         return brandMapper.findAllBrands();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Brand getBrandById(int id) {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.BRANDS);
+        if (snapshot != null && snapshot.getBrands().get(id) != null) {
+            return snapshot.getBrands().get(id);
+        }
         return brandMapper.findBrandById(id);
     }
 
@@ -35,31 +52,37 @@ public class BrandServiceImpl implements BrandService {
             throw new IllegalArgumentException("已存在相同品牌名称");
         }
         brandMapper.insertBrand(brand);
+        catalogSnapshotHolder.changed(CatalogTable.BRANDS);
+        productSuggester.requestRebuild();
         return brand.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int updateBrand(Brand brand) {
-        return brandMapper.updateBrand(brand);
+        int updates = brandMapper.updateBrand(brand);
+        catalogSnapshotHolder.changed(CatalogTable.BRANDS);
+        productSuggester.requestRebuild();
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int deleteBrand(int id) {
-        return brandMapper.deleteBrand(id);
+        int updates = brandMapper.deleteBrand(id);
+        catalogSnapshotHolder.changed(CatalogTable.BRANDS);
+        productSuggester.requestRebuild();
+        return updates;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<Brand> getBrandsPaged(int page, int size, String sortField) {
         log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.BRAND.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         return brandMapper.findBrandsPaged(offset, size, sortField);
     }
@@ -70,7 +93,7 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<Brand> searchBrandsByName(String name) {
         return brandMapper.searchBrandsByName(name);
 }
@@ -1,9 +1,19 @@
 package com.cows.serviceImpl;
 
+import com.cows.cache.CacheNames;
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
 import com.cows.entity.Business;
 import com.cows.mapper.BusinessMapper;
+import com.cows.search.BusinessSearchIndex;
+import com.cows.search.SearchResult;
 import com.cows.service.BusinessService;
+import com.cows.cache.CatalogTable;
+import com.cows.service.CatalogVersionService;
+import com.cows.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,14 +31,23 @@ public class BusinessServiceImpl implements BusinessService {
     @Autowired
     private BusinessMapper businessMapper;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BusinessSearchIndex businessSearchIndex;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<Business> getAllBusinesses() {
         return businessMapper.findAllBusinesses();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Business getBusinessById(int id) {
         return businessMapper.findBusinessById(id);
     }
@@ -37,31 +56,37 @@ public class BusinessServiceImpl implements BusinessService {
     @Transactional(rollbackFor = Exception.class)
     public int addBusiness(Business business) {
         businessMapper.insertBusiness(business);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BUSINESSES));
+        businessSearchIndex.refresh(business.getId());
         return business.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int updateBusiness(Business business) {
-        return businessMapper.updateBusiness(business);
+        int updates = businessMapper.updateBusiness(business);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BUSINESSES));
+        businessSearchIndex.refresh(business.getId());
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int deleteBusiness(int id) {
-        return businessMapper.deleteBusiness(id);
+        int updates = businessMapper.deleteBusiness(id);
+        TransactionUtil.afterCommit(() -> catalogVersionService.changed(CatalogTable.BUSINESSES));
+        businessSearchIndex.remove(id);
+        return updates;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Map<String, Object> getBusinessesPaged(int page, int size, String sortField) {
         log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.BUSINESS.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         List<Business> businesses = businessMapper.findBusinessesPaged(offset, size, sortField);
         int total = businessMapper.countAllBusinesses();
@@ -72,9 +97,27 @@ public class BusinessServiceImpl implements BusinessService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public List<Business> searchBusinessesByName(String name) {
         log.debug("搜索招商加盟名称: {}", name);
-        return businessMapper.searchBusinessesByName(name);
+        return businessSearchIndex.searchAll(name);
+    }
+
+    @Override
+    public SearchResult<Business> searchBusinesses(String keyword, int page, int size) {
+        log.debug("搜索招商加盟名称: {}, page: {}, size: {}", keyword, page, size);
+        return businessSearchIndex.search(keyword, page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Business> getBusinessesByCursor(String cursor, int size, String sortField, boolean withTotal) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        CursorPage<Business> page = KeysetPaginator.page(cursor, size, sortField, SortSpecs.BUSINESS,
+                businessMapper::findBusinessesAfter, Business::getId);
+        if (withTotal) {
+            // 总数只在需要时查询，并短时缓存，避免每翻一页都执行一次COUNT(*)
+            page.setTotal(cacheManager.getCache(CacheNames.PAGE_TOTALS).get("businesses", () -> (long) businessMapper.countAllBusinesses()));
+        }
+        return page;
     }
 }
\ No newline at end of file
@@ -1,9 +1,22 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
+import com.cows.cache.SingleFlight;
+import com.cows.catalog.CatalogSnapshot;
+import com.cows.catalog.CatalogSnapshotHolder;
 import com.cows.entity.Carousel;
 import com.cows.mapper.CarouselMapper;
 import com.cows.service.CarouselService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -15,38 +28,76 @@ public class CarouselServiceImpl implements CarouselService {
     @Autowired
     private CarouselMapper carouselMapper;
 
+    @Autowired
+    private IdLookupGuard idLookupGuard;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
     @Override
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.CAROUSELS, key = CacheNames.ALL_KEY, condition = "!@catalogSnapshotHolder.ready", unless = "@singleFlight.servedStale()")
     public List<Carousel> getAllCarousels() {
-        return carouselMapper.findAllCarousels();
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.CAROUSELS);
+        if (snapshot != null) {
+            return snapshot.getCarousels().all();
+        }
+        return singleFlight.loadOrStale(CacheNames.CAROUSELS, CacheNames.ALL_KEY, carouselMapper::findAllCarousels);
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Cacheable(cacheNames = CacheNames.CAROUSEL, key = "#id", condition = "!@catalogSnapshotHolder.ready", unless = "#result == null")
     public Carousel getCarouselById(int id) {
-        return carouselMapper.findCarouselById(id);
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.CAROUSELS);
+        if (snapshot != null && snapshot.getCarousels().get(id) != null) {
+            return snapshot.getCarousels().get(id);
+        }
+        return idLookupGuard.find(IdFilterTable.CAROUSELS, id,
+                key -> singleFlight.load(CacheNames.CAROUSEL, key, () -> carouselMapper.findCarouselById(key)));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.CAROUSELS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int addCarousel(Carousel carousel) {
         if (carouselMapper.countByImageUrl(carousel.getImageUrl()) > 0) {
             throw new IllegalArgumentException("图片URL已存在");
         }
         carouselMapper.insertCarousel(carousel);
+        idLookupGuard.add(IdFilterTable.CAROUSELS, carousel.getId());
+        catalogSnapshotHolder.changed(CatalogTable.CAROUSELS);
         return carousel.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.CAROUSELS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.CAROUSEL, key = "#carousel.id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int updateCarousel(Carousel carousel) {
-        return carouselMapper.updateCarousel(carousel);
+        int updates = carouselMapper.updateCarousel(carousel);
+        catalogSnapshotHolder.changed(CatalogTable.CAROUSELS);
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.CAROUSELS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.CAROUSEL, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int deleteCarousel(int id) {
-        return carouselMapper.deleteCarousel(id);
+        int updates = carouselMapper.deleteCarousel(id);
+        catalogSnapshotHolder.changed(CatalogTable.CAROUSELS);
+        return updates;
     }
 
     @Override
@@ -56,10 +107,16 @@ public class CarouselServiceImpl implements CarouselService {
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("页码必须为非负数，且每页大小必须为正数");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "order";  // 默认按 order 字段排序
-        }
+        sortField = SortSpecs.CAROUSEL.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         return carouselMapper.getAllCarousels(offset, size, sortField);
     }
-}
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Carousel> getCarouselsByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.CAROUSEL,
+                carouselMapper::findCarouselsAfter, Carousel::getId);
+    }
+}
\ No newline at end of file
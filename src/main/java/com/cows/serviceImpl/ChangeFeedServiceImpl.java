@@ -0,0 +1,130 @@
+package com.cows.serviceImpl;
+
+import com.cows.cache.CatalogTable;
+import com.cows.commons.page.ChangeQuery;
+import com.cows.commons.page.ChangeToken;
+import com.cows.dto.ChangeSet;
+import com.cows.dto.ChangesDTO;
+import com.cows.entity.Brand;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import com.cows.entity.ProductsCarousels;
+import com.cows.exception.InvalidCursorException;
+import com.cows.mapper.BrandMapper;
+import com.cows.mapper.CarouselMapper;
+import com.cows.mapper.CatalogVersionMapper;
+import com.cows.mapper.ProductCategoryMapper;
+import com.cows.mapper.ProductMapper;
+import com.cows.mapper.ProductsCarouselsMapper;
+import com.cows.service.ChangeFeedService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 目录数据增量同步
+ * 每张表按 (updateTime, id) 在updateTime索引上做范围扫描，只返回令牌位置之后的新增、修改和逻辑删除的行；
+ * 截止时间取数据库当前时间往前commit-lag-seconds秒：updateTime在语句执行时生成，事务提交可能更晚，
+ * 不回看一段时间的话，提交较慢的行的updateTime会落在已同步的范围内而被漏掉。
+ * 执行时间超过commit-lag-seconds的写事务仍然可能被漏掉：它提交时截止时间已经越过了它的updateTime，
+ * 之后只能等这些行再次修改或客户端全量同步时才能拿到，所以这个值要大于最长的目录写事务时间
+ */
+@Slf4j
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    public static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private CatalogVersionMapper catalogVersionMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductCategoryMapper productCategoryMapper;
+
+    @Autowired
+    private BrandMapper brandMapper;
+
+    @Autowired
+    private CarouselMapper carouselMapper;
+
+    @Autowired
+    private ProductsCarouselsMapper productsCarouselsMapper;
+
+    @Value("${changes.commit-lag-seconds:5}")
+    private int commitLagSeconds;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangesDTO getChanges(String since, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new InvalidCursorException("每次返回的行数必须在1到" + MAX_LIMIT + "之间");
+        }
+        ChangeToken token = since == null || since.isEmpty() ? new ChangeToken() : ChangeToken.decode(since);
+        String until = catalogVersionMapper.findTimeBefore(commitLagSeconds);
+        ChangeToken next = new ChangeToken();
+
+        ChangesDTO changes = new ChangesDTO();
+        changes.setProducts(collect(CatalogTable.PRODUCTS, token, next, until, limit,
+                productMapper::findProductsChangedAfter, Product::getId, Product::getUpdateTime, Product::isDeleted));
+        changes.setProductCategories(collect(CatalogTable.PRODUCT_CATEGORIES, token, next, until, limit,
+                productCategoryMapper::findProductCategoriesChangedAfter, ProductCategory::getId,
+                ProductCategory::getUpdateTime, ProductCategory::isDeleted));
+        changes.setBrands(collect(CatalogTable.BRANDS, token, next, until, limit,
+                brandMapper::findBrandsChangedAfter, Brand::getId, Brand::getUpdateTime, Brand::isDeleted));
+        changes.setCarousels(collect(CatalogTable.CAROUSELS, token, next, until, limit,
+                carouselMapper::findCarouselsChangedAfter, Carousel::getId, Carousel::getUpdateTime, Carousel::isDeleted));
+        changes.setProductsCarousels(collect(CatalogTable.PRODUCTS_CAROUSELS, token, next, until, limit,
+                productsCarouselsMapper::findProductsCarouselsChangedAfter, ProductsCarousels::getId,
+                ProductsCarousels::getUpdateTime, ProductsCarousels::isDeleted));
+        changes.setToken(next.encode());
+        changes.setHasMore(changes.getProducts().isHasMore() || changes.getProductCategories().isHasMore()
+                || changes.getBrands().isHasMore() || changes.getCarousels().isHasMore()
+                || changes.getProductsCarousels().isHasMore());
+        return changes;
+    }
+
+    /**
+     * 查询一张表令牌位置之后的变更，并把这张表在新令牌中的位置移到返回的最后一行；
+     * 已经返回完的表直接移到截止时间，下次从截止时间开始扫描
+     */
+    private <T> ChangeSet<T> collect(CatalogTable table, ChangeToken since, ChangeToken next, String until, int limit,
+                                     Function<ChangeQuery, List<T>> query, ToIntFunction<T> idOf,
+                                     Function<T, String> updateTimeOf, Predicate<T> deleted) {
+        ChangeToken.Position position = since.positionOf(table);
+        ChangeQuery changeQuery = new ChangeQuery(position == null ? null : position.getLastTime(),
+                position == null ? null : position.getLastId(), until, limit + 1);
+        List<T> rows = query.apply(changeQuery);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+            T last = rows.get(rows.size() - 1);
+            next.moveTo(table, updateTimeOf.apply(last), idOf.applyAsInt(last));
+        } else {
+            next.moveTo(table, until, 0);
+        }
+
+        List<T> upserts = new ArrayList<>();
+        List<Integer> deletedIds = new ArrayList<>();
+        for (T row : rows) {
+            if (deleted.test(row)) {
+                deletedIds.add(idOf.applyAsInt(row));
+            } else {
+                upserts.add(row);
+            }
+        }
+        log.debug("{}增量变更: 修改={}, 删除={}, hasMore={}", table.getTableName(), upserts.size(), deletedIds.size(), hasMore);
+        return new ChangeSet<>(upserts, deletedIds, hasMore);
+    }
+}
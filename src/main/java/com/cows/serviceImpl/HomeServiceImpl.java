@@ -0,0 +1,185 @@
+package com.cows.serviceImpl;
+
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.SingleFlight;
+import com.cows.dto.HomePageDTO;
+import com.cows.service.AboutService;
+import com.cows.service.BasicInformationService;
+import com.cows.service.BrandAuthorizationCertificateService;
+import com.cows.service.BrandService;
+import com.cows.service.CarouselService;
+import com.cows.service.CatalogVersionService;
+import com.cows.service.HomeService;
+import com.cows.service.ProductCategoryService;
+import com.cows.service.ProductService;
+import com.cows.service.ProductsCarouselsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 官网首页聚合
+ * 各栏目在固定大小的线程池中并行加载，每个栏目单独限时；超时、出错或线程池已满的栏目返回上次成功加载的数据，
+ * 不让一个慢栏目拖住整个首页。完整的结果按首页涉及的全部表的数据版本缓存，数据修改后版本变化自然失效；
+ * 有降级栏目或栏目读到了single-flight返回的旧结果时不缓存
+ */
+@Slf4j
+@Service
+public class HomeServiceImpl implements HomeService {
+
+    /**
+     * 首页用到的全部表，任何一张表变化都会生成新的缓存键
+     */
+    private static final CatalogTable[] TABLES = {
+            CatalogTable.CAROUSELS, CatalogTable.PRODUCTS_CAROUSELS, CatalogTable.PRODUCT_CATEGORIES,
+            CatalogTable.PRODUCTS, CatalogTable.BASIC_INFORMATION, CatalogTable.ABOUT,
+            CatalogTable.BRAND_AUTHORIZATION_CERTIFICATES, CatalogTable.BRANDS};
+
+    @Autowired
+    private CarouselService carouselService;
+
+    @Autowired
+    private ProductsCarouselsService productsCarouselsService;
+
+    @Autowired
+    private ProductCategoryService productCategoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BasicInformationService basicInformationService;
+
+    @Autowired
+    private AboutService aboutService;
+
+    @Autowired
+    private BrandAuthorizationCertificateService brandAuthorizationCertificateService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${home.section-timeout-ms:1000}")
+    private long sectionTimeoutMs;
+
+    @Value("${home.workers:16}")
+    private int workers;
+
+    @Value("${home.queue-size:128}")
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+    /**
+     * 各栏目最近一次成功加载的数据，用于降级
+     */
+    private final Map<String, Object> lastLoaded = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "home-section-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public HomePageDTO getHomePage() {
+        String key = catalogVersionService.etagOf(catalogVersionService.versionOf(TABLES));
+        Cache cache = cacheManager.getCache(CacheNames.HOME_PAGE);
+        HomePageDTO cached = cache.get(key, HomePageDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        AtomicBoolean servedStale = new AtomicBoolean();
+        HomePageDTO home = load(servedStale);
+        if (home.getDegradedSections().isEmpty() && !servedStale.get()) {
+            cache.put(key, home);
+        }
+        return home;
+    }
+
+    private HomePageDTO load(AtomicBoolean servedStale) {
+        Set<String> degraded = ConcurrentHashMap.newKeySet();
+        var carousels = section("carousels", carouselService::getAllCarousels, degraded, servedStale);
+        var productsCarousels = section("productsCarousels", productsCarouselsService::getAllProductsCarouselsHydrated, degraded, servedStale);
+        var productCategories = section("productCategories", productCategoryService::getAllProductCategories, degraded, servedStale);
+        var products = section("products", productService::getAllProducts, degraded, servedStale);
+        var basicInformation = section("basicInformation", basicInformationService::getAllBasicInformation, degraded, servedStale);
+        var abouts = section("abouts", aboutService::getAllAbouts, degraded, servedStale);
+        var certificates = section("certificates", brandAuthorizationCertificateService::getAllCertificates, degraded, servedStale);
+        var brands = section("brands", brandService::getAllBrands, degraded, servedStale);
+        // 每个栏目都有超时兜底，join不会超过一个栏目的超时时间
+        CompletableFuture.allOf(carousels, productsCarousels, productCategories, products,
+                basicInformation, abouts, certificates, brands).join();
+        List<String> degradedSections = new ArrayList<>(degraded);
+        Collections.sort(degradedSections);
+        return new HomePageDTO(carousels.join(), productsCarousels.join(), productCategories.join(), products.join(),
+                basicInformation.join(), abouts.join(), certificates.join(), brands.join(), degradedSections);
+    }
+
+    /**
+     * 提交一个栏目的加载任务
+     * 超时后任务不取消，晚到的结果仍会更新降级数据
+     * @param servedStale 栏目读到single-flight返回的旧结果时设置
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<List<T>> section(String name, Supplier<List<T>> loader, Set<String> degraded,
+                                                   AtomicBoolean servedStale) {
+        CompletableFuture<List<T>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                List<T> value = singleFlight.track(servedStale, loader);
+                if (value != null) {
+                    lastLoaded.put(name, value);
+                }
+                return value;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("首页栏目加载失败，使用上次的数据: {}, {}", name, e.toString());
+                    degraded.add(name);
+                    return (List<T>) lastLoaded.getOrDefault(name, Collections.emptyList());
+                });
+    }
+}
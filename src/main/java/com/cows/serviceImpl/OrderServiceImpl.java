@@ -1,5 +1,10 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
 import com.cows.entity.Order;
 import com.cows.mapper.OrderMapper;
 import com.cows.service.OrderService;
@@ -15,16 +20,19 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private IdLookupGuard idLookupGuard;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderMapper.findAllOrders();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Order getOrderById(int id) {
-        return orderMapper.findOrderById(id);
+        return idLookupGuard.find(IdFilterTable.ORDERS, id, orderMapper::findOrderById);
     }
 
     @Override
@@ -34,6 +42,7 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Total price cannot be null");
         }
         orderMapper.insertOrder(order);
+        idLookupGuard.add(IdFilterTable.ORDERS, order.getId());
         return order.getId();
     }
 
@@ -66,12 +75,17 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
 
-        // 检查sortField参数的有效性
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id"; // 使用一个默认的排序字段
-        }
+        sortField = SortSpecs.ORDER.column(sortField);  // 只允许白名单中的排序字段
 
         int offset = page * size;
         return orderMapper.getAllOrders(offset, size, sortField);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.ORDER,
+                orderMapper::findOrdersAfter, Order::getId);
+    }
 }
\ No newline at end of file
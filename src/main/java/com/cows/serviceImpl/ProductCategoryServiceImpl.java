@@ -1,9 +1,23 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
+import com.cows.cache.SingleFlight;
+import com.cows.catalog.CatalogSnapshot;
+import com.cows.catalog.CatalogSnapshotHolder;
 import com.cows.entity.ProductCategory;
 import com.cows.mapper.ProductCategoryMapper;
+import com.cows.search.ProductSuggester;
 import com.cows.service.ProductCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -15,48 +29,98 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
     @Autowired
     private ProductCategoryMapper productCategoryMapper;
 
+    @Autowired
+    private IdLookupGuard idLookupGuard;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Cacheable(cacheNames = CacheNames.PRODUCT_CATEGORIES, key = CacheNames.ALL_KEY, condition = "!@catalogSnapshotHolder.ready", unless = "@singleFlight.servedStale()")
     public List<ProductCategory> getAllProductCategories() {
-        return productCategoryMapper.findAllProductCategories();
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCT_CATEGORIES);
+        if (snapshot != null) {
+            return snapshot.getProductCategories().all();
+        }
+        return singleFlight.loadOrStale(CacheNames.PRODUCT_CATEGORIES, CacheNames.ALL_KEY, productCategoryMapper::findAllProductCategories);
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Cacheable(cacheNames = CacheNames.PRODUCT_CATEGORY, key = "#id", condition = "!@catalogSnapshotHolder.ready", unless = "#result == null")
     public ProductCategory getProductCategoryById(int id) {
-        return productCategoryMapper.findProductCategoryById(id);
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCT_CATEGORIES);
+        if (snapshot != null && snapshot.getProductCategories().get(id) != null) {
+            return snapshot.getProductCategories().get(id);
+        }
+        return idLookupGuard.find(IdFilterTable.PRODUCT_CATEGORIES, id,
+                key -> singleFlight.load(CacheNames.PRODUCT_CATEGORY, key, () -> productCategoryMapper.findProductCategoryById(key)));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int addProductCategory(ProductCategory productCategory) {
         productCategoryMapper.insertProductCategory(productCategory);
+        idLookupGuard.add(IdFilterTable.PRODUCT_CATEGORIES, productCategory.getId());
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCT_CATEGORIES);
+        productSuggester.requestRebuild();
         return productCategory.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_CATEGORY, key = "#productCategory.id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int updateProductCategory(ProductCategory productCategory) {
-        return productCategoryMapper.updateProductCategory(productCategory);
+        int updates = productCategoryMapper.updateProductCategory(productCategory);
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCT_CATEGORIES);
+        productSuggester.requestRebuild();
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_CATEGORY, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int deleteProductCategory(int id) {
-        return productCategoryMapper.deleteProductCategory(id);
+        int updates = productCategoryMapper.deleteProductCategory(id);
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCT_CATEGORIES);
+        productSuggester.requestRebuild();
+        return updates;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<ProductCategory> getProductCategoriesPaged(int page, int size, String sortField) {
         log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.PRODUCT_CATEGORY.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         return productCategoryMapper.findProductCategoriesPaged(offset, size, sortField);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductCategory> getProductCategoriesByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.PRODUCT_CATEGORY,
+                productCategoryMapper::findProductCategoriesAfter, ProductCategory::getId);
+    }
 }
\ No newline at end of file
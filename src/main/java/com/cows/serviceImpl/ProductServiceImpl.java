@@ -1,9 +1,26 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
+import com.cows.cache.SingleFlight;
+import com.cows.catalog.CatalogSnapshot;
+import com.cows.catalog.CatalogSnapshotHolder;
 import com.cows.entity.Product;
 import com.cows.mapper.ProductMapper;
+import com.cows.search.ProductSearchIndex;
+import com.cows.search.ProductSuggester;
+import com.cows.search.SearchResult;
 import com.cows.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,51 +38,132 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private IdLookupGuard idLookupGuard;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Cacheable(cacheNames = CacheNames.PRODUCTS, key = CacheNames.ALL_KEY, condition = "!@catalogSnapshotHolder.ready", unless = "@singleFlight.servedStale()")
     public List<Product> getAllProducts() {
-        return productMapper.findAllProducts();
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCTS);
+        if (snapshot != null) {
+            return snapshot.getProducts().all();
+        }
+        return loadAllProductsOrStale();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Cacheable(cacheNames = CacheNames.PRODUCT, key = "#id", condition = "!@catalogSnapshotHolder.ready", unless = "#result == null")
     public Product getProductById(int id) {
-        Product product = productMapper.findProductById(id);
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCTS);
+        if (snapshot != null && snapshot.getProducts().get(id) != null) {
+            return snapshot.getProducts().get(id);
+        }
+        Product product = idLookupGuard.find(IdFilterTable.PRODUCTS, id,
+                key -> singleFlight.load(CacheNames.PRODUCT, key, () -> productMapper.findProductById(key)));
         if (product != null && product.getDetailImages() == null) {
             product.setDetailImages(new String[0]); // 或者设置为默认值
         }
         return product;
     }
 
+    @Override
+    public List<Product> getProductsByCategory(int categoryId) {
+        // 快照过期时先用上一个快照的分组，后台重建完成后自动换成新的，不退回全表查询
+        CatalogSnapshot snapshot = catalogSnapshotHolder.currentOrLatest(CatalogTable.PRODUCTS);
+        if (snapshot != null) {
+            return snapshot.productsOfCategory(categoryId);
+        }
+        // 第一个快照构建完成前，与商品列表共用合并后的查询结果
+        return loadAllProductsOrStale().stream()
+                .filter(product -> product.getCategoryId() == categoryId)
+                .toList();
+    }
+
+    @Override
+    public List<Product> getProductsByBrand(String brand) {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.currentOrLatest(CatalogTable.PRODUCTS);
+        if (snapshot != null) {
+            return snapshot.productsOfBrand(brand);
+        }
+        return loadAllProductsOrStale().stream()
+                .filter(product -> brand.equals(product.getBrand()))
+                .toList();
+    }
+
+    private List<Product> loadAllProductsOrStale() {
+        return singleFlight.loadOrStale(CacheNames.PRODUCTS, CacheNames.ALL_KEY, productMapper::findAllProducts);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int addProduct(Product product) {
         productMapper.insertProduct(product);
+        idLookupGuard.add(IdFilterTable.PRODUCTS, product.getId());
+        productSearchIndex.refresh(product.getId());
+        productSuggester.requestRebuild();
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS);
         return product.getId();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.PRODUCT, key = "#product.id"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int updateProduct(Product product) {
-        return productMapper.updateProduct(product);
+        int updates = productMapper.updateProduct(product);
+        productSearchIndex.refresh(product.getId());
+        productSuggester.requestRebuild();
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS);
+        return updates;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.PRODUCT, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int deleteProduct(int id) {
-        return productMapper.deleteProduct(id);
+        int updates = productMapper.deleteProduct(id);
+        productSearchIndex.remove(id);
+        productSuggester.requestRebuild();
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS);
+        return updates;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public Map<String, Object> getProductsPaged(int page, int size, String sortField) {
         log.debug("page: {}, size: {}, sortField: {}", page, size, sortField);
         if (page < 0 || size <= 0) {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";
-        }
+        sortField = SortSpecs.PRODUCT.column(sortField);  // 只允许白名单中的排序字段
         int offset = page * size;
         List<Product> products = productMapper.findProductsPaged(offset, size, sortField);
         int total = productMapper.countAllProducts();
@@ -76,9 +174,27 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public List<Product> searchProductsByName(String name) {
         log.debug("搜索商品名称: {}", name);
-        return productMapper.searchProductsByName(name);
+        return productSearchIndex.searchAll(name);
+    }
+
+    @Override
+    public SearchResult<Product> searchProducts(String keyword, int page, int size) {
+        log.debug("搜索商品名称: {}, page: {}, size: {}", keyword, page, size);
+        return productSearchIndex.search(keyword, page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsByCursor(String cursor, int size, String sortField, boolean withTotal) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        CursorPage<Product> page = KeysetPaginator.page(cursor, size, sortField, SortSpecs.PRODUCT,
+                productMapper::findProductsAfter, Product::getId);
+        if (withTotal) {
+            // 总数只在需要时查询，并短时缓存，避免每翻一页都执行一次COUNT(*)
+            page.setTotal(cacheManager.getCache(CacheNames.PAGE_TOTALS).get("products", () -> (long) productMapper.countAllProducts()));
+        }
+        return page;
     }
 }
\ No newline at end of file
@@ -1,18 +1,47 @@
 package com.cows.serviceImpl;
 
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.SingleFlight;
+import com.cows.catalog.CatalogSnapshot;
+import com.cows.catalog.CatalogSnapshotHolder;
+import com.cows.dto.ProductsCarouselsDTO;
+import com.cows.entity.Product;
 import com.cows.entity.ProductsCarousels;
+import com.cows.mapper.ProductMapper;
 import com.cows.mapper.ProductsCarouselsMapper;
 import com.cows.service.ProductsCarouselsService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 @Service
 public class ProductsCarouselsServiceImpl implements ProductsCarouselsService {
 
     @Autowired
     private ProductsCarouselsMapper productsCarouselsMapper;
 
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
     @Override
     public List<ProductsCarousels> getAllProductsCarousels() {
         return productsCarouselsMapper.findAllProductsCarousels();
@@ -24,17 +53,87 @@ public class ProductsCarouselsServiceImpl implements ProductsCarouselsService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int addProductsCarousels(ProductsCarousels productsCarousels) {
-        return productsCarouselsMapper.insertProductsCarousels(productsCarousels);
+        int updates = productsCarouselsMapper.insertProductsCarousels(productsCarousels);
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS_CAROUSELS);
+        return updates;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int updateProductsCarousels(ProductsCarousels productsCarousels) {
-        return productsCarouselsMapper.updateProductsCarousels(productsCarousels);
+        int updates = productsCarouselsMapper.updateProductsCarousels(productsCarousels);
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS_CAROUSELS);
+        return updates;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.RESPONSE_BODIES, allEntries = true)
+    })
     public int deleteProductsCarousels(int id) {
-        return productsCarouselsMapper.deleteProductsCarousels(id);
+        int updates = productsCarouselsMapper.deleteProductsCarousels(id);
+        catalogSnapshotHolder.changed(CatalogTable.PRODUCTS_CAROUSELS);
+        return updates;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, key = CacheNames.ALL_KEY, condition = "!@catalogSnapshotHolder.ready", unless = "@singleFlight.servedStale()")
+    public List<ProductsCarouselsDTO> getAllProductsCarouselsHydrated() {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCTS_CAROUSELS, CatalogTable.PRODUCTS);
+        if (snapshot != null) {
+            return snapshot.getProductsCarousels().all();
+        }
+        return singleFlight.loadOrStale(CacheNames.PRODUCTS_CAROUSELS_HYDRATED, CacheNames.ALL_KEY,
+                () -> hydrate(productsCarouselsMapper.findAllProductsCarousels()));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS_CAROUSELS_HYDRATED, key = "#id", condition = "!@catalogSnapshotHolder.ready", unless = "#result == null")
+    public ProductsCarouselsDTO getProductsCarouselsHydratedById(int id) {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current(CatalogTable.PRODUCTS_CAROUSELS, CatalogTable.PRODUCTS);
+        if (snapshot != null && snapshot.getProductsCarousels().get(id) != null) {
+            return snapshot.getProductsCarousels().get(id);
+        }
+        ProductsCarousels productsCarousels = productsCarouselsMapper.findProductsCarouselsById(id);
+        if (productsCarousels == null) {
+            return null;
+        }
+        return hydrate(Collections.singletonList(productsCarousels)).get(0);
+    }
+
+    /**
+     * 把所有配置中的商品ID合并去重后用一次IN查询取回，再按各配置中的顺序回填
+     */
+    private List<ProductsCarouselsDTO> hydrate(List<ProductsCarousels> configs) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (ProductsCarousels config : configs) {
+            if (config.getProducts() != null) {
+                for (int productId : config.getProducts()) {
+                    ids.add(productId);
+                }
+            }
+        }
+        Map<Integer, Product> productsById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productMapper.findProductsByIds(ids)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+        log.debug("回填横向轮播图商品: 配置数={}, 商品ID数={}, 命中商品数={}", configs.size(), ids.size(), productsById.size());
+
+        List<ProductsCarouselsDTO> result = new ArrayList<>(configs.size());
+        for (ProductsCarousels config : configs) {
+            result.add(ProductsCarouselsDTO.of(config, productsById));
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
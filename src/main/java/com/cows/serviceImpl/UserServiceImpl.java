@@ -1,19 +1,32 @@
 package com.cows.serviceImpl;
 
+import com.cows.commons.page.CursorPage;
+import com.cows.commons.page.KeysetPaginator;
+import com.cows.commons.page.SortSpecs;
+import com.cows.cache.CacheNames;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
 import com.cows.entity.User;
 import com.cows.entity.WechatUser;
 import com.cows.service.UserService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import com.cows.mapper.UserMapper;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * UserService接口的实现类
@@ -32,7 +45,19 @@ public class UserServiceImpl implements UserService {
 
     @Autowired
     private PasswordEncoder passwordEncoder;  // 自动注入PasswordEncoder
+
+    @Autowired
+    private IdLookupGuard idLookupGuard;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
+    @Value("${user.update.max-attempts:3}")
+    private int maxUpdateAttempts;
+
     @Resource
     private ApplicationContext applicationContext;// 使用ApplicationContext来访问Spring容器中的Bean和资源，如数据库连接、消息服务、定时任务等。通过注入ApplicationContext实例，可以方便地在代码中使用这些资源。
 
@@ -45,18 +70,18 @@ public class UserServiceImpl implements UserService {
         this.userMapper = userMapper;
     }
 
-    // 获取所有用户
+    // 获取所有用户（一致性快照读，不加锁）
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userMapper.findAllUsers();
     }
 
-    // 通过id查找用户
+    // 通过id查找用户（一致性快照读，不加锁）
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public User getUserById(int id) {
-        return userMapper.findUserById(id);
+        return idLookupGuard.find(IdFilterTable.USERS, id, userMapper::findUserById);
     }
     // 添加用户
     @Override
@@ -66,17 +91,67 @@ public class UserServiceImpl implements UserService {
         String encodedPassword = passwordEncoder.encode(user.getPassword());
         user.setPassword(encodedPassword);// 设置加密后的密码
         userMapper.insertUser(user);
+        idLookupGuard.add(IdFilterTable.USERS, user.getId());
         return user.getId(); // 返回新生成的用户ID
     }
-    // 更新用户
+    /**
+     * 更新用户，按版本号比较并更新
+     * 传入版本号时只尝试一次，版本已变化说明调用方读到的数据过期，抛出OptimisticLockingFailureException；
+     * 不传版本号时读取最新版本后更新，冲突时短暂退避后重读重试，最多尝试user.update.max-attempts次
+     * 每次尝试是一个独立的短事务，退避等待时不占用数据库连接，重读时也能看到其他事务刚提交的版本号；
+     * 调用方已在事务中时只尝试一次，不在事务内等待
+     * @return 1成功 0用户不存在
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public int updateUser(User user) {
         log.info("Updating user: {}", user);  // 添加日志
+        if (user.getVersion() != null) {
+            return transactionTemplate.execute(status -> updateWithVersion(user));
+        }
+        int maxAttempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxUpdateAttempts;
+        for (int attempt = 1; ; attempt++) {
+            Integer updates = transactionTemplate.execute(status -> updateLatestVersion(user));
+            if (updates != null) {
+                return updates;
+            }
+            if (attempt >= maxAttempts) {
+                user.setVersion(null);
+                throw new OptimisticLockingFailureException("用户更新冲突，已尝试" + attempt + "次: " + user.getId());
+            }
+            log.debug("用户更新版本冲突，重试: id={}, attempt={}", user.getId(), attempt);
+            backOff(attempt);
+        }
+    }
+
+    private int updateWithVersion(User user) {
+        int updates = userMapper.updateUser(user);
+        if (updates == 0 && userMapper.findUserById(user.getId()) != null) {
+            throw new OptimisticLockingFailureException("用户已被修改，请刷新后重试: " + user.getId());
+        }
+        if (updates > 0) {
+            user.setVersion(user.getVersion() + 1);
+        }
+        return updates;
+    }
+
+    /**
+     * 读取最新版本号后更新一次
+     * @return 更新的行数，用户不存在时为0；版本冲突时返回null
+     */
+    private Integer updateLatestVersion(User user) {
+        User current = userMapper.findUserById(user.getId());
+        if (current == null) {
+            return 0;
+        }
+        user.setVersion(current.getVersion());
         int updates = userMapper.updateUser(user);
-        // 返回的执行结果  1成功 0
+        if (updates == 0) {
+            return null;
+        }
+        user.setVersion(current.getVersion() + 1);
         return updates;
     }
+
     // 删除用户
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -86,6 +161,18 @@ public class UserServiceImpl implements UserService {
         return updates;
     }
 
+    /**
+     * 随机退避，错开并发更新同一用户的请求
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("用户更新重试被中断");
+        }
+    }
+
     // 插入用户
     @Override
     @Transactional
@@ -105,48 +192,79 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Page must be non-negative and size must be positive");
         }
 
-        // 检查sortField参数的有效性
-        if (sortField == null || sortField.isEmpty()) {
-            sortField = "id";  // 使用一个默认的排序字段
-        }
+        sortField = SortSpecs.USER.column(sortField);  // 只允许白名单中的排序字段
 
         int offset = page * size;
         return userMapper.getAllUsers(offset, size, sortField);
     }
 
-    // 通过微信openid查找用户
+    /**
+     * 通过微信openid查找用户
+     * openid到用户ID的映射先查本地缓存，命中时只按主键读取用户；未命中时按openid查询并记录映射
+     */
     @Override
     public User findByWechatOpenId(String openId) {
-        return userMapper.findByWechatOpenId(openId);
+        User user = findCachedWechatUser(openId);
+        if (user == null) {
+            user = userMapper.findByWechatOpenId(openId);
+            if (user != null) {
+                cacheManager.getCache(CacheNames.WECHAT_USER_IDS).put(openId, user.getId());
+            }
+        }
+        return user;
     }
 
-    // 登录或创建微信用户
+    /**
+     * 登录或创建微信用户
+     * 已登录过的openid命中缓存，只按主键读取用户；否则按wechat_openid唯一索引一条语句插入或取回已有用户的ID，
+     * 并发的回调不会重复创建用户
+     */
     @Override
     public User loginOrCreateWechatUser(WechatUser wechatUser) {
-        User user = userMapper.findByWechatOpenId(wechatUser.getOpenId());
+        String openId = wechatUser.getOpenId();
+        if (openId == null || openId.isEmpty()) {
+            throw new IllegalArgumentException("微信openid不能为空");
+        }
+        User cached = findCachedWechatUser(openId);
+        if (cached != null) {
+            log.debug("已有微信用户，登录: id={}", cached.getId());
+            return cached;
+        }
+
+        User user = new User();
+        user.setWechatOpenId(openId);
+        // 随机字母+数字
+        user.setUserName(RandomStringUtils.randomAlphanumeric(10)); // 示例：设置默认用户名，实际应用中应根据实际情况设置
+        user.setPassword("123456"); // 示例：设置默认密码，实际应用中应根据实际情况设置
+        userMapper.upsertWechatUser(user);
+        if (user.getId() == 0) {
+            throw new IllegalStateException("创建微信用户失败: " + openId);
+        }
+        // 已有用户时重复加入布隆过滤器没有影响
+        idLookupGuard.add(IdFilterTable.USERS, user.getId());
+        cacheManager.getCache(CacheNames.WECHAT_USER_IDS).put(openId, user.getId());
+        // 按主键读取完整的用户，开启读写分离时刚写入后的读取走主库
+        User saved = userMapper.findUserById(user.getId());
+        if (saved == null) {
+            throw new IllegalStateException("创建微信用户失败: " + openId);
+        }
+        log.info("微信用户登录: id={}, userName={}", saved.getId(), saved.getUserName());
+        return saved;
+    }
+
+    /**
+     * 按缓存的openid映射读取用户
+     * @return 没有缓存映射，或映射的用户读不到（从库尚未同步、已被物理删除）时返回null
+     */
+    private User findCachedWechatUser(String openId) {
+        Cache userIds = cacheManager.getCache(CacheNames.WECHAT_USER_IDS);
+        Integer userId = userIds.get(openId, Integer.class);
+        if (userId == null) {
+            return null;
+        }
+        User user = getUserById(userId);
         if (user == null) {
-            user = new User();
-            System.out.println("创建微信用户");
-            log.info("wechatUser.getOpenId()："+wechatUser.getOpenId());
-            // 设置其他必要属性，例如用户名等
-            user.setWechatOpenId(wechatUser.getOpenId());
-            // 随机字母+数字
-            String randomString = RandomStringUtils.randomAlphanumeric(10);
-            user.setUserName(randomString); // 示例：设置默认用户名，实际应用中应根据实际情况设置
-            user.setPassword("123456"); // 示例：设置默认密码，实际应用中应根据实际情况设置
-            user.setDeleted(false);
-            user.setEnable(true);
-            userMapper.insertUser(user);
-            // 确保新插入的用户ID被设置
-            user = userMapper.findByWechatOpenId(wechatUser.getOpenId());
-            // 判断是否插入成功
-            if (user == null) {
-                throw new RuntimeException("创建微信用户失败");
-            }
-            // 调试输出
-            System.out.println("创建微信用户成功");
-        } else {
-            System.out.println("已有微信用户，不创建，登录微信用户");
+            userIds.evict(openId);
         }
         return user;
     }
@@ -164,5 +282,11 @@ public class UserServiceImpl implements UserService {
 //        return user;
 //    }
 
-
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersByCursor(String cursor, int size, String sortField) {
+        log.debug("cursor: {}, size: {}, sortField: {}", cursor, size, sortField);
+        return KeysetPaginator.page(cursor, size, sortField, SortSpecs.USER,
+                userMapper::findUsersAfter, User::getId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.cows.upload;
+
+import com.cows.mapper.UploadFileNameMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 多节点部署用的文件名索引，映射保存在 UploadFileNames 表中
+ * 存储名由文件内容决定，同一存储名在文件删除后可能被重新上传、换成别的展示名，其他节点的本地缓存不会收到通知，
+ * 所以查到的结果只在本节点缓存 cache-ttl，各节点最多在这段时间内返回不同的展示名
+ */
+@Component
+@ConditionalOnProperty(prefix = "upload.name-index", name = "type", havingValue = "db")
+public class DatabaseFileNameIndex implements FileNameIndex {
+
+    private static final int CACHE_SIZE = 10_000;
+
+    @Autowired
+    private UploadFileNameMapper uploadFileNameMapper;
+
+    @Value("${upload.name-index.cache-ttl:10m}")
+    private Duration cacheTtl;
+
+    private Cache<String, String> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder().maximumSize(CACHE_SIZE).expireAfterWrite(cacheTtl).build();
+    }
+
+    @Override
+    public void put(String storageName, String displayName) {
+        if (displayName == null) {
+            displayName = "";
+        }
+        uploadFileNameMapper.upsertFileName(storageName, displayName);
+        cache.put(storageName, displayName);
+    }
+
+    @Override
+    public void putIfAbsent(String storageName, String displayName) {
+        uploadFileNameMapper.insertFileNameIfAbsent(storageName, displayName == null ? "" : displayName);
+        // 不知道保存的是不是这次的展示名，下次查询时从表中读取
+        cache.invalidate(storageName);
+    }
+
+    @Override
+    public String get(String storageName) {
+        String displayName = cache.getIfPresent(storageName);
+        if (displayName == null) {
+            displayName = uploadFileNameMapper.findDisplayName(storageName);
+            // 不缓存未命中，文件可能刚由其他节点上传
+            if (displayName != null) {
+                cache.put(storageName, displayName);
+            }
+        }
+        return displayName;
+    }
+
+    @Override
+    public void remove(String storageName) {
+        uploadFileNameMapper.deleteFileName(storageName);
+        cache.invalidate(storageName);
+    }
+}
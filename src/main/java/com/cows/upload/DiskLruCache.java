@@ -0,0 +1,129 @@
+package com.cows.upload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 按总字节数限制大小的磁盘文件缓存，超出上限时删除最久未访问的文件
+ * 访问顺序只记录在内存中，重启时按文件修改时间恢复；写入先写临时文件，完成后原子改名，读者不会看到写了一半的文件
+ */
+@Slf4j
+public class DiskLruCache {
+
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    private final Path dir;
+    private final long maxBytes;
+    /**
+     * 文件名 -> 大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public DiskLruCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 加载目录中已有的文件，清理上次遗留的临时文件
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        files.sort(Comparator.comparing(DiskLruCache::lastModified));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(TEMP_PREFIX)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            long size = Files.size(file);
+            entries.put(name, size);
+            totalBytes += size;
+        }
+        evict();
+        log.info("磁盘缓存加载完成: {}, 文件数={}, 大小={}", dir, entries.size(), totalBytes);
+    }
+
+    /**
+     * @return 缓存的文件，不存在时返回null
+     */
+    public synchronized Path get(String name) {
+        if (entries.get(name) == null) {
+            return null;
+        }
+        Path file = dir.resolve(name);
+        if (!Files.exists(file)) {
+            totalBytes -= entries.remove(name);
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * 创建一个临时文件，写完后调用commit放入缓存
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(dir, TEMP_PREFIX, ".tmp");
+    }
+
+    /**
+     * 把写好的临时文件以指定名称放入缓存
+     */
+    public Path commit(Path temp, String name) throws IOException {
+        Path file = dir.resolve(name);
+        long size = Files.size(temp);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (this) {
+            Long old = entries.put(name, size);
+            totalBytes += size - (old == null ? 0 : old);
+            evict();
+        }
+        return file;
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 调用方需持有锁；已经在被读取的文件在Linux上删除后仍可读完
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("删除缓存文件失败: {}", eldest.getKey(), e);
+            }
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cows.upload;
+
+/**
+ * 上传文件的 存储名 -> 原始展示名 索引
+ * 默认实现为本机内存 + 磁盘日志（MappedLogFileNameIndex）；多节点部署时配置 upload.name-index.type=db 改用数据库表
+ */
+public interface FileNameIndex {
+
+    void put(String storageName, String displayName);
+
+    /**
+     * 存储名还没有展示名时才保存；按内容去重的上传共用存储名，展示名保留第一次上传时的
+     */
+    void putIfAbsent(String storageName, String displayName);
+
+    /**
+     * @return 原始展示名，不存在时返回null
+     */
+    String get(String storageName);
+
+    void remove(String storageName);
+}
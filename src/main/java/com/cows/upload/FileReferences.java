@@ -0,0 +1,90 @@
+package com.cows.upload;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一个上传文件的引用：持有者 -> 引用次数，序列化后作为引用计数存储中的值
+ * 格式为 "持有者=次数"，多个持有者以&分隔，持有者名经URL编码；
+ * 只有数字的旧格式以及按引用表重建出的引用没有持有者（UNOWNED），不能通过接口释放
+ */
+public final class FileReferences {
+
+    public static final String UNOWNED = "";
+
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+    private FileReferences() {
+    }
+
+    /**
+     * @param value 存储中的值，为null时返回没有引用的对象
+     */
+    public static FileReferences parse(String value) {
+        FileReferences references = new FileReferences();
+        if (value == null || value.isEmpty()) {
+            return references;
+        }
+        if (value.chars().allMatch(Character::isDigit)) {
+            references.add(UNOWNED, Integer.parseInt(value));
+            return references;
+        }
+        for (String entry : value.split("&")) {
+            int separator = entry.lastIndexOf('=');
+            references.add(URLDecoder.decode(entry.substring(0, separator), StandardCharsets.UTF_8),
+                    Integer.parseInt(entry.substring(separator + 1)));
+        }
+        return references;
+    }
+
+    public void add(String owner, int count) {
+        if (count > 0) {
+            counts.merge(owner, count, Integer::sum);
+        }
+    }
+
+    /**
+     * 释放持有者的一次引用
+     * @return 持有者没有引用时返回false
+     */
+    public boolean release(String owner) {
+        Integer count = counts.get(owner);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            counts.remove(owner);
+        } else {
+            counts.put(owner, count - 1);
+        }
+        return true;
+    }
+
+    public int countOf(String owner) {
+        return counts.getOrDefault(owner, 0);
+    }
+
+    public int total() {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return 存储中的值，没有引用时返回null
+     */
+    public String format() {
+        if (counts.isEmpty()) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (value.length() > 0) {
+                value.append('&');
+            }
+            value.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('=').append(entry.getValue());
+        }
+        return value.toString();
+    }
+}
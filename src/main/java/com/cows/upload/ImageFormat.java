@@ -0,0 +1,59 @@
+package com.cows.upload;
+
+/**
+ * 允许上传的图片格式，按文件头的魔数识别，不信任客户端给出的文件名后缀
+ */
+public enum ImageFormat {
+    JPEG("jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG("png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+    BMP("bmp", "image/bmp", new byte[]{'B', 'M'});
+
+    /**
+     * 识别格式需要读取的文件头长度
+     */
+    public static final int HEADER_LENGTH = 8;
+
+    private final String extension;
+    private final String contentType;
+    private final byte[] magic;
+
+    ImageFormat(String extension, String contentType, byte[] magic) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.magic = magic;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @param header 文件开头的字节
+     * @param length header中的有效长度
+     * @return 识别出的格式，不是允许的格式时返回null
+     */
+    public static ImageFormat detect(byte[] header, int length) {
+        for (ImageFormat format : values()) {
+            if (format.matches(header, length)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
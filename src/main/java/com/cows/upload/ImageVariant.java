@@ -0,0 +1,102 @@
+package com.cows.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.imageio.ImageIO;
+
+/**
+ * 图片的一个派生版本（缩放宽度、压缩质量、输出格式）
+ * 宽度和质量都归并到固定的档位，避免任意参数组合把磁盘缓存撑爆
+ */
+@Data
+@AllArgsConstructor
+public class ImageVariant {
+
+    /**
+     * 可选的宽度档位，请求的宽度向上取到最近的档位
+     */
+    public static final int[] WIDTHS = {64, 128, 256, 320, 480, 640, 750, 960, 1080, 1280, 1920};
+    public static final int DEFAULT_QUALITY = 80;
+
+    public static final String JPEG = "jpg";
+    public static final String PNG = "png";
+    public static final String WEBP = "webp";
+
+    private static final boolean WEBP_SUPPORTED = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+    /**
+     * 输出宽度，不超过原图宽度
+     */
+    private int width;
+    /**
+     * 1-100，只对有损格式有效
+     */
+    private int quality;
+    /**
+     * 输出格式：jpg、png、webp
+     */
+    private String format;
+
+    /**
+     * @param width        请求的宽度
+     * @param quality      请求的质量，null为默认值
+     * @param format       请求的格式，null时原图为png的保持png，其余输出jpg；当前JDK不支持webp时改为jpg
+     * @param sourceFormat 原图格式
+     * @throws IllegalArgumentException 参数超出范围或格式不支持
+     */
+    public static ImageVariant of(int width, Integer quality, String format, ImageFormat sourceFormat) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("宽度必须大于0");
+        }
+        int q = quality == null ? DEFAULT_QUALITY : quality;
+        if (q < 1 || q > 100) {
+            throw new IllegalArgumentException("质量必须在1到100之间");
+        }
+        String f;
+        if (format == null || format.isBlank()) {
+            f = sourceFormat == ImageFormat.PNG ? PNG : JPEG;
+        } else {
+            f = format.trim().toLowerCase();
+            if ("jpeg".equals(f)) {
+                f = JPEG;
+            }
+            if (!JPEG.equals(f) && !PNG.equals(f) && !WEBP.equals(f)) {
+                throw new IllegalArgumentException("不支持的图片格式: " + format);
+            }
+            if (WEBP.equals(f) && !WEBP_SUPPORTED) {
+                f = JPEG;
+            }
+        }
+        return new ImageVariant(snapWidth(width), PNG.equals(f) ? 100 : Math.max(5, Math.round(q / 5f) * 5), f);
+    }
+
+    private static int snapWidth(int width) {
+        for (int w : WIDTHS) {
+            if (w >= width) {
+                return w;
+            }
+        }
+        return WIDTHS[WIDTHS.length - 1];
+    }
+
+    /**
+     * ImageIO 中的格式名
+     */
+    public String imageIoFormat() {
+        return JPEG.equals(format) ? "jpeg" : format;
+    }
+
+    public String contentType() {
+        return JPEG.equals(format) ? "image/jpeg" : "image/" + format;
+    }
+
+    /**
+     * 缓存中的文件名，原图的存储名已经唯一确定内容，所以派生图的文件名也唯一确定内容
+     */
+    public String fileName(String storageName) {
+        int dot = storageName.lastIndexOf('.');
+        String base = dot > 0 ? storageName.substring(0, dot) : storageName;
+        return base + "_w" + width + "_q" + quality + "." + format;
+    }
+}
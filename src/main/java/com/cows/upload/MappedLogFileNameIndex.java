@@ -0,0 +1,64 @@
+package com.cows.upload;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 本机的文件名索引，保存在 MappedLogStore 中：查询无锁，修改追加到磁盘日志，重启时回放恢复
+ * 日志压缩时丢弃对应文件已不存在的条目
+ */
+@Component
+@ConditionalOnProperty(prefix = "upload.name-index", name = "type", havingValue = "local", matchIfMissing = true)
+public class MappedLogFileNameIndex implements FileNameIndex {
+
+    private final MappedLogStore store;
+
+    public MappedLogFileNameIndex(@Value("${upload.name-index.path:./data/upload-names.log}") String logPath,
+                                  @Value("${upload.dir:./upload}") String uploadDir) {
+        Path dir = Paths.get(uploadDir);
+        this.store = new MappedLogStore("上传文件名索引", Paths.get(logPath),
+                (storageName, displayName) -> Files.exists(dir.resolve(storageName)));
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        store.open();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    @Override
+    public void put(String storageName, String displayName) {
+        store.put(storageName, displayName == null ? "" : displayName);
+    }
+
+    @Override
+    public void putIfAbsent(String storageName, String displayName) {
+        store.compute(storageName, old -> old != null ? old : displayName == null ? "" : displayName);
+    }
+
+    @Override
+    public String get(String storageName) {
+        return store.get(storageName);
+    }
+
+    @Override
+    public void remove(String storageName) {
+        store.remove(storageName);
+    }
+
+    public int size() {
+        return store.size();
+    }
+}
@@ -0,0 +1,275 @@
+package com.cows.upload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * 字符串键值存储：ConcurrentHashMap 提供无锁的O(1)查询，所有修改同时追加到一个内存映射的日志文件，重启时顺序回放恢复
+ * 日志记录格式：[int 键字节数][int 值字节数，-1表示删除][键][值][int CRC32]
+ * 文件按块映射，末尾未写入的部分全为0，回放读到长度为0或CRC不符的记录即认为日志结束（进程崩溃时最后一条可能不完整）
+ * 日志中失效记录（被覆盖、删除、retain判定为失效）超过一半时重写为只含有效记录的新文件再原子替换
+ */
+@Slf4j
+public class MappedLogStore {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int CRC_BYTES = 4;
+    private static final int TOMBSTONE = -1;
+    private static final int MAP_CHUNK = 1024 * 1024;
+    private static final long MIN_COMPACT_BYTES = 4L * 1024 * 1024;
+
+    private final String name;
+    private final Path logPath;
+    private final BiPredicate<String, String> retain;
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long mappedStart;
+    private long writeOffset;
+    /**
+     * 有效记录占用的字节数，用于判断是否需要压缩
+     */
+    private long liveBytes;
+
+    /**
+     * @param name    日志里显示的名称
+     * @param logPath 日志文件
+     * @param retain  压缩时判断条目是否仍然有效
+     */
+    public MappedLogStore(String name, Path logPath, BiPredicate<String, String> retain) {
+        this.name = name;
+        this.logPath = logPath;
+        this.retain = retain;
+    }
+
+    public void open() throws IOException {
+        long start = System.currentTimeMillis();
+        Path parent = logPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeOffset = replay();
+        liveBytes = 0;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            liveBytes += recordSize(e.getKey(), e.getValue());
+        }
+        remap(writeOffset, MAP_CHUNK);
+        log.info("{}加载完成: 条目数={}, 日志大小={}, 耗时={}ms", name, entries.size(), writeOffset, System.currentTimeMillis() - start);
+        if (needsCompaction()) {
+            compact();
+        }
+    }
+
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            mapped.force();
+            mapped = null;
+            // 去掉映射时预留的全0尾部
+            channel.truncate(writeOffset);
+            channel.close();
+            channel = null;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public String get(String key) {
+        return entries.get(key);
+    }
+
+    public void put(String key, String value) {
+        compute(key, old -> value);
+    }
+
+    public void remove(String key) {
+        compute(key, old -> null);
+    }
+
+    /**
+     * 原子地更新一个条目，各条目的更新互相串行，function中不要做耗时操作
+     * @param function 参数为当前值（不存在时为null），返回新值，返回null表示删除
+     * @return 新值
+     */
+    public String compute(String key, UnaryOperator<String> function) {
+        appendLock.lock();
+        try {
+            String old = entries.get(key);
+            String value = function.apply(old);
+            if (value == null && old == null || value != null && value.equals(old)) {
+                return value;
+            }
+            if (old != null) {
+                liveBytes -= recordSize(key, old);
+            }
+            if (value == null) {
+                entries.remove(key);
+                append(key, null);
+            } else {
+                entries.put(key, value);
+                liveBytes += append(key, value);
+            }
+            compactIfNeeded();
+            return value;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 从头回放日志
+     * @return 最后一条完整记录之后的偏移量
+     */
+    private long replay() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + HEADER_BYTES <= size) {
+            int keyLength = buffer.getInt(position);
+            int valueLength = buffer.getInt(position + 4);
+            int bodyLength = keyLength + Math.max(valueLength, 0);
+            if (keyLength <= 0 || valueLength < TOMBSTONE
+                    || (long) position + HEADER_BYTES + bodyLength + CRC_BYTES > size) {
+                break;
+            }
+            byte[] record = new byte[HEADER_BYTES + bodyLength];
+            buffer.get(position, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(position + record.length)) {
+                log.warn("{}在偏移{}处校验失败，忽略之后的内容", name, position);
+                break;
+            }
+            String key = new String(record, HEADER_BYTES, keyLength, StandardCharsets.UTF_8);
+            if (valueLength == TOMBSTONE) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new String(record, HEADER_BYTES + keyLength, valueLength, StandardCharsets.UTF_8));
+            }
+            position += record.length + CRC_BYTES;
+        }
+        return position;
+    }
+
+    /**
+     * 追加一条记录，调用方需持有appendLock
+     * @param value 为null时写入删除标记
+     * @return 记录的字节数
+     */
+    private int append(String key, String value) {
+        byte[] record = encode(key, value);
+        try {
+            if (writeOffset + record.length > mappedStart + mapped.capacity()) {
+                remap(writeOffset, Math.max(MAP_CHUNK, record.length));
+            }
+            mapped.put((int) (writeOffset - mappedStart), record);
+            writeOffset += record.length;
+        } catch (IOException e) {
+            // 内存中的数据已更新，只是没有持久化，下次压缩时会重新写出
+            log.error("{}写入日志失败: {}", name, key, e);
+        }
+        return record.length;
+    }
+
+    private static byte[] encode(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + valueBytes.length + CRC_BYTES);
+        buffer.putInt(keyBytes.length);
+        buffer.putInt(value == null ? TOMBSTONE : valueBytes.length);
+        buffer.put(keyBytes);
+        buffer.put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static int recordSize(String key, String value) {
+        return HEADER_BYTES + key.getBytes(StandardCharsets.UTF_8).length
+                + value.getBytes(StandardCharsets.UTF_8).length + CRC_BYTES;
+    }
+
+    private void remap(long start, int length) throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+        mappedStart = start;
+    }
+
+    private boolean needsCompaction() {
+        return writeOffset > MIN_COMPACT_BYTES && liveBytes * 2 < writeOffset;
+    }
+
+    private void compactIfNeeded() {
+        if (needsCompaction()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.error("{}压缩失败，继续使用原日志", name, e);
+            }
+        }
+    }
+
+    /**
+     * 只保留仍然有效的条目，写入新日志后原子替换旧日志
+     */
+    private void compact() throws IOException {
+        appendLock.lock();
+        try {
+            long before = writeOffset;
+            entries.entrySet().removeIf(e -> !retain.test(e.getKey(), e.getValue()));
+
+            Path temp = logPath.resolveSibling(logPath.getFileName() + ".compact");
+            long written = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<String, String> e : entries.entrySet()) {
+                    ByteBuffer record = ByteBuffer.wrap(encode(e.getKey(), e.getValue()));
+                    while (record.hasRemaining()) {
+                        written += out.write(record);
+                    }
+                }
+                out.force(true);
+            }
+
+            mapped = null;
+            channel.close();
+            Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeOffset = written;
+            liveBytes = written;
+            remap(writeOffset, MAP_CHUNK);
+            log.info("{}压缩完成: 条目数={}, 日志大小 {} -> {}", name, entries.size(), before, written);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
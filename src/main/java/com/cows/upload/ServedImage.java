@@ -0,0 +1,20 @@
+package com.cows.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * 要返回给客户端的图片文件
+ */
+@Data
+@AllArgsConstructor
+public class ServedImage {
+    private Path file;
+    private String contentType;
+    /**
+     * false表示请求了派生图但因为繁忙返回了原图，此时不能让客户端长期缓存
+     */
+    private boolean exact;
+}
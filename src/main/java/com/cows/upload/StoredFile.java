@@ -0,0 +1,26 @@
+package com.cows.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 已落盘的上传文件
+ */
+@Data
+@AllArgsConstructor
+public class StoredFile {
+    /**
+     * 磁盘上的文件名，由内容的SHA-256和格式后缀组成
+     */
+    private String storageName;
+    private ImageFormat format;
+    private long size;
+    /**
+     * 内容的SHA-256（十六进制小写）
+     */
+    private String sha256;
+    /**
+     * 相同内容的文件已经存在，本次上传没有写入新文件
+     */
+    private boolean deduplicated;
+}
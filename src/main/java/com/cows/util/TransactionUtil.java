@@ -0,0 +1,36 @@
+package com.cows.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务相关的辅助方法
+ */
+@Slf4j
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 当前有事务时在事务提交后执行（回滚则不执行），没有事务时立即执行
+     * 提交后执行的动作抛出的异常只记录日志，不影响已提交的事务
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    log.warn("事务提交后的动作执行失败", e);
+                }
+            }
+        });
+    }
+}
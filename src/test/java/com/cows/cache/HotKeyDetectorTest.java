@@ -0,0 +1,47 @@
+package com.cows.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyDetectorTest {
+
+    @Test
+    void frequentKeysBecomeHotAndRareKeysDoNot() {
+        HotKeyDetector detector = new HotKeyDetector(2, 10, 256, 1_000_000);
+        for (int i = 0; i < 100; i++) {
+            detector.record("1");
+            detector.record("2");
+            if (i % 2 == 0) {
+                detector.record("3");
+            }
+            detector.record("cold-" + i);
+        }
+        List<HotKey> top = detector.topKeys();
+        assertEquals(2, top.size());
+        assertTrue(detector.isHot("1"));
+        assertTrue(detector.isHot("2"));
+        assertFalse(detector.isHot("3"));
+        assertFalse(detector.isHot("cold-1"));
+        assertTrue(top.get(0).getCount() >= 100);
+    }
+
+    @Test
+    void decayDropsKeysThatStopBeingAccessed() {
+        HotKeyDetector detector = new HotKeyDetector(4, 10, 256, 100);
+        for (int i = 0; i < 20; i++) {
+            detector.record("old");
+        }
+        assertTrue(detector.isHot("old"));
+        // 每100次访问衰减一次，几轮之后old的计数降到minCount以下
+        for (int i = 0; i < 500; i++) {
+            detector.record("new");
+        }
+        assertFalse(detector.isHot("old"));
+        assertTrue(detector.isHot("new"));
+    }
+}
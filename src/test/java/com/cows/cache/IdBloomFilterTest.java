@@ -0,0 +1,54 @@
+package com.cows.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdBloomFilterTest {
+
+    @Test
+    void addedIdsAreAlwaysFoundAndFalsePositiveRateStaysNearTarget() {
+        IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+        for (int id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+        for (int id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id));
+        }
+        int falsePositives = 0;
+        for (int id = 10_001; id <= 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "误判数: " + falsePositives);
+    }
+
+    @Test
+    void mergeKeepsIdsFromBothFilters() {
+        IdBloomFilter a = new IdBloomFilter(1_000, 0.01);
+        IdBloomFilter b = new IdBloomFilter(1_000, 0.01);
+        a.put(1);
+        b.put(2);
+        a.merge(b);
+        assertTrue(a.mightContain(1));
+        assertTrue(a.mightContain(2));
+        assertThrows(IllegalArgumentException.class, () -> a.merge(new IdBloomFilter(2_000, 0.01)));
+    }
+
+    @Test
+    void redisBitmapUsesMostSignificantBitFirst() {
+        IdBloomFilter filter = new IdBloomFilter(1_000, 0.01);
+        filter.put(42);
+        byte[] bitmap = filter.toRedisBitmap();
+        assertEquals(filter.getBitSize() / 8, bitmap.length);
+        for (long offset : filter.offsets(42)) {
+            assertTrue((bitmap[(int) (offset / 8)] & (0x80 >>> (offset % 8))) != 0);
+        }
+        IdBloomFilter empty = new IdBloomFilter(1_000, 0.01);
+        assertFalse(empty.mightContain(42));
+    }
+}
@@ -0,0 +1,150 @@
+package com.cows.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private SingleFlight singleFlight;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "staleWhileRevalidate", true);
+        ReflectionTestUtils.setField(singleFlight, "staleTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(singleFlight, "staleMaxSize", 100L);
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry",
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+        singleFlight.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.load("product", 1, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "p1";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.load("product", 1, () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        // 等follower进入等待后再放行leader
+        while (registry.find("cache.single_flight.calls").tag("result", "collapsed").functionCounter().count() < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        assertEquals("p1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("p1", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1L, singleFlight.stats().get("product").get("executed"));
+    }
+
+    @Test
+    void staleValueIsServedWhileRefreshIsInFlight() throws Exception {
+        assertEquals("v1", singleFlight.loadOrStale("carousels", "all", () -> "v1"));
+        assertFalse(singleFlight.servedStale());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> refresh = CompletableFuture.supplyAsync(() -> singleFlight.loadOrStale("carousels", "all", () -> {
+            started.countDown();
+            await(release);
+            return "v2";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals("v1", singleFlight.loadOrStale("carousels", "all", () -> "unexpected"));
+        assertTrue(singleFlight.servedStale());
+        release.countDown();
+        assertEquals("v2", refresh.get(5, TimeUnit.SECONDS));
+        assertEquals("v2", singleFlight.loadOrStale("carousels", "all", () -> "v2"));
+        assertEquals(1L, singleFlight.stats().get("carousels").get("stale"));
+    }
+
+    @Test
+    void staleFlagSurvivesServedStaleAndIsTrackedAcrossThreads() throws Exception {
+        singleFlight.loadOrStale("carousels", "all", () -> "v1");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> refresh = holdRefresh("carousels", release);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertFalse(singleFlight.servedStaleInRequest());
+        AtomicBoolean tracked = new AtomicBoolean();
+        assertEquals("v1", singleFlight.track(tracked, () -> singleFlight.loadOrStale("carousels", "all", () -> "unexpected")));
+        // @Cacheable的unless读取并清除线程标记后，请求上的标记仍在
+        assertTrue(singleFlight.servedStale());
+        assertTrue(singleFlight.servedStaleInRequest());
+        assertTrue(tracked.get());
+
+        release.countDown();
+        assertEquals("v2", refresh.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callerInTransactionLoadsInsteadOfWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> refresh = holdRefresh("product", release);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals("direct", singleFlight.load("product", "all", () -> "direct"));
+        assertFalse(refresh.isDone());
+
+        release.countDown();
+        assertEquals("v2", refresh.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 在另一个线程开始一次loadOrStale并停在查询中，直到release
+     */
+    private CompletableFuture<String> holdRefresh(String group, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> refresh = CompletableFuture.supplyAsync(() -> singleFlight.loadOrStale(group, "all", () -> {
+            started.countDown();
+            await(release);
+            return "v2";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return refresh;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cows.cache;
+
+import com.cows.catalog.CatalogSnapshotHolder;
+import com.cows.datasource.ReplicaRouter;
+import com.cows.entity.Product;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两级缓存测试，用内存Map和同步分发的订阅列表模拟Redis
+ */
+class TwoLevelCacheTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final List<MessageListener> subscribers = new CopyOnWriteArrayList<>();
+    private StringRedisTemplate redisTemplate;
+    private RemoteCacheProperties properties;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new RemoteCacheProperties();
+        properties.setEnabled(true);
+        redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.delete(anyString())).thenAnswer(inv -> redis.remove(inv.<String>getArgument(0)) != null);
+        when(redisTemplate.convertAndSend(anyString(), any())).thenAnswer(inv -> {
+            Message message = new DefaultMessage(inv.<String>getArgument(0).getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(inv.<Object>getArgument(1)).getBytes(StandardCharsets.UTF_8));
+            subscribers.forEach(subscriber -> subscriber.onMessage(message, null));
+            return (long) subscribers.size();
+        });
+    }
+
+    private Cache newNode(String nodeId) {
+        return newNode(nodeId, new StaticListableBeanFactory());
+    }
+
+    /**
+     * @param beans 节点上的其他Bean，如开启读写分离时的ReplicaRouter、目录快照
+     */
+    private Cache newNode(String nodeId, StaticListableBeanFactory beans) {
+        TwoLevelCache cache = new TwoLevelCache(CacheNames.PRODUCT, Caffeine.newBuilder().build(),
+                redisTemplate, properties, nodeId);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.initializeCaches();
+        subscribers.add(new CacheInvalidationListener(cacheManager, nodeId, beans.getBeanProvider(ReplicaRouter.class),
+                beans.getBeanProvider(CatalogSnapshotHolder.class)));
+        return cache;
+    }
+
+    private Product product(int id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    @Test
+    void otherNodeReadsThroughRedis() {
+        Cache nodeA = newNode("a");
+        Cache nodeB = newNode("b");
+        nodeA.put(1, product(1, "集成灶"));
+
+        Product fromB = nodeB.get(1, Product.class);
+        assertNotNull(fromB);
+        assertEquals("集成灶", fromB.getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictOnOneNodeClearsNearCacheOnOtherNodes() {
+        Cache nodeA = newNode("a");
+        Cache nodeB = newNode("b");
+        nodeA.put(1, product(1, "集成灶"));
+        assertNotNull(nodeB.get(1));
+
+        nodeA.evict(1);
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nearB =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nodeB.getNativeCache();
+        assertNull(nearB.getIfPresent("1"));
+        assertNull(nodeB.get(1));
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    void valueLoaderRunsOnceAndIsSharedWithOtherNodes() {
+        Cache nodeA = newNode("a");
+        Cache nodeB = newNode("b");
+        int[] loads = {0};
+
+        nodeA.get(2, () -> {
+            loads[0]++;
+            return product(2, "消毒柜");
+        });
+        Product fromB = nodeB.get(2, () -> {
+            loads[0]++;
+            return product(2, "不应加载");
+        });
+
+        assertEquals(1, loads[0]);
+        assertEquals("消毒柜", fromB.getName());
+    }
+
+    @Test
+    void invalidationFromOtherNodeRoutesReloadToPrimary() {
+        ReplicaRouter routerA = mock(ReplicaRouter.class);
+        ReplicaRouter routerB = mock(ReplicaRouter.class);
+        Cache nodeA = newNode("a", new StaticListableBeanFactory(Map.of("replicaRouter", routerA)));
+        newNode("b", new StaticListableBeanFactory(Map.of("replicaRouter", routerB)));
+
+        nodeA.evict(1);
+
+        // 其他节点刚写过主库，本节点重新加载时不能读延迟的从库
+        verify(routerB).markWrite();
+        // 自己发出的消息不处理，写入方的路由由写操作本身标记
+        verify(routerA, never()).markWrite();
+    }
+
+    @Test
+    void invalidationFromOtherNodeForcesSnapshotReload() {
+        CatalogSnapshotHolder holderA = mock(CatalogSnapshotHolder.class);
+        CatalogSnapshotHolder holderB = mock(CatalogSnapshotHolder.class);
+        Cache nodeA = newNode("a", new StaticListableBeanFactory(Map.of("catalogSnapshotHolder", holderA)));
+        newNode("b", new StaticListableBeanFactory(Map.of("catalogSnapshotHolder", holderB)));
+
+        nodeA.evict(1);
+
+        // 同一秒内的修改版本可能不变，其他节点不能只靠比较版本发现
+        verify(holderB).changedRemotely(CatalogTable.PRODUCTS);
+        verifyNoInteractions(holderA);
+    }
+}
@@ -0,0 +1,155 @@
+package com.cows.catalog;
+
+import com.cows.cache.CatalogTable;
+import com.cows.entity.Product;
+import com.cows.mapper.BrandMapper;
+import com.cows.mapper.CarouselMapper;
+import com.cows.mapper.ProductCategoryMapper;
+import com.cows.mapper.ProductMapper;
+import com.cows.mapper.ProductsCarouselsMapper;
+import com.cows.service.CatalogVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 目录快照：请求线程只和缓存中的版本比较，本节点修改过的表在重建前不使用快照，重建时不论版本是否变化都重新加载
+ */
+class CatalogSnapshotHolderTest {
+
+    private final AtomicLong checksum = new AtomicLong(1);
+    /**
+     * 为false时只记录重建请求不执行，模拟重建还没有完成
+     */
+    private final AtomicBoolean runRebuilds = new AtomicBoolean(true);
+    private CatalogSnapshotHolder holder;
+    private CatalogVersionService catalogVersionService;
+    private ProductMapper productMapper;
+    private BrandMapper brandMapper;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        brandMapper = mock(BrandMapper.class);
+        ProductCategoryMapper productCategoryMapper = mock(ProductCategoryMapper.class);
+        CarouselMapper carouselMapper = mock(CarouselMapper.class);
+        ProductsCarouselsMapper productsCarouselsMapper = mock(ProductsCarouselsMapper.class);
+        when(productMapper.findAllProducts()).thenAnswer(inv -> List.of(product(1, 7), product(2, 8)));
+        when(brandMapper.findAllBrands()).thenReturn(List.of());
+        when(productCategoryMapper.findAllProductCategories()).thenReturn(List.of());
+        when(carouselMapper.findAllCarousels()).thenReturn(List.of());
+        when(productsCarouselsMapper.findAllProductsCarousels()).thenReturn(List.of());
+        catalogVersionService = mock(CatalogVersionService.class);
+        when(catalogVersionService.checksumOf(any(CatalogTable.class))).thenAnswer(inv -> checksum.get());
+
+        // 在调用线程上直接执行重建
+        ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(inv -> {
+            if (runRebuilds.get()) {
+                inv.<Runnable>getArgument(0).run();
+            } else {
+                ((AtomicBoolean) ReflectionTestUtils.getField(holder, "rebuildPending")).set(false);
+            }
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        holder = new CatalogSnapshotHolder();
+        ReflectionTestUtils.setField(holder, "productMapper", productMapper);
+        ReflectionTestUtils.setField(holder, "productCategoryMapper", productCategoryMapper);
+        ReflectionTestUtils.setField(holder, "brandMapper", brandMapper);
+        ReflectionTestUtils.setField(holder, "carouselMapper", carouselMapper);
+        ReflectionTestUtils.setField(holder, "productsCarouselsMapper", productsCarouselsMapper);
+        ReflectionTestUtils.setField(holder, "catalogVersionService", catalogVersionService);
+        ReflectionTestUtils.setField(holder, "rebuildExecutor", executor);
+        holder.requestRebuild();
+    }
+
+    @Test
+    void requestThreadsCompareOnlyCachedVersions() {
+        // 首次构建时读取了5张表的版本
+        verify(catalogVersionService, times(5)).checksumOf(any(CatalogTable.class));
+
+        when(catalogVersionService.cachedChecksumOf(any(CatalogTable.class))).thenReturn(1L);
+        CatalogSnapshot snapshot = holder.current(CatalogTable.PRODUCTS);
+        assertNotNull(snapshot);
+        assertSame(snapshot, holder.current(CatalogTable.PRODUCTS, CatalogTable.PRODUCTS_CAROUSELS));
+        // 版本一致时不再查询版本
+        verify(catalogVersionService, times(5)).checksumOf(any(CatalogTable.class));
+
+        runRebuilds.set(false);
+        when(catalogVersionService.cachedChecksumOf(any(CatalogTable.class))).thenReturn(2L);
+        assertNull(holder.current(CatalogTable.PRODUCTS));
+        assertSame(snapshot, holder.currentOrLatest(CatalogTable.PRODUCTS));
+        verify(catalogVersionService, times(5)).checksumOf(any(CatalogTable.class));
+    }
+
+    @Test
+    void changedTablesAreNotServedUntilRebuiltAndAreReloadedWithSameVersion() {
+        when(catalogVersionService.cachedChecksumOf(any(CatalogTable.class))).thenReturn(1L);
+        CatalogSnapshot before = holder.current(CatalogTable.PRODUCTS);
+
+        runRebuilds.set(false);
+        holder.changed(CatalogTable.PRODUCTS);
+        // 同一秒内的修改版本不变，但本节点知道数据已经变了
+        assertNull(holder.current(CatalogTable.PRODUCTS));
+        assertSame(before, holder.currentOrLatest(CatalogTable.PRODUCTS));
+        assertSame(before, holder.current(CatalogTable.BRANDS));
+
+        runRebuilds.set(true);
+        holder.requestRebuild();
+        CatalogSnapshot after = holder.current(CatalogTable.PRODUCTS);
+        assertNotNull(after);
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        verify(productMapper, times(2)).findAllProducts();
+        verify(brandMapper, times(1)).findAllBrands();
+        assertEquals(List.of(2), after.productsOfCategory(8).stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void remoteChangeReloadsTableEvenIfVersionIsUnchanged() {
+        when(catalogVersionService.cachedChecksumOf(any(CatalogTable.class))).thenReturn(1L);
+        CatalogSnapshot before = holder.current(CatalogTable.PRODUCTS);
+
+        // 其他节点同一秒内的第二次修改：版本和快照相同
+        holder.changedRemotely(CatalogTable.PRODUCTS);
+        CatalogSnapshot after = holder.current(CatalogTable.PRODUCTS);
+        assertNotNull(after);
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        verify(productMapper, times(2)).findAllProducts();
+        verify(catalogVersionService).invalidate(CatalogTable.PRODUCTS);
+        verify(catalogVersionService, never()).changed(any(CatalogTable[].class));
+    }
+
+    @Test
+    void failedRebuildKeepsChangedTablesForced() {
+        when(catalogVersionService.cachedChecksumOf(any(CatalogTable.class))).thenReturn(1L);
+        when(productMapper.findAllProducts()).thenThrow(new IllegalStateException("数据库不可用"));
+        holder.changed(CatalogTable.PRODUCTS);
+        assertNull(holder.current(CatalogTable.PRODUCTS));
+        assertNotNull(holder.currentOrLatest(CatalogTable.PRODUCTS));
+    }
+
+    private static Product product(int id, int categoryId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        return product;
+    }
+}
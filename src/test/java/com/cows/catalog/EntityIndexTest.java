@@ -0,0 +1,46 @@
+package com.cows.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntityIndexTest {
+
+    @Test
+    void indexesByIdAndKeepsListOrder() {
+        EntityIndex<String> index = EntityIndex.of(List.of("3:c", "1:a", "2:b"), EntityIndexTest::idOf);
+        assertEquals(List.of("3:c", "1:a", "2:b"), index.all());
+        assertEquals("1:a", index.get(1));
+        assertNull(index.get(4));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void isNotAffectedBySourceListChangesAndCannotBeModified() {
+        List<String> source = new ArrayList<>(List.of("1:a"));
+        EntityIndex<String> index = EntityIndex.of(source, EntityIndexTest::idOf);
+        source.add("2:b");
+        assertEquals(1, index.size());
+        assertThrows(UnsupportedOperationException.class, () -> index.all().add("3:c"));
+    }
+
+    @Test
+    void groupsKeepOrderAndSkipNullKeys() {
+        EntityIndex<String> index = EntityIndex.of(List.of("1:a", "2:b", "3:a", "4:-"), EntityIndexTest::idOf);
+        Map<String, List<String>> groups = index.groupBy(item -> item.endsWith("-") ? null : item.substring(2));
+        assertEquals(List.of("1:a", "3:a"), groups.get("a"));
+        assertEquals(List.of("2:b"), groups.get("b"));
+        assertEquals(2, groups.size());
+        assertThrows(UnsupportedOperationException.class, () -> groups.get("a").add("5:a"));
+    }
+
+    private static int idOf(String item) {
+        return Integer.parseInt(item.substring(0, item.indexOf(':')));
+    }
+}
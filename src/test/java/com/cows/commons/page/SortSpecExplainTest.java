@@ -0,0 +1,101 @@
+package com.cows.commons.page;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对白名单中的每个排序字段执行分页SQL的EXPLAIN，确认都能走索引排序而不出现 Using filesort
+ * 需要一个按 mysql.sql 建表的MySQL实例，运行方式：mvn test -Dexplain.tests=true -Dtest=SortSpecExplainTest
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "explain.tests", matches = "true")
+class SortSpecExplainTest {
+
+    private static final String MAPPER = "com.cows.mapper.";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allowedSortsDoNotFilesort() {
+        List<String> failures = new ArrayList<>();
+        check(failures, SortSpecs.PRODUCT, "ProductMapper.findProductsPaged", "ProductMapper.findProductsAfter");
+        check(failures, SortSpecs.PRODUCT_CATEGORY, "ProductCategoryMapper.findProductCategoriesPaged", "ProductCategoryMapper.findProductCategoriesAfter");
+        check(failures, SortSpecs.CAROUSEL, "CarouselMapper.getAllCarousels", "CarouselMapper.findCarouselsAfter");
+        check(failures, SortSpecs.BASIC_INFORMATION, "BasicInformationMapper.getAllBasicInformation", "BasicInformationMapper.findBasicInformationAfter");
+        check(failures, SortSpecs.ORDER, "OrderMapper.getAllOrders", "OrderMapper.findOrdersAfter");
+        check(failures, SortSpecs.USER, "UserMapper.getAllUsers", "UserMapper.findUsersAfter");
+        check(failures, SortSpecs.ADMIN, "AdminMapper.getAllAdmins", "AdminMapper.findAdminsAfter");
+        check(failures, SortSpecs.BUSINESS, "BusinessMapper.findBusinessesPaged", "BusinessMapper.findBusinessesAfter");
+        check(failures, SortSpecs.ABOUT, "AboutMapper.findAboutsPaged", "AboutMapper.findAboutsAfter");
+        check(failures, SortSpecs.BRAND, "BrandMapper.findBrandsPaged", null);
+        check(failures, SortSpecs.BRAND_AUTHORIZATION_CERTIFICATE, "BrandAuthorizationCertificateMapper.findCertificatesPaged", null);
+        assertTrue(failures.isEmpty(), "以下排序出现了filesort:\n" + String.join("\n", failures));
+    }
+
+    private void check(List<String> failures, SortSpec spec, String pagedStatement, String keysetStatement) {
+        for (String key : spec.keys()) {
+            String column = spec.column(key);
+
+            Map<String, Object> paged = new HashMap<>();
+            paged.put("offset", 0);
+            paged.put("limit", 10);
+            paged.put("sortField", column);
+            explain(failures, pagedStatement, key, paged);
+
+            if (keysetStatement != null) {
+                explain(failures, keysetStatement, key + "(首页)", new KeysetQuery(column, null, null, 11));
+                explain(failures, keysetStatement, key + "(后续页)", new KeysetQuery(column, sampleValue(key), 1L, 11));
+            }
+        }
+    }
+
+    private void explain(List<String> failures, String statement, String sort, Object parameter) {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        BoundSql boundSql = configuration.getMappedStatement(MAPPER + statement).getBoundSql(parameter);
+        MetaObject metaObject = configuration.newMetaObject(parameter);
+        List<Object> args = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            args.add(metaObject.getValue(mapping.getProperty()));
+        }
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + boundSql.getSql(), args.toArray());
+        for (Map<String, Object> row : plan) {
+            Object extra = row.get("Extra");
+            log.info("{} 按 {} 排序: key={}, Extra={}", statement, sort, row.get("key"), extra);
+            if (extra != null && extra.toString().contains("Using filesort")) {
+                failures.add(statement + " 按 " + sort + " 排序: " + extra);
+            }
+        }
+    }
+
+    /**
+     * 与列类型匹配的游标取值，只用于生成执行计划
+     */
+    private static String sampleValue(String key) {
+        return switch (key) {
+            case "createTime", "updateTime" -> "2024-01-01 00:00:00";
+            case "salePrice", "totalPrice", "stockQuantity", "order", "userId" -> "0";
+            default -> "a";
+        };
+    }
+}
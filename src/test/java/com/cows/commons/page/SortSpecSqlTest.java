@@ -0,0 +1,129 @@
+package com.cows.commons.page;
+
+import com.cows.exception.InvalidCursorException;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 排序白名单和分页SQL的生成，不需要数据库，每次构建都会运行
+ * 解析真实的Mapper XML，确认每个白名单字段都生成 "ORDER BY 列, id"，键集分页只在有游标时加跳过条件，
+ * 并且每个排序列在 mysql.sql 中都有索引；实际执行计划由 SortSpecExplainTest 在MySQL上检查
+ */
+class SortSpecSqlTest {
+
+    private static final String MAPPER = "com.cows.mapper.";
+
+    private static Configuration configuration;
+    private static String schema;
+
+    @BeforeAll
+    static void parseMappers() throws IOException {
+        // 只需要XML中的语句，不解析Mapper接口（MyBatis-Plus的BaseMapper需要完整的运行环境）
+        configuration = new Configuration() {
+            @Override
+            public <T> void addMapper(Class<T> type) {
+            }
+        };
+        // 各Mapper引用KeysetMapper中的片段，先解析
+        for (String name : new String[]{"KeysetMapper", "ProductMapper", "ProductCategoryMapper", "CarouselMapper",
+                "BasicInformationMapper", "OrderMapper", "UserMapper", "AdminMapper", "BusinessMapper", "AboutMapper",
+                "BrandMapper", "BrandAuthorizationCertificateMapper"}) {
+            String resource = "mapper/" + name + ".xml";
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        schema = Files.readString(Path.of("mysql.sql"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void unknownSortFieldsAreRejected() {
+        assertThrows(InvalidCursorException.class, () -> SortSpecs.PRODUCT.resolveKey("costPrice"));
+        assertThrows(InvalidCursorException.class, () -> SortSpecs.PRODUCT.column("name; DROP TABLE Products"));
+        assertThrows(InvalidCursorException.class, () -> SortSpecs.USER.column("password"));
+        assertThrows(InvalidCursorException.class, () -> SortSpecs.CAROUSEL.column("`order`"));
+    }
+
+    @Test
+    void emptySortFieldFallsBackToDefault() {
+        assertEquals("id", SortSpecs.PRODUCT.resolveKey(null));
+        assertEquals("id", SortSpecs.PRODUCT.resolveKey(""));
+        assertEquals("`order`", SortSpecs.CAROUSEL.column(null));
+    }
+
+    @Test
+    void pagedAndKeysetSqlOrderByWhitelistedColumn() {
+        check(SortSpecs.PRODUCT, "Products", "ProductMapper.findProductsPaged", "ProductMapper.findProductsAfter");
+        check(SortSpecs.PRODUCT_CATEGORY, "ProductCategories", "ProductCategoryMapper.findProductCategoriesPaged", "ProductCategoryMapper.findProductCategoriesAfter");
+        check(SortSpecs.CAROUSEL, "Carousels", "CarouselMapper.getAllCarousels", "CarouselMapper.findCarouselsAfter");
+        check(SortSpecs.BASIC_INFORMATION, "BasicInformation", "BasicInformationMapper.getAllBasicInformation", "BasicInformationMapper.findBasicInformationAfter");
+        check(SortSpecs.ORDER, "Orders", "OrderMapper.getAllOrders", "OrderMapper.findOrdersAfter");
+        check(SortSpecs.USER, "User", "UserMapper.getAllUsers", "UserMapper.findUsersAfter");
+        check(SortSpecs.ADMIN, "Admins", "AdminMapper.getAllAdmins", "AdminMapper.findAdminsAfter");
+        check(SortSpecs.BUSINESS, "Businesses", "BusinessMapper.findBusinessesPaged", "BusinessMapper.findBusinessesAfter");
+        check(SortSpecs.ABOUT, "About", "AboutMapper.findAboutsPaged", "AboutMapper.findAboutsAfter");
+        check(SortSpecs.BRAND, "Brands", "BrandMapper.findBrandsPaged", null);
+        check(SortSpecs.BRAND_AUTHORIZATION_CERTIFICATE, "BrandAuthorizationCertificates", "BrandAuthorizationCertificateMapper.findCertificatesPaged", null);
+    }
+
+    private void check(SortSpec spec, String table, String pagedStatement, String keysetStatement) {
+        for (String key : spec.keys()) {
+            String column = spec.column(key);
+            String orderBy = "ORDER BY " + column + ", id";
+            if (!"id".equals(key)) {
+                assertIndexed(table, column.replace("`", ""));
+            }
+
+            Map<String, Object> paged = new HashMap<>();
+            paged.put("offset", 0);
+            paged.put("limit", 10);
+            paged.put("sortField", column);
+            assertTrue(sql(pagedStatement, paged).contains(orderBy), pagedStatement + " 按 " + key);
+
+            if (keysetStatement != null) {
+                String first = sql(keysetStatement, new KeysetQuery(column, null, null, 11));
+                assertTrue(first.contains(orderBy), keysetStatement + " 按 " + key);
+                assertFalse(first.contains("id >"), keysetStatement + " 首页不应有跳过条件: " + first);
+
+                String next = sql(keysetStatement, new KeysetQuery(column, "a", 1L, 11));
+                assertTrue(next.contains(orderBy), keysetStatement + " 按 " + key);
+                String seek = "id".equals(key) ? "id > ?" : "(" + column + " > ? OR (" + column + " = ? AND id > ?))";
+                assertTrue(next.contains(seek), keysetStatement + " 后续页缺少跳过条件: " + next);
+            }
+        }
+    }
+
+    /**
+     * 排序列必须有单列索引或 (isDeleted, 列) 联合索引
+     */
+    private void assertIndexed(String table, String column) {
+        int start = schema.indexOf("CREATE TABLE `" + table + "`");
+        assertTrue(start >= 0, "mysql.sql 中没有表 " + table);
+        String definition = schema.substring(start, schema.indexOf(";", start));
+        Pattern index = Pattern.compile("KEY `\\w+` \\((`isDeleted`,)?`" + Pattern.quote(column) + "`[,)]");
+        assertTrue(index.matcher(definition).find(), table + "." + column + " 没有可用于排序的索引");
+    }
+
+    private String sql(String statement, Object parameter) {
+        BoundSql boundSql = configuration.getMappedStatement(MAPPER + statement).getBoundSql(parameter);
+        return boundSql.getSql().replaceAll("\\s+", " ");
+    }
+}
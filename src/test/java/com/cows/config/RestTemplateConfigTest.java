@@ -0,0 +1,108 @@
+package com.cows.config;
+
+import com.cows.http.OutboundHttpMetrics;
+import com.cows.http.OutboundHttpProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 用本地的桩HTTP服务验证出站RestTemplate：连接复用、读超时、text/plain的JSON和UTF-8解码、按主机的耗时指标
+ */
+class RestTemplateConfigTest {
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private SimpleMeterRegistry registry;
+    private String baseUrl;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/json", exchange -> respond(exchange, "{\"openid\":\"o1\",\"nickname\":\"张三\"}"));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "late");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        properties.setReadTimeout(Duration.ofMillis(200));
+        registry = new SimpleMeterRegistry();
+        RestTemplateConfig config = new RestTemplateConfig();
+        httpClient = config.outboundHttpClient(properties);
+        restTemplate = config.restTemplate(httpClient, new ObjectMapper(),
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void sequentialCallsReuseOneKeepAliveConnection() {
+        for (int i = 0; i < 5; i++) {
+            restTemplate.getForObject(baseUrl + "/json", String.class);
+        }
+        assertEquals(1, clientPorts.size(), "连接没有复用: " + clientPorts);
+    }
+
+    @Test
+    void textPlainJsonIsDecodedAsUtf8() {
+        assertEquals("{\"openid\":\"o1\",\"nickname\":\"张三\"}", restTemplate.getForObject(baseUrl + "/json", String.class));
+        Map<?, ?> body = restTemplate.getForObject(baseUrl + "/json", Map.class);
+        assertEquals("o1", body.get("openid"));
+        assertEquals("张三", body.get("nickname"));
+    }
+
+    @Test
+    void slowResponsesTimeOutAndLatencyIsRecordedPerHost() {
+        restTemplate.getForObject(baseUrl + "/json", String.class);
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+
+        assertEquals(1, registry.get(OutboundHttpMetrics.METRIC_NAME).tag("host", "127.0.0.1").tag("status", "200").timer().count());
+        assertEquals(1, registry.get(OutboundHttpMetrics.METRIC_NAME).tag("host", "127.0.0.1").tag("status", "IO_ERROR").timer().count());
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // 与微信接口一样返回不带字符集的text/plain
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.cows.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection1 = mock(Connection.class);
+    private final Connection replicaConnection2 = mock(Connection.class);
+    private final DataSource replicaDataSource1 = mock(DataSource.class);
+    private ReplicaNode replica1;
+    private ReplicaNode replica2;
+    private RoutingDataSourceProperties properties;
+    private ReplicaRouter router;
+    private RoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replicaDataSource1.getConnection()).thenReturn(replicaConnection1);
+        DataSource replicaDataSource2 = mock(DataSource.class);
+        when(replicaDataSource2.getConnection()).thenReturn(replicaConnection2);
+        replica1 = new ReplicaNode("replica-1", replicaDataSource1);
+        replica2 = new ReplicaNode("replica-2", replicaDataSource2);
+        replica1.checked(0, 5);
+        replica2.checked(0, 1);
+        properties = new RoutingDataSourceProperties();
+        router = new ReplicaRouter(List.of(replica1, replica2), properties);
+        dataSource = new RoutingDataSource(primary, router);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadHint.restore(null);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasAndReadWriteTransactionsToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertNotSame(primaryConnection, dataSource.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void statementsOutsideTransactionsAreRoutedByType() throws SQLException {
+        ReadHint.set(true);
+        assertNotSame(primaryConnection, dataSource.getConnection());
+        ReadHint.set(false);
+        assertSame(primaryConnection, dataSource.getConnection());
+        ReadHint.restore(null);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void roundRobinAlternatesAndLeastLatencyPicksFastestReplica() throws SQLException {
+        ReadHint.set(true);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertNotSame(first, second);
+
+        properties.setSelection(ReplicaSelection.LEAST_LATENCY);
+        assertSame(replicaConnection2, dataSource.getConnection());
+        assertSame(replicaConnection2, dataSource.getConnection());
+    }
+
+    @Test
+    void laggingOrFailedReplicasFallBackToPrimary() throws SQLException {
+        ReadHint.set(true);
+        replica2.checked(properties.getMaxLagSeconds() + 1, 1);
+        assertSame(replicaConnection1, dataSource.getConnection());
+        assertSame(replicaConnection1, dataSource.getConnection());
+
+        when(replicaDataSource1.getConnection()).thenThrow(new SQLException("connection refused"));
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertFalse(replica1.isHealthy());
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void readsAfterLocalWriteGoToPrimary() throws SQLException {
+        ReadHint.set(true);
+        router.markWrite();
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        properties.setPrimaryAfterWriteMs(0);
+        assertNotSame(primaryConnection, dataSource.getConnection());
+    }
+}
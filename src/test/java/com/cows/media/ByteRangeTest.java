@@ -0,0 +1,40 @@
+package com.cows.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteRangeTest {
+
+    @Test
+    void parsesClosedOpenAndSuffixRanges() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=0-99, 900-, -50", 1000);
+        assertEquals(List.of(new ByteRange(0, 99), new ByteRange(900, 999), new ByteRange(950, 999)), ranges);
+        assertEquals(100, ranges.get(0).length());
+        assertEquals("bytes 0-99/1000", ranges.get(0).contentRange(1000));
+    }
+
+    @Test
+    void clampsEndAndSuffixToFileLength() {
+        assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=500-5000", 1000));
+        assertEquals(List.of(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", 1000));
+    }
+
+    @Test
+    void returnsEmptyWhenNothingIsSatisfiable() {
+        assertTrue(ByteRange.parse("bytes=1000-", 1000).isEmpty());
+        assertTrue(ByteRange.parse("bytes=-0", 1000).isEmpty());
+    }
+
+    @Test
+    void returnsNullForInvalidSyntax() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse("bytes=abc", 1000));
+        assertNull(ByteRange.parse("bytes=5-1", 1000));
+    }
+}
@@ -0,0 +1,128 @@
+package com.cows.search;
+
+import com.cows.entity.Business;
+import com.cows.mapper.BusinessMapper;
+import com.cows.service.CatalogVersionService;
+import com.cows.serviceImpl.BusinessServiceImpl;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 新增的实体在事务提交后立即可以搜索到：插入语句必须回填自增ID，否则索引按ID 0 刷新
+ */
+class BusinessSearchIndexTest {
+
+    private final Map<Integer, Business> table = new ConcurrentHashMap<>();
+    private BusinessServiceImpl businessService;
+
+    @BeforeEach
+    void setUp() {
+        BusinessMapper businessMapper = mock(BusinessMapper.class);
+        // 模拟 useGeneratedKeys：插入后把数据库生成的ID写回参数
+        doAnswer(inv -> {
+            Business business = inv.getArgument(0);
+            business.setId(table.size() + 1);
+            table.put(business.getId(), business);
+            return 1;
+        }).when(businessMapper).insertBusiness(any(Business.class));
+        when(businessMapper.findBusinessById(anyInt())).thenAnswer(inv -> table.get(inv.<Integer>getArgument(0)));
+        when(businessMapper.findAllBusinesses()).thenAnswer(inv -> List.copyOf(table.values()));
+
+        BusinessSearchIndex index = new BusinessSearchIndex();
+        ReflectionTestUtils.setField(index, "businessMapper", businessMapper);
+        businessService = new BusinessServiceImpl();
+        ReflectionTestUtils.setField(businessService, "businessMapper", businessMapper);
+        ReflectionTestUtils.setField(businessService, "businessSearchIndex", index);
+        ReflectionTestUtils.setField(businessService, "catalogVersionService", mock(CatalogVersionService.class));
+
+        table.put(1, business(1, "连锁茶饮加盟"));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void insertStatementsReturnGeneratedIds() throws IOException {
+        Configuration configuration = new Configuration() {
+            @Override
+            public <T> void addMapper(Class<T> type) {
+            }
+        };
+        for (String name : new String[]{"BusinessMapper", "ProductMapper"}) {
+            String resource = "mapper/" + name + ".xml";
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        for (String statement : new String[]{"com.cows.mapper.BusinessMapper.insertBusiness", "com.cows.mapper.ProductMapper.insertProduct"}) {
+            MappedStatement mappedStatement = configuration.getMappedStatement(statement);
+            assertInstanceOf(Jdbc3KeyGenerator.class, mappedStatement.getKeyGenerator(), statement);
+            assertArrayEquals(new String[]{"id"}, mappedStatement.getKeyProperties(), statement);
+        }
+    }
+
+    @Test
+    void addedBusinessIsSearchableAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        int id = businessService.addBusiness(business(0, "连锁火锅加盟"));
+        assertEquals(2, id);
+        // 提交前不可见
+        assertEquals(List.of(1), ids(businessService.searchBusinesses("加盟", 0, 10)));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of(2), ids(businessService.searchBusinesses("火锅", 0, 10)));
+        assertEquals(List.of(1, 2), ids(businessService.searchBusinesses("加盟", 0, 10)).stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void addedBusinessIsSearchableWithoutTransaction() {
+        int id = businessService.addBusiness(business(0, "社区便利店"));
+        assertTrue(id > 0);
+        assertEquals(List.of(id), ids(businessService.searchBusinesses("便利店", 0, 10)));
+    }
+
+    private static List<Integer> ids(SearchResult<Business> result) {
+        return result.getItems().stream().map(Business::getId).collect(Collectors.toList());
+    }
+
+    private static Business business(int id, String name) {
+        Business business = new Business();
+        business.setId(id);
+        business.setName(name);
+        return business;
+    }
+}
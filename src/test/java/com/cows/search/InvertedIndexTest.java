@@ -0,0 +1,63 @@
+package com.cows.search;
+
+import com.cows.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private InvertedIndex<Product> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex<>(Product::getId, Product::getName);
+        index.replaceAll(List.of(
+                product(1, "男士运动鞋"),
+                product(2, "运动鞋"),
+                product(3, "儿童运动服"),
+                product(4, "Nike Air 跑步鞋"),
+                product(5, "Nikon 相机")));
+    }
+
+    @Test
+    void chineseQueryMatchesBigramsAndRanksExactNameFirst() {
+        assertEquals(List.of(2, 1), ids(index.search("运动鞋", 0, 10)));
+        assertEquals(List.of(1, 2, 3), ids(index.search("运动", 0, 10)).stream().sorted().collect(Collectors.toList()));
+        assertEquals(3, index.search("鞋", 0, 10).getTotal());
+    }
+
+    @Test
+    void lastLatinWordIsPrefixMatched() {
+        assertEquals(List.of(4, 5), ids(index.search("nik", 0, 10)));
+        assertEquals(List.of(4), ids(index.search("NIKE 跑步", 0, 10)));
+    }
+
+    @Test
+    void pagingAndIncrementalUpdates() {
+        SearchResult<Product> second = index.search("运动", 1, 2);
+        assertEquals(3, second.getTotal());
+        assertEquals(1, second.getItems().size());
+
+        index.remove(2);
+        index.put(product(3, "儿童外套"));
+        assertEquals(List.of(1), ids(index.search("运动", 0, 10)));
+        assertTrue(index.search("运动服", 0, 10).getItems().isEmpty());
+    }
+
+    private static List<Integer> ids(SearchResult<Product> result) {
+        return result.getItems().stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    private static Product product(int id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cows.service;
+
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.mapper.CatalogVersionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 目录版本：同一秒内不改变行数的修改也会得到新的ETag，Redis不可用时按代数0计算
+ */
+class CatalogVersionServiceTest {
+
+    private static final Date SECOND = new Date(1_700_000_000_000L);
+
+    /**
+     * 代替Redis中的写入代数
+     */
+    private final Map<String, Long> redis = new ConcurrentHashMap<>();
+    private CatalogVersionService catalogVersionService;
+    private ValueOperations<String, String> values;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CatalogVersionMapper catalogVersionMapper = mock(CatalogVersionMapper.class);
+        // 行数和最近修改时间都不变，相当于同一秒内修改了同一行
+        when(catalogVersionMapper.countRows(anyString())).thenReturn(3L);
+        when(catalogVersionMapper.findLastModified(anyString())).thenReturn(SECOND);
+        values = mock(ValueOperations.class);
+        when(values.increment(anyString())).thenAnswer(inv -> redis.merge(inv.getArgument(0), 1L, Long::sum));
+        when(values.get(anyString())).thenAnswer(inv -> {
+            Long generation = redis.get(inv.<String>getArgument(0));
+            return generation == null ? null : generation.toString();
+        });
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(values);
+
+        catalogVersionService = new CatalogVersionService();
+        ReflectionTestUtils.setField(catalogVersionService, "catalogVersionMapper", catalogVersionMapper);
+        ReflectionTestUtils.setField(catalogVersionService, "cacheManager", new ConcurrentMapCacheManager(CacheNames.CATALOG_VERSIONS));
+        ReflectionTestUtils.setField(catalogVersionService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(catalogVersionService, "generationKeyPrefix", "catalog:generation:");
+    }
+
+    @Test
+    void writeInSameSecondChangesEtag() {
+        String before = etagOf(CatalogTable.PRODUCTS);
+        assertEquals(before, etagOf(CatalogTable.PRODUCTS));
+
+        catalogVersionService.changed(CatalogTable.PRODUCTS);
+        String after = etagOf(CatalogTable.PRODUCTS);
+        assertNotEquals(before, after);
+        assertEquals(SECOND.getTime(), catalogVersionService.versionOf(CatalogTable.PRODUCTS).getLastModified());
+
+        catalogVersionService.changed(CatalogTable.PRODUCTS);
+        assertNotEquals(after, etagOf(CatalogTable.PRODUCTS));
+    }
+
+    @Test
+    void otherNodesSeeGenerationOnceTheirCachedVersionExpires() {
+        String before = etagOf(CatalogTable.CAROUSELS);
+        // 其他节点的写入：只改了Redis，本节点的版本缓存还没有过期
+        redis.merge("catalog:generation:" + CatalogTable.CAROUSELS.name(), 1L, Long::sum);
+        assertEquals(before, etagOf(CatalogTable.CAROUSELS));
+
+        catalogVersionService.invalidate(CatalogTable.CAROUSELS);
+        assertNotEquals(before, etagOf(CatalogTable.CAROUSELS));
+    }
+
+    @Test
+    void redisFailureFallsBackToGenerationZero() {
+        String before = etagOf(CatalogTable.BRANDS);
+        when(values.increment(anyString())).thenThrow(new IllegalStateException("Redis不可用"));
+        when(values.get(anyString())).thenThrow(new IllegalStateException("Redis不可用"));
+
+        catalogVersionService.changed(CatalogTable.BRANDS);
+        assertEquals(before, etagOf(CatalogTable.BRANDS));
+    }
+
+    private String etagOf(CatalogTable table) {
+        return catalogVersionService.etagOf(catalogVersionService.versionOf(table));
+    }
+}
@@ -0,0 +1,131 @@
+package com.cows.service;
+
+import com.cows.mapper.FileReferenceMapper;
+import com.cows.upload.StoredFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 上传文件的引用：只能释放自己持有的引用，引用计数缺失时不删除文件，启动时按引用表重建
+ */
+class FileUploadServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    private FileReferenceMapper fileReferenceMapper;
+    private FileUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileReferenceMapper = mock(FileReferenceMapper.class);
+        service = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.destroy();
+    }
+
+    @Test
+    void onlyOwnersCanReleaseTheirReferences() throws IOException {
+        StoredFile stored = service.store(png(), "alice");
+        service.store(png(), "bob");
+        Path file = dir.resolve("upload").resolve(stored.getStorageName());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.release(stored.getStorageName(), "mallory"));
+        assertEquals("No reference held", error.getMessage());
+
+        assertEquals(1, service.release(stored.getStorageName(), "alice"));
+        assertThrows(IllegalArgumentException.class, () -> service.release(stored.getStorageName(), "alice"));
+        assertTrue(Files.exists(file));
+
+        assertEquals(0, service.release(stored.getStorageName(), "bob"));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void unknownCountNeverDeletesAndIsRebuiltFromReferencingTables() throws IOException {
+        StoredFile stored = service.store(png(), "alice");
+        String storageName = stored.getStorageName();
+        Path file = dir.resolve("upload").resolve(storageName);
+        // 模拟引用计数日志丢失
+        service.destroy();
+        Files.delete(dir.resolve("refs.log"));
+        service = open();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> service.release(storageName, "alice"));
+        assertEquals("Reference count unknown", error.getMessage());
+        assertTrue(Files.exists(file));
+
+        when(fileReferenceMapper.findAllFileReferences()).thenReturn(List.of(
+                "https://example.com/files/" + storageName,
+                "[\"/files/" + storageName + "\", \"/files/other.png\"]"));
+        service.rebuildMissingReferenceCounts();
+        // 重建出的引用没有持有者，上传者也不能释放
+        assertThrows(IllegalArgumentException.class, () -> service.release(storageName, "alice"));
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void reuploadOfFileWithUnknownCountKeepsIt() throws IOException {
+        StoredFile stored = service.store(png(), "alice");
+        service.destroy();
+        Files.delete(dir.resolve("refs.log"));
+        service = open();
+
+        service.store(png(), "bob");
+        assertEquals(1, service.release(stored.getStorageName(), "bob"));
+        assertTrue(Files.exists(dir.resolve("upload").resolve(stored.getStorageName())));
+    }
+
+    @Test
+    void staleTempFilesAreSweptOnStartup() throws IOException {
+        service.destroy();
+        Path upload = Files.createDirectories(dir.resolve("upload"));
+        Path stale = Files.createFile(upload.resolve(".upload-1.tmp"));
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        // 可能是其他节点正在写的临时文件
+        Path fresh = Files.createFile(upload.resolve(".upload-2.tmp"));
+        service = open();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(fresh));
+    }
+
+    private FileUploadService open() throws IOException {
+        FileUploadService uploadService = new FileUploadService();
+        ReflectionTestUtils.setField(uploadService, "uploadDir", dir.resolve("upload").toString());
+        ReflectionTestUtils.setField(uploadService, "maxSize", 1024L);
+        ReflectionTestUtils.setField(uploadService, "refCountPath", dir.resolve("refs.log").toString());
+        ReflectionTestUtils.setField(uploadService, "fileReferenceMapper", fileReferenceMapper);
+        uploadService.init();
+        return uploadService;
+    }
+
+    private static MockMultipartFile png() {
+        return new MockMultipartFile("file", "a.png", "image/png", PNG);
+    }
+}
@@ -0,0 +1,122 @@
+package com.cows.service;
+
+import com.cows.upload.ServedImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 派生图：按档位归并的缓存键、缓存命中不重复生成、超出磁盘缓存上限时淘汰
+ */
+class ImageDerivativeServiceTest {
+
+    private static final String STORAGE_NAME = "a".repeat(64) + ".png";
+
+    @TempDir
+    Path dir;
+
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path source = dir.resolve(STORAGE_NAME);
+        BufferedImage image = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 800, 400);
+        g.dispose();
+        ImageIO.write(image, "png", source.toFile());
+
+        FileUploadService fileUploadService = mock(FileUploadService.class);
+        when(fileUploadService.resolve(anyString())).thenReturn(null);
+        when(fileUploadService.resolve(STORAGE_NAME)).thenReturn(source);
+        service = open(1024 * 1024);
+        ReflectionTestUtils.setField(service, "fileUploadService", fileUploadService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void noParametersServesTheOriginal() throws IOException {
+        ServedImage served = service.get(STORAGE_NAME, null, null, null);
+        assertEquals(dir.resolve(STORAGE_NAME), served.getFile());
+        assertEquals("image/png", served.getContentType());
+        assertNull(service.get("missing.png", 100, null, null));
+    }
+
+    @Test
+    void nearbyWidthsShareOneCachedVariant() throws IOException {
+        ServedImage first = service.get(STORAGE_NAME, 100, 80, "jpg");
+        assertEquals("image/jpeg", first.getContentType());
+        assertEquals("a".repeat(64) + "_w128_q80.jpg", first.getFile().getFileName().toString());
+        assertEquals(128, ImageIO.read(first.getFile().toFile()).getWidth());
+
+        // 标记文件，命中缓存时不会重新生成
+        Files.setLastModifiedTime(first.getFile(), FileTime.fromMillis(1000));
+        ServedImage second = service.get(STORAGE_NAME, 120, 78, "jpeg");
+        assertEquals(first.getFile(), second.getFile());
+        assertEquals(FileTime.fromMillis(1000), Files.getLastModifiedTime(second.getFile()));
+        assertTrue(second.isExact());
+    }
+
+    @Test
+    void widthIsCappedAtTheSourceWidth() throws IOException {
+        ServedImage served = service.get(STORAGE_NAME, 5000, null, "png");
+        assertEquals(800, ImageIO.read(served.getFile().toFile()).getWidth());
+    }
+
+    @Test
+    void variantsBeyondTheCacheLimitAreEvicted() throws IOException {
+        long largeSize = Files.size(service.get(STORAGE_NAME, 640, null, null).getFile());
+        FileUploadService fileUploadService = (FileUploadService) ReflectionTestUtils.getField(service, "fileUploadService");
+        service.shutdown();
+        // 只容得下一个640宽的派生图
+        service = open(largeSize + 1);
+        ReflectionTestUtils.setField(service, "fileUploadService", fileUploadService);
+
+        Path large = service.get(STORAGE_NAME, 640, null, null).getFile();
+        Path small = service.get(STORAGE_NAME, 64, null, null).getFile();
+        assertFalse(Files.exists(large));
+        assertTrue(Files.exists(small));
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.get(STORAGE_NAME, 0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.get(STORAGE_NAME, 100, 101, null));
+        assertThrows(IllegalArgumentException.class, () -> service.get(STORAGE_NAME, 100, null, "gif"));
+    }
+
+    private ImageDerivativeService open(long maxBytes) throws IOException {
+        ImageDerivativeService derivativeService = new ImageDerivativeService();
+        ReflectionTestUtils.setField(derivativeService, "cacheDir", dir.resolve("cache-" + maxBytes).toString());
+        ReflectionTestUtils.setField(derivativeService, "cacheMaxBytes", maxBytes);
+        ReflectionTestUtils.setField(derivativeService, "workers", 1);
+        ReflectionTestUtils.setField(derivativeService, "queueSize", 4);
+        derivativeService.init();
+        return derivativeService;
+    }
+}
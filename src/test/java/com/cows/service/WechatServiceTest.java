@@ -0,0 +1,114 @@
+package com.cows.service;
+
+import com.cows.cache.SingleFlight;
+import com.cows.entity.WechatToken;
+import com.cows.entity.WechatUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 按openid获取用户信息：有效令牌直接使用，即将过期时在后台刷新，已过期时先用refreshToken刷新，没有令牌时需要重新授权
+ */
+class WechatServiceTest {
+
+    private static final String OPENID = "openid-1";
+    private static final String REFRESHED = "{\"access_token\":\"new-token\",\"openid\":\"openid-1\",\"expires_in\":7200}";
+
+    private WechatService wechatService;
+    private WechatTokenStore tokenStore;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        tokenStore = mock(WechatTokenStore.class);
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(argThat((String url) -> url.contains("/sns/userinfo")), eq(WechatUser.class)))
+                .thenAnswer(inv -> new WechatUser());
+        when(restTemplate.getForObject(argThat((String url) -> url.contains("/sns/oauth2/refresh_token")), eq(String.class)))
+                .thenReturn(REFRESHED);
+
+        SingleFlight singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "staleWhileRevalidate", false);
+        ReflectionTestUtils.setField(singleFlight, "staleTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(singleFlight, "staleMaxSize", 100L);
+        singleFlight.init();
+
+        wechatService = new WechatService();
+        ReflectionTestUtils.setField(wechatService, "appId", "appid");
+        ReflectionTestUtils.setField(wechatService, "secret", "secret");
+        ReflectionTestUtils.setField(wechatService, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(wechatService, "tokenStore", tokenStore);
+        ReflectionTestUtils.setField(wechatService, "singleFlight", singleFlight);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wechatService.shutdown();
+    }
+
+    @Test
+    void validTokenIsUsedWithoutRefreshing() {
+        store(token("old-token", 3600));
+
+        WechatUser user = wechatService.getUserInfoByOpenid(OPENID);
+        assertEquals(OPENID, user.getOpenId());
+        verify(restTemplate).getForObject(argThat((String url) -> url.contains("access_token=old-token")), eq(WechatUser.class));
+        verify(restTemplate, never()).getForObject(anyString(), eq(String.class));
+    }
+
+    @Test
+    void expiredTokenIsRefreshedBeforeUse() {
+        store(token("old-token", -10));
+
+        wechatService.getUserInfoByOpenid(OPENID);
+        ArgumentCaptor<WechatToken> saved = ArgumentCaptor.forClass(WechatToken.class);
+        verify(tokenStore).save(saved.capture());
+        assertEquals("new-token", saved.getValue().getAccessToken());
+        // 刷新不延长refreshToken的有效期
+        assertEquals("refresh-token", saved.getValue().getRefreshToken());
+        verify(restTemplate).getForObject(argThat((String url) -> url.contains("access_token=new-token")), eq(WechatUser.class));
+    }
+
+    @Test
+    void tokenNearExpiryIsUsedAndRefreshedInBackground() {
+        store(token("old-token", 60));
+
+        wechatService.getUserInfoByOpenid(OPENID);
+        verify(restTemplate).getForObject(argThat((String url) -> url.contains("access_token=old-token")), eq(WechatUser.class));
+        verify(tokenStore, timeout(5000)).save(argThat(token -> "new-token".equals(token.getAccessToken())));
+    }
+
+    @Test
+    void missingTokenRequiresReauthorization() {
+        assertNull(wechatService.getUserInfoByOpenid(OPENID));
+        verify(restTemplate, never()).getForObject(anyString(), any());
+    }
+
+    private void store(WechatToken token) {
+        when(tokenStore.get(OPENID)).thenReturn(token);
+        when(tokenStore.reload(OPENID)).thenReturn(token);
+    }
+
+    private static WechatToken token(String accessToken, long validFor) {
+        long now = System.currentTimeMillis() / 1000;
+        return new WechatToken(OPENID, accessToken, now + validFor, "refresh-token", now + 86400);
+    }
+}
@@ -0,0 +1,167 @@
+package com.cows.serviceImpl;
+
+import com.cows.cache.CatalogTable;
+import com.cows.commons.page.ChangeQuery;
+import com.cows.commons.page.ChangeToken;
+import com.cows.dto.ChangesDTO;
+import com.cows.entity.Product;
+import com.cows.exception.InvalidCursorException;
+import com.cows.mapper.BrandMapper;
+import com.cows.mapper.CarouselMapper;
+import com.cows.mapper.CatalogVersionMapper;
+import com.cows.mapper.ProductCategoryMapper;
+import com.cows.mapper.ProductMapper;
+import com.cows.mapper.ProductsCarouselsMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 增量同步：令牌可以原样回传，分页按 (updateTime, id) 续传，返回完的表移到截止时间，
+ * updateTime等于截止时间的行留到下一次返回，不会漏掉
+ */
+class ChangeFeedServiceImplTest {
+
+    private final List<Product> products = new ArrayList<>();
+    private final AtomicReference<String> now = new AtomicReference<>("2024-01-01 10:00:10");
+    private ChangeFeedServiceImpl changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        CatalogVersionMapper catalogVersionMapper = mock(CatalogVersionMapper.class);
+        // 测试中直接把"截止时间"当作当前时间，不做回看
+        when(catalogVersionMapper.findTimeBefore(anyInt())).thenAnswer(inv -> now.get());
+        ProductMapper productMapper = mock(ProductMapper.class);
+        when(productMapper.findProductsChangedAfter(any(ChangeQuery.class)))
+                .thenAnswer(inv -> changedAfter(inv.getArgument(0)));
+        ProductCategoryMapper productCategoryMapper = mock(ProductCategoryMapper.class);
+        when(productCategoryMapper.findProductCategoriesChangedAfter(any(ChangeQuery.class))).thenReturn(List.of());
+        BrandMapper brandMapper = mock(BrandMapper.class);
+        when(brandMapper.findBrandsChangedAfter(any(ChangeQuery.class))).thenReturn(List.of());
+        CarouselMapper carouselMapper = mock(CarouselMapper.class);
+        when(carouselMapper.findCarouselsChangedAfter(any(ChangeQuery.class))).thenReturn(List.of());
+        ProductsCarouselsMapper productsCarouselsMapper = mock(ProductsCarouselsMapper.class);
+        when(productsCarouselsMapper.findProductsCarouselsChangedAfter(any(ChangeQuery.class))).thenReturn(List.of());
+
+        changeFeedService = new ChangeFeedServiceImpl();
+        ReflectionTestUtils.setField(changeFeedService, "catalogVersionMapper", catalogVersionMapper);
+        ReflectionTestUtils.setField(changeFeedService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(changeFeedService, "productCategoryMapper", productCategoryMapper);
+        ReflectionTestUtils.setField(changeFeedService, "brandMapper", brandMapper);
+        ReflectionTestUtils.setField(changeFeedService, "carouselMapper", carouselMapper);
+        ReflectionTestUtils.setField(changeFeedService, "productsCarouselsMapper", productsCarouselsMapper);
+        ReflectionTestUtils.setField(changeFeedService, "commitLagSeconds", 5);
+    }
+
+    @Test
+    void tokenRoundTripsAndUnknownTokensAreRejected() {
+        ChangeToken token = new ChangeToken();
+        token.moveTo(CatalogTable.PRODUCTS, "2024-01-01 10:00:00", 42);
+        ChangeToken decoded = ChangeToken.decode(token.encode());
+        assertEquals(new ChangeToken.Position("2024-01-01 10:00:00", 42), decoded.positionOf(CatalogTable.PRODUCTS));
+        assertNull(decoded.positionOf(CatalogTable.BRANDS));
+
+        assertThrows(InvalidCursorException.class, () -> ChangeToken.decode("不是令牌"));
+        assertThrows(InvalidCursorException.class, () -> changeFeedService.getChanges(null, 0));
+        assertThrows(InvalidCursorException.class, () -> changeFeedService.getChanges(null, ChangeFeedServiceImpl.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void finishedTableMovesToUntilWithIdZero() {
+        products.add(product(1, "2024-01-01 10:00:01", false));
+        products.add(product(2, "2024-01-01 10:00:02", true));
+
+        ChangesDTO changes = changeFeedService.getChanges(null, 10);
+        assertEquals(List.of(1), ids(changes.getProducts().getUpserts()));
+        assertEquals(List.of(2), changes.getProducts().getDeletedIds());
+        assertFalse(changes.isHasMore());
+        assertEquals(new ChangeToken.Position("2024-01-01 10:00:10", 0),
+                ChangeToken.decode(changes.getToken()).positionOf(CatalogTable.PRODUCTS));
+
+        // 没有新变更时令牌只跟着截止时间前进
+        now.set("2024-01-01 10:00:20");
+        ChangesDTO empty = changeFeedService.getChanges(changes.getToken(), 10);
+        assertTrue(empty.getProducts().getUpserts().isEmpty());
+        assertEquals(new ChangeToken.Position("2024-01-01 10:00:20", 0),
+                ChangeToken.decode(empty.getToken()).positionOf(CatalogTable.PRODUCTS));
+    }
+
+    @Test
+    void pagesContinueAfterLastRowWithinTheSameSecond() {
+        products.add(product(1, "2024-01-01 10:00:01", false));
+        products.add(product(2, "2024-01-01 10:00:01", false));
+        products.add(product(3, "2024-01-01 10:00:01", false));
+        products.add(product(4, "2024-01-01 10:00:02", false));
+
+        ChangesDTO first = changeFeedService.getChanges(null, 2);
+        assertEquals(List.of(1, 2), ids(first.getProducts().getUpserts()));
+        assertTrue(first.getProducts().isHasMore());
+        assertTrue(first.isHasMore());
+        assertEquals(new ChangeToken.Position("2024-01-01 10:00:01", 2),
+                ChangeToken.decode(first.getToken()).positionOf(CatalogTable.PRODUCTS));
+
+        ChangesDTO second = changeFeedService.getChanges(first.getToken(), 2);
+        assertEquals(List.of(3, 4), ids(second.getProducts().getUpserts()));
+        // 多取的一行没有取到，说明已经返回完，直接移到截止时间
+        assertFalse(second.getProducts().isHasMore());
+        assertEquals(new ChangeToken.Position("2024-01-01 10:00:10", 0),
+                ChangeToken.decode(second.getToken()).positionOf(CatalogTable.PRODUCTS));
+    }
+
+    @Test
+    void rowsAtUntilAreReturnedByTheNextSync() {
+        products.add(product(5, "2024-01-01 10:00:09", false));
+        // 截止时间不含：与截止时间同一秒写入的行这次不返回
+        products.add(product(7, "2024-01-01 10:00:10", false));
+
+        ChangesDTO first = changeFeedService.getChanges(null, 10);
+        assertEquals(List.of(5), ids(first.getProducts().getUpserts()));
+
+        // 截止时间那一秒内又提交了一行，ID比同一秒的其他行小
+        products.add(product(6, "2024-01-01 10:00:10", false));
+        now.set("2024-01-01 10:00:20");
+        ChangesDTO second = changeFeedService.getChanges(first.getToken(), 10);
+        assertEquals(List.of(6, 7), ids(second.getProducts().getUpserts()));
+    }
+
+    /**
+     * 按 ProductMapper.xml 中 findProductsChangedAfter 的条件过滤内存中的行
+     */
+    private List<Product> changedAfter(ChangeQuery query) {
+        return products.stream()
+                .filter(product -> product.getUpdateTime().compareTo(query.getUntil()) < 0)
+                .filter(product -> query.getLastTime() == null
+                        || product.getUpdateTime().compareTo(query.getLastTime()) > 0
+                        || (product.getUpdateTime().equals(query.getLastTime()) && product.getId() > query.getLastId()))
+                .sorted(Comparator.comparing(Product::getUpdateTime).thenComparingInt(Product::getId))
+                .limit(query.getLimit())
+                .toList();
+    }
+
+    private static List<Integer> ids(List<Product> rows) {
+        return rows.stream().map(Product::getId).toList();
+    }
+
+    private static Product product(int id, String updateTime, boolean deleted) {
+        Product product = new Product();
+        product.setId(id);
+        product.setUpdateTime(updateTime);
+        product.setDeleted(deleted);
+        return product;
+    }
+}
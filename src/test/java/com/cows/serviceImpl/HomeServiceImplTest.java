@@ -0,0 +1,183 @@
+package com.cows.serviceImpl;
+
+import com.cows.cache.CacheNames;
+import com.cows.cache.CatalogTable;
+import com.cows.cache.CatalogVersion;
+import com.cows.cache.SingleFlight;
+import com.cows.dto.HomePageDTO;
+import com.cows.entity.About;
+import com.cows.entity.BasicInformation;
+import com.cows.entity.Brand;
+import com.cows.entity.BrandAuthorizationCertificate;
+import com.cows.entity.Carousel;
+import com.cows.entity.Product;
+import com.cows.entity.ProductCategory;
+import com.cows.service.AboutService;
+import com.cows.service.BasicInformationService;
+import com.cows.service.BrandAuthorizationCertificateService;
+import com.cows.service.BrandService;
+import com.cows.service.CarouselService;
+import com.cows.service.CatalogVersionService;
+import com.cows.service.ProductCategoryService;
+import com.cows.service.ProductService;
+import com.cows.service.ProductsCarouselsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 官网首页：各栏目组装到一个结果中，按首页涉及的全部表的版本缓存，降级或读到旧结果的首页不缓存
+ */
+class HomeServiceImplTest {
+
+    private final AtomicLong checksum = new AtomicLong(1);
+    private HomeServiceImpl homeService;
+    private ConcurrentMapCacheManager cacheManager;
+    private CarouselService carouselService;
+    private ProductService productService;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        carouselService = mock(CarouselService.class);
+        productService = mock(ProductService.class);
+        ProductsCarouselsService productsCarouselsService = mock(ProductsCarouselsService.class);
+        ProductCategoryService productCategoryService = mock(ProductCategoryService.class);
+        BasicInformationService basicInformationService = mock(BasicInformationService.class);
+        AboutService aboutService = mock(AboutService.class);
+        BrandAuthorizationCertificateService certificateService = mock(BrandAuthorizationCertificateService.class);
+        BrandService brandService = mock(BrandService.class);
+        when(carouselService.getAllCarousels()).thenReturn(List.of(new Carousel()));
+        when(productService.getAllProducts()).thenReturn(List.of(new Product(), new Product()));
+        when(productsCarouselsService.getAllProductsCarouselsHydrated()).thenReturn(List.of());
+        when(productCategoryService.getAllProductCategories()).thenReturn(List.of(new ProductCategory()));
+        when(basicInformationService.getAllBasicInformation()).thenReturn(List.of(new BasicInformation()));
+        when(aboutService.getAllAbouts()).thenReturn(List.of(new About()));
+        when(certificateService.getAllCertificates()).thenReturn(List.of(new BrandAuthorizationCertificate()));
+        when(brandService.getAllBrands()).thenReturn(List.of(new Brand()));
+
+        CatalogVersionService catalogVersionService = mock(CatalogVersionService.class);
+        when(catalogVersionService.versionOf(any(CatalogTable[].class)))
+                .thenAnswer(inv -> new CatalogVersion(checksum.get(), 0));
+        when(catalogVersionService.etagOf(any(CatalogVersion.class)))
+                .thenAnswer(inv -> "\"" + Long.toHexString(inv.<CatalogVersion>getArgument(0).getChecksum()) + "\"");
+        cacheManager = new ConcurrentMapCacheManager(CacheNames.HOME_PAGE);
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "staleWhileRevalidate", true);
+        ReflectionTestUtils.setField(singleFlight, "staleTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(singleFlight, "staleMaxSize", 100L);
+        singleFlight.init();
+
+        homeService = new HomeServiceImpl();
+        ReflectionTestUtils.setField(homeService, "carouselService", carouselService);
+        ReflectionTestUtils.setField(homeService, "productsCarouselsService", productsCarouselsService);
+        ReflectionTestUtils.setField(homeService, "productCategoryService", productCategoryService);
+        ReflectionTestUtils.setField(homeService, "productService", productService);
+        ReflectionTestUtils.setField(homeService, "basicInformationService", basicInformationService);
+        ReflectionTestUtils.setField(homeService, "aboutService", aboutService);
+        ReflectionTestUtils.setField(homeService, "brandAuthorizationCertificateService", certificateService);
+        ReflectionTestUtils.setField(homeService, "brandService", brandService);
+        ReflectionTestUtils.setField(homeService, "catalogVersionService", catalogVersionService);
+        ReflectionTestUtils.setField(homeService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(homeService, "singleFlight", singleFlight);
+        ReflectionTestUtils.setField(homeService, "sectionTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(homeService, "workers", 4);
+        ReflectionTestUtils.setField(homeService, "queueSize", 16);
+        homeService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        homeService.shutdown();
+    }
+
+    @Test
+    void assemblesEverySection() {
+        HomePageDTO home = homeService.getHomePage();
+        assertEquals(1, home.getCarousels().size());
+        assertEquals(0, home.getProductsCarousels().size());
+        assertEquals(1, home.getProductCategories().size());
+        assertEquals(2, home.getProducts().size());
+        assertEquals(1, home.getBasicInformation().size());
+        assertEquals(1, home.getAbouts().size());
+        assertEquals(1, home.getCertificates().size());
+        assertEquals(1, home.getBrands().size());
+        assertTrue(home.getDegradedSections().isEmpty());
+    }
+
+    @Test
+    void cachedUnderCatalogVersionUntilAnyTableChanges() {
+        HomePageDTO first = homeService.getHomePage();
+        assertSame(first, homeService.getHomePage());
+        assertNotNull(cacheManager.getCache(CacheNames.HOME_PAGE).get("\"1\""));
+        verify(productService, times(1)).getAllProducts();
+
+        checksum.set(2);
+        HomePageDTO second = homeService.getHomePage();
+        assertNotSame(first, second);
+        assertNotNull(cacheManager.getCache(CacheNames.HOME_PAGE).get("\"2\""));
+        verify(productService, times(2)).getAllProducts();
+    }
+
+    @Test
+    void degradedSectionFallsBackToLastLoadedAndIsNotCached() {
+        homeService.getHomePage();
+        checksum.set(2);
+        when(carouselService.getAllCarousels()).thenThrow(new IllegalStateException("数据库不可用"));
+
+        HomePageDTO home = homeService.getHomePage();
+        assertEquals(List.of("carousels"), home.getDegradedSections());
+        assertEquals(1, home.getCarousels().size());
+        assertNull(cacheManager.getCache(CacheNames.HOME_PAGE).get("\"2\""));
+    }
+
+    @Test
+    void homeBuiltFromStaleSectionIsNotCached() throws Exception {
+        singleFlight.loadOrStale(CacheNames.CAROUSELS, CacheNames.ALL_KEY, () -> List.of(new Carousel()));
+        // 另一个请求正在刷新轮播图，首页的轮播图栏目拿到上次的结果
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Carousel>> refresh = CompletableFuture.supplyAsync(() ->
+                singleFlight.loadOrStale(CacheNames.CAROUSELS, CacheNames.ALL_KEY, () -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        when(carouselService.getAllCarousels()).thenAnswer(inv ->
+                singleFlight.loadOrStale(CacheNames.CAROUSELS, CacheNames.ALL_KEY, List::<Carousel>of));
+
+        HomePageDTO home = homeService.getHomePage();
+        assertTrue(home.getDegradedSections().isEmpty());
+        assertEquals(1, home.getCarousels().size());
+        assertNull(cacheManager.getCache(CacheNames.HOME_PAGE).get("\"1\""));
+
+        release.countDown();
+        refresh.get(5, TimeUnit.SECONDS);
+    }
+}
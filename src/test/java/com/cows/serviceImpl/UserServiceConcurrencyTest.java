@@ -0,0 +1,279 @@
+package com.cows.serviceImpl;
+
+import com.cows.cache.CacheNames;
+import com.cows.cache.IdFilterTable;
+import com.cows.cache.IdLookupGuard;
+import com.cows.entity.User;
+import com.cows.entity.WechatUser;
+import com.cows.mapper.UserMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户读写的并发行为：读取不加行锁；并发更新按版本号比较并更新，冲突时在事务外重试，不丢失更新；
+ * 同一openid的并发微信登录只创建一个用户
+ * UserMapper由内存中的表代替，按 UserMapper.xml 的语义实现版本号比较和openid唯一，不需要数据库，结果不依赖线程调度和耗时
+ */
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 4;
+
+    /**
+     * 内存中的User表，所有操作在同一把锁内执行，相当于数据库的行锁和唯一索引
+     */
+    private final Map<Integer, User> table = new HashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicInteger conflicts = new AtomicInteger();
+    /**
+     * 不为null时，前THREADS次按ID读取在这里汇合，保证所有线程读到同一个版本
+     */
+    private volatile CyclicBarrier readBarrier;
+    private final AtomicInteger barrierReads = new AtomicInteger();
+    private UserMapper userMapper;
+    private UserServiceImpl userService;
+    private int userId;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        when(userMapper.findUserById(anyInt())).thenAnswer(inv -> {
+            CyclicBarrier barrier = readBarrier;
+            if (barrier != null && barrierReads.getAndIncrement() < THREADS) {
+                barrier.await(10, TimeUnit.SECONDS);
+            }
+            return copyOf(inv.getArgument(0));
+        });
+        when(userMapper.updateUser(any(User.class))).thenAnswer(inv -> update(inv.getArgument(0)));
+        when(userMapper.upsertWechatUser(any(User.class))).thenAnswer(inv -> upsertWechatUser(inv.getArgument(0)));
+        when(userMapper.findByWechatOpenId(anyString())).thenAnswer(inv -> findByWechatOpenId(inv.getArgument(0)));
+
+        IdLookupGuard idLookupGuard = mock(IdLookupGuard.class);
+        when(idLookupGuard.find(eq(IdFilterTable.USERS), anyInt(), any()))
+                .thenAnswer(inv -> inv.<IntFunction<User>>getArgument(2).apply(inv.<Integer>getArgument(1)));
+
+        userService = new UserServiceImpl(userMapper);
+        ReflectionTestUtils.setField(userService, "idLookupGuard", idLookupGuard);
+        ReflectionTestUtils.setField(userService, "cacheManager", new ConcurrentMapCacheManager(CacheNames.WECHAT_USER_IDS));
+        ReflectionTestUtils.setField(userService, "maxUpdateAttempts", THREADS);
+        ReflectionTestUtils.setField(userService, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        User user = new User();
+        user.setUserName("concurrency-test");
+        user.setPassword("secret");
+        userId = insert(user);
+    }
+
+    @Test
+    void readsTakeNoRowLocks() throws IOException {
+        String xml = new ClassPathResource("mapper/UserMapper.xml").getContentAsString(StandardCharsets.UTF_8);
+        for (String id : new String[]{"findUserById", "findAllUsers", "findByWechatOpenId"}) {
+            Matcher matcher = Pattern.compile("<select id=\"" + id + "\".*?</select>", Pattern.DOTALL).matcher(xml);
+            assertTrue(matcher.find(), id);
+            String sql = matcher.group().toUpperCase();
+            assertFalse(sql.contains("FOR UPDATE") || sql.contains("LOCK IN SHARE MODE") || sql.contains("FOR SHARE"),
+                    "读取不应加行锁: " + id);
+        }
+    }
+
+    @Test
+    void concurrentUpdatesWithoutVersionRetryAndEachBumpsVersion() throws Exception {
+        // 所有线程先读到同一个版本，第一轮只有一个能更新成功，其余的按新版本重试
+        readBarrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String name = "concurrency-test-" + i;
+                futures.add(executor.submit(() -> {
+                    User user = new User();
+                    user.setId(userId);
+                    user.setUserName(name);
+                    user.setPassword("secret");
+                    user.setEnable(true);
+                    return userService.updateUser(user);
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(1, future.get(30, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(conflicts.get() >= THREADS - 1, "第一轮应有" + (THREADS - 1) + "个更新冲突: " + conflicts.get());
+        assertEquals(THREADS, copyOf(userId).getVersion().intValue(), "每次成功的更新版本号加1，不会丢失更新");
+    }
+
+    @Test
+    void updateWithStaleVersionIsRejected() {
+        User first = copyOf(userId);
+        User second = copyOf(userId);
+
+        first.setUserName("first");
+        assertEquals(1, userService.updateUser(first));
+        assertEquals(second.getVersion() + 1, first.getVersion().intValue());
+
+        second.setUserName("second");
+        assertThrows(OptimisticLockingFailureException.class, () -> userService.updateUser(second));
+        assertEquals("first", copyOf(userId).getUserName());
+    }
+
+    @Test
+    void conflictsAreRetriedOutsideTransactionsOnly() {
+        doAnswer(inv -> {
+            conflicts.incrementAndGet();
+            return 0;
+        }).when(userMapper).updateUser(any(User.class));
+        assertThrows(OptimisticLockingFailureException.class, () -> userService.updateUser(unversioned()));
+        assertEquals(THREADS, conflicts.get());
+
+        // 调用方已在事务中：不在事务内退避等待，只尝试一次
+        conflicts.set(0);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> userService.updateUser(unversioned()));
+        assertEquals(1, conflicts.get());
+    }
+
+    @Test
+    void concurrentWechatLoginsCreateOneUser() throws Exception {
+        String openId = "concurrency-test-openid";
+        CyclicBarrier start = new CyclicBarrier(THREADS * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        try {
+            List<Future<User>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * 2; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    WechatUser wechatUser = new WechatUser();
+                    wechatUser.setOpenId(openId);
+                    return userService.loginOrCreateWechatUser(wechatUser);
+                }));
+            }
+            int id = futures.get(0).get(30, TimeUnit.SECONDS).getId();
+            for (Future<User> future : futures) {
+                assertEquals(id, future.get(30, TimeUnit.SECONDS).getId(), "并发回调应得到同一个用户");
+            }
+            synchronized (table) {
+                assertEquals(1, table.values().stream().filter(user -> openId.equals(user.getWechatOpenId())).count());
+            }
+            assertEquals(id, userService.findByWechatOpenId(openId).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private User unversioned() {
+        User user = new User();
+        user.setId(userId);
+        user.setUserName("retry-test");
+        user.setPassword("secret");
+        return user;
+    }
+
+    private int insert(User user) {
+        synchronized (table) {
+            user.setId(nextId.getAndIncrement());
+            user.setVersion(0);
+            table.put(user.getId(), copy(user));
+            return user.getId();
+        }
+    }
+
+    /**
+     * UPDATE ... SET version = version + 1 WHERE id = #{id} AND version = #{version}
+     */
+    private int update(User user) {
+        synchronized (table) {
+            User current = table.get(user.getId());
+            if (current == null || !current.getVersion().equals(user.getVersion())) {
+                conflicts.incrementAndGet();
+                return 0;
+            }
+            User updated = copy(user);
+            updated.setWechatOpenId(current.getWechatOpenId());
+            updated.setVersion(current.getVersion() + 1);
+            table.put(user.getId(), updated);
+            return 1;
+        }
+    }
+
+    /**
+     * INSERT ... ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)：openid已存在时回填已有用户的ID
+     */
+    private int upsertWechatUser(User user) {
+        synchronized (table) {
+            User existing = findByWechatOpenId(user.getWechatOpenId());
+            if (existing != null) {
+                user.setId(existing.getId());
+                return 0;
+            }
+            insert(user);
+            return 1;
+        }
+    }
+
+    private User findByWechatOpenId(String openId) {
+        synchronized (table) {
+            return table.values().stream().filter(user -> openId.equals(user.getWechatOpenId()))
+                    .findFirst().map(UserServiceConcurrencyTest::copy).orElse(null);
+        }
+    }
+
+    private User copyOf(int id) {
+        synchronized (table) {
+            User user = table.get(id);
+            return user == null ? null : copy(user);
+        }
+    }
+
+    private static User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setUserName(source.getUserName());
+        user.setPassword(source.getPassword());
+        user.setEnable(source.isEnable());
+        user.setWechatOpenId(source.getWechatOpenId());
+        user.setVersion(source.getVersion());
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cows.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DiskLruCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyAccessedWhenOverLimit() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 30);
+        cache.open();
+        put(cache, "a", 10);
+        put(cache, "b", 10);
+        put(cache, "c", 10);
+        // 访问a之后b成为最久未访问的
+        assertNotNull(cache.get("a"));
+        put(cache, "d", 10);
+
+        assertNull(cache.get("b"));
+        assertFalse(Files.exists(dir.resolve("b")));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(30, cache.totalBytes());
+    }
+
+    @Test
+    void replacingAnEntryCountsOnlyTheNewSize() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.open();
+        put(cache, "a", 40);
+        put(cache, "a", 10);
+        assertEquals(10, cache.totalBytes());
+    }
+
+    @Test
+    void reopenRestoresEntriesByModificationTimeAndDropsTempFiles() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.open();
+        put(cache, "old", 10);
+        put(cache, "new", 10);
+        Files.setLastModifiedTime(dir.resolve("old"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(dir.resolve("new"), FileTime.fromMillis(2000));
+        Path temp = cache.createTempFile();
+
+        DiskLruCache reopened = new DiskLruCache(dir, 15);
+        reopened.open();
+        assertFalse(Files.exists(temp));
+        assertNull(reopened.get("old"));
+        assertNotNull(reopened.get("new"));
+        assertEquals(10, reopened.totalBytes());
+    }
+
+    @Test
+    void fileDeletedBehindTheCacheIsAMiss() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.open();
+        put(cache, "a", 10);
+        Files.delete(dir.resolve("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.totalBytes());
+    }
+
+    private static void put(DiskLruCache cache, String name, int size) throws IOException {
+        Path temp = cache.createTempFile();
+        Files.write(temp, new byte[size]);
+        cache.commit(temp, name);
+    }
+}
@@ -0,0 +1,103 @@
+package com.cows.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedLogFileNameIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysPutsAndRemovesAfterRestart() throws IOException {
+        MappedLogFileNameIndex index = open();
+        index.put("a.png", "头像.png");
+        index.put("b.jpg", "old.jpg");
+        index.put("b.jpg", "new.jpg");
+        index.put("c.bmp", "c.bmp");
+        index.remove("c.bmp");
+        index.close();
+
+        MappedLogFileNameIndex reopened = open();
+        assertEquals("头像.png", reopened.get("a.png"));
+        assertEquals("new.jpg", reopened.get("b.jpg"));
+        assertNull(reopened.get("c.bmp"));
+        assertEquals(2, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void putIfAbsentKeepsFirstDisplayName() throws IOException {
+        MappedLogFileNameIndex index = open();
+        index.putIfAbsent("a.png", "first.png");
+        // 相同内容的第二次上传不能改掉第一次上传的展示名
+        index.putIfAbsent("a.png", "second.png");
+        assertEquals("first.png", index.get("a.png"));
+
+        index.remove("a.png");
+        index.putIfAbsent("a.png", "third.png");
+        index.close();
+
+        MappedLogFileNameIndex reopened = open();
+        assertEquals("third.png", reopened.get("a.png"));
+        reopened.close();
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfLog() throws IOException {
+        MappedLogFileNameIndex index = open();
+        index.put("a.png", "a.png");
+        index.put("b.png", "b.png");
+        index.close();
+
+        // 模拟写最后一条记录时进程崩溃
+        Path log = dir.resolve("names.log");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        MappedLogFileNameIndex reopened = open();
+        assertEquals("a.png", reopened.get("a.png"));
+        assertNull(reopened.get("b.png"));
+        reopened.put("c.png", "c.png");
+        reopened.close();
+
+        MappedLogFileNameIndex again = open();
+        assertEquals("c.png", again.get("c.png"));
+        again.close();
+    }
+
+    @Test
+    void compactsOverwrittenEntries() throws IOException {
+        Files.createDirectories(dir.resolve("upload"));
+        Files.createFile(dir.resolve("upload").resolve("a.png"));
+        MappedLogFileNameIndex index = open();
+        String padding = "x".repeat(1000);
+        for (int i = 0; i < 10_000; i++) {
+            index.put("a.png", padding + i);
+        }
+        index.close();
+
+        assertTrue(Files.size(dir.resolve("names.log")) < 4L * 1024 * 1024);
+        MappedLogFileNameIndex reopened = open();
+        assertEquals(padding + 9999, reopened.get("a.png"));
+        reopened.close();
+    }
+
+    private MappedLogFileNameIndex open() throws IOException {
+        MappedLogFileNameIndex index = new MappedLogFileNameIndex(dir.resolve("names.log").toString(),
+                dir.resolve("upload").toString());
+        index.open();
+        return index;
+    }
+}